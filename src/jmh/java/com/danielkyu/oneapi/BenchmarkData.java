@@ -0,0 +1,49 @@
+package com.danielkyu.oneapi;
+
+/** Realistic movie pages shared by the benchmarks. */
+final class BenchmarkData {
+  private BenchmarkData() {
+    // Prevent instantiation as this is a utility class.
+  }
+
+  /**
+   * Builds the JSON body of a movie page as returned by the OneApi service.
+   *
+   * @param pageSize The number of movies in the page.
+   * @return The response body.
+   */
+  static String moviePage(int pageSize) {
+    StringBuilder json = new StringBuilder("{\"docs\":[");
+
+    for (int i = 0; i < pageSize; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+
+      json.append("{\"_id\":\"5cd95395de30eff6ebcc")
+          .append(String.format("%04x", i))
+          .append("\",\"name\":\"The Lord of the Rings, Part ")
+          .append(i)
+          .append("\",\"runtimeInMinutes\":")
+          .append(150 + i % 60)
+          .append(",\"budgetInMillions\":")
+          .append(90 + i % 200)
+          .append(",\"boxOfficeRevenueInMillions\":")
+          .append(800 + i % 300)
+          .append(",\"academyAwardNominations\":")
+          .append(i % 14)
+          .append(",\"academyAwardWins\":")
+          .append(i % 12)
+          .append(",\"rottenTomatoesScore\":")
+          .append(60 + i % 40)
+          .append('}');
+    }
+
+    return json.append("],\"total\":")
+        .append(pageSize)
+        .append(",\"limit\":")
+        .append(pageSize)
+        .append(",\"offset\":0,\"page\":1,\"pages\":1}")
+        .toString();
+  }
+}
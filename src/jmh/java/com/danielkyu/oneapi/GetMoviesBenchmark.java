@@ -0,0 +1,77 @@
+package com.danielkyu.oneapi;
+
+import com.danielkyu.oneapi.params.MovieParams;
+import com.danielkyu.oneapi.responses.MovieResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures end-to-end movie requests against a local mock server: building the query, the HTTP
+ * exchange, decoding and the SDK's request pipeline. Caching is disabled so that every invocation
+ * reaches the server. Sample mode reports latency percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GetMoviesBenchmark {
+  @Param({"10", "100"})
+  public int pageSize;
+
+  private MockWebServer server;
+  private OneApi oneApi;
+  private MovieParams movieParams;
+
+  @Setup
+  public void setUp() throws IOException {
+    String body = BenchmarkData.moviePage(this.pageSize);
+
+    this.server = new MockWebServer();
+    this.server.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            return new MockResponse().setResponseCode(200).setBody(body);
+          }
+        });
+    this.server.start();
+    this.oneApi =
+        new OneApi(
+            ConfigOptions.builder()
+                .fastStart(true)
+                .apiKey("benchmark")
+                .baseUrl(this.server.url("/").toString())
+                .cacheEnabled(false)
+                .build());
+    this.movieParams = new MovieParams().withLimit(this.pageSize);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    // Release the SDK's threads and connections so that they do not carry over into the next trial.
+    this.oneApi.close();
+    this.server.shutdown();
+  }
+
+  @Benchmark
+  public MovieResponse getMovies() {
+    return this.oneApi.getMovies(this.movieParams);
+  }
+
+  @Benchmark
+  public MovieResponse getMoviesAsync() {
+    return this.oneApi.getMoviesAsync(this.movieParams).join();
+  }
+}
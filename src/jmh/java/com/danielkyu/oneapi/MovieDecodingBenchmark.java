@@ -0,0 +1,52 @@
+package com.danielkyu.oneapi;
+
+import com.danielkyu.oneapi.responses.MovieResponse;
+import com.danielkyu.oneapi.responses.Pagination;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures decoding of movie pages: binding a whole page as Retrofit's Jackson converter does, and
+ * visiting the movies incrementally as {@link OneApi#visitMovies} does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MovieDecodingBenchmark {
+  @Param({"10", "100", "1000"})
+  public int pageSize;
+
+  private byte[] body;
+  private ObjectReader reader;
+
+  @Setup
+  public void setUp() {
+    this.body = BenchmarkData.moviePage(this.pageSize).getBytes(StandardCharsets.UTF_8);
+    // Retrofit's JacksonConverterFactory.create() uses a default ObjectMapper.
+    this.reader = new ObjectMapper().readerFor(MovieResponse.class);
+  }
+
+  @Benchmark
+  public MovieResponse bindPage() throws IOException {
+    return this.reader.readValue(this.body);
+  }
+
+  @Benchmark
+  public Pagination visitPage(Blackhole blackhole) throws IOException {
+    return DocumentStreamParser.parse(
+        new ByteArrayInputStream(this.body), MovieResponse.Movie.class, blackhole::consume);
+  }
+}
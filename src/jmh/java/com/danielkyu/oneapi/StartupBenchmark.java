@@ -0,0 +1,144 @@
+package com.danielkyu.oneapi;
+
+import com.danielkyu.oneapi.params.MovieParams;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.apache.logging.log4j.LogManager;
+
+/**
+ * Measures the time from {@code new OneApi()} to the first completed request, with and without
+ * fast-start mode.
+ *
+ * <p>Every run starts a fresh JVM, so that class loading and configuration parsing are included
+ * just as they are when an application starts. Requests are served by a local mock server so that
+ * network latency does not drown out the startup cost. Run with {@code gradle startupBenchmark},
+ * optionally passing the number of runs per mode with {@code --args}.
+ */
+public final class StartupBenchmark {
+  private static final int DEFAULT_RUNS = 5;
+  private static final String RESULT_PREFIX = "startup-benchmark-result ";
+  private static final String MOVIE_RESPONSE =
+      "{\"docs\":[{\"_id\": \"100\", \"name\": \"The Fellowship of the Ring\"}], \"total\": 1}";
+
+  private StartupBenchmark() {
+    // Prevent instantiation as this is an entry point.
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length == 2) {
+      runOnce(args[0], Boolean.parseBoolean(args[1]));
+      return;
+    }
+
+    int runs = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RUNS;
+    MockWebServer server = new MockWebServer();
+
+    server.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            return new MockResponse().setResponseCode(200).setBody(MOVIE_RESPONSE);
+          }
+        });
+    server.start();
+
+    try {
+      for (boolean fastStart : new boolean[] {false, true}) {
+        long[] constructorNanos = new long[runs];
+        long[] firstRequestNanos = new long[runs];
+
+        for (int run = 0; run < runs; run++) {
+          long[] result = runInNewJvm(server.url("/").toString(), fastStart);
+
+          constructorNanos[run] = result[0];
+          firstRequestNanos[run] = result[1];
+        }
+
+        System.out.printf(
+            "%-10s new OneApi(): median %6.1f ms | to first response: median %6.1f ms, min %6.1f"
+                + " ms (%d runs)%n",
+            fastStart ? "fast-start" : "default",
+            median(constructorNanos),
+            median(firstRequestNanos),
+            Arrays.stream(firstRequestNanos).min().getAsLong() / 1e6,
+            runs);
+      }
+    } finally {
+      server.shutdown();
+    }
+  }
+
+  private static void runOnce(String baseUrl, boolean fastStart) {
+    // Logging is normally initialized by the application before the SDK is created, and its cost
+    // depends on the application's logging configuration, so it is kept out of the measurement.
+    LogManager.getContext();
+
+    long startNanos = System.nanoTime();
+    OneApi oneApi =
+        new OneApi(ConfigOptions.builder().baseUrl(baseUrl).fastStart(fastStart).build());
+    long constructedNanos = System.nanoTime();
+
+    oneApi.getMovies(new MovieParams());
+
+    long completedNanos = System.nanoTime();
+
+    System.out.println(
+        RESULT_PREFIX + (constructedNanos - startNanos) + " " + (completedNanos - startNanos));
+  }
+
+  private static long[] runInNewJvm(String baseUrl, boolean fastStart)
+      throws IOException, InterruptedException {
+    List<String> command = new ArrayList<>();
+
+    command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    // Fast-start mode does not read the benchmark configuration file, so mirror it here.
+    command.add("-Done-api.api-key=benchmark");
+    command.add(StartupBenchmark.class.getName());
+    command.add(baseUrl);
+    command.add(String.valueOf(fastStart));
+
+    Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+    long[] result = null;
+
+    try (BufferedReader reader =
+        new BufferedReader(
+            new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+      String line;
+
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith(RESULT_PREFIX)) {
+          result =
+              Arrays.stream(line.substring(RESULT_PREFIX.length()).split(" "))
+                  .mapToLong(Long::parseLong)
+                  .toArray();
+        }
+      }
+    }
+
+    if (!process.waitFor(1, TimeUnit.MINUTES) || process.exitValue() != 0 || result == null) {
+      throw new IllegalStateException("Benchmark run failed: " + command);
+    }
+
+    return result;
+  }
+
+  private static double median(long[] nanos) {
+    long[] sorted = nanos.clone();
+
+    Arrays.sort(sorted);
+    return sorted[sorted.length / 2] / 1e6;
+  }
+}
@@ -0,0 +1,59 @@
+package com.danielkyu.oneapi.params;
+
+import com.danielkyu.oneapi.params.MovieParams.MovieAttribute;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the cost of turning movie parameters into the query list sent with every request, and
+ * of compiling them into a reusable query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MovieParamsBenchmark {
+  private MovieParams unfiltered;
+  private MovieParams filtered;
+  private ResourceQuery<MovieParams> compiled;
+
+  @Setup
+  public void setUp() {
+    this.unfiltered = new MovieParams();
+    this.filtered =
+        new MovieParams()
+            .withAttributeEquals(MovieAttribute.NAME, "/ring/i")
+            .withAttributeGreaterThanOrEqualTo(MovieAttribute.RUNTIME_IN_MINUTES, 150)
+            .withAttributeLessThan(MovieAttribute.BUDGET_IN_MILLIONS, 300)
+            .withAttributeNotEquals(MovieAttribute.ACADEMY_AWARD_WINS, 0)
+            .withLimit(100)
+            .withPage(2);
+    this.compiled = this.filtered.build();
+  }
+
+  @Benchmark
+  public List<String> toQueryListUnfiltered() {
+    return this.unfiltered.toQueryList();
+  }
+
+  @Benchmark
+  public List<String> toQueryListFiltered() {
+    return this.filtered.toQueryList();
+  }
+
+  @Benchmark
+  public ResourceQuery<MovieParams> buildFiltered() {
+    return this.filtered.build();
+  }
+
+  @Benchmark
+  public List<String> toQueryListCompiled() {
+    return this.compiled.toQueryList();
+  }
+}
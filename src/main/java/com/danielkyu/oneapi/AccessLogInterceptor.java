@@ -0,0 +1,200 @@
+package com.danielkyu.oneapi;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.StringMapMessage;
+import retrofit2.Invocation;
+
+/**
+ * Custom OkHttp interceptor that writes a structured access log entry for a sample of the calls
+ * made to the OneApi service.
+ *
+ * <p>Every {@code sampleRate}-th call is logged, along with every call slower than the slow
+ * threshold and every failed call. Entries are {@link StringMapMessage}s with the endpoint, method,
+ * path, query, status, duration, response size and error of the call, so layouts that understand
+ * map messages (e.g. JSON) can render them as fields. Successful calls are logged at INFO and
+ * failed calls at WARN to the {@value #LOGGER_NAME} logger.
+ *
+ * <p>Entries are built and written on a dedicated daemon thread, so the calling thread only pays
+ * for the sampling decision. If the writer falls behind, new entries are dropped rather than
+ * queued without bound. When the logger is disabled the interceptor does nothing but check its
+ * level.
+ */
+final class AccessLogInterceptor implements Interceptor, AutoCloseable {
+  static final String LOGGER_NAME = "com.danielkyu.oneapi.access";
+  static final int DEFAULT_SAMPLE_RATE = 100;
+  static final long DEFAULT_SLOW_THRESHOLD_MILLIS = 1000;
+  static final int MAX_PENDING_ENTRIES = 1024;
+
+  private static final Logger logger = LogManager.getLogger(LOGGER_NAME);
+
+  private final ExecutorService writer =
+      new ThreadPoolExecutor(
+          1,
+          1,
+          0,
+          TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<>(MAX_PENDING_ENTRIES),
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("one-api-access-log-%d").build(),
+          new ThreadPoolExecutor.DiscardPolicy());
+  private final int sampleRate;
+  private final long slowThresholdNanos;
+  private final boolean isLoggingFailures;
+  private final AtomicLong callCount = new AtomicLong();
+
+  /**
+   * Constructs the instance.
+   *
+   * @param sampleRate Log one in every {@code sampleRate} calls, or none if zero.
+   * @param slowThreshold Log every call that takes at least this long, or none if zero.
+   * @param isLoggingFailures Whether every failed call should be logged.
+   */
+  AccessLogInterceptor(int sampleRate, Duration slowThreshold, boolean isLoggingFailures) {
+    this.sampleRate = sampleRate;
+    this.slowThresholdNanos = slowThreshold.toNanos();
+    this.isLoggingFailures = isLoggingFailures;
+  }
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    // WARN is the least verbose level that an entry is written at.
+    if (!logger.isWarnEnabled()) {
+      return chain.proceed(chain.request());
+    }
+
+    Request request = chain.request();
+    long startNanos = System.nanoTime();
+    Response response;
+
+    try {
+      response = chain.proceed(request);
+    } catch (IOException | RuntimeException e) {
+      log(request, null, System.nanoTime() - startNanos, e);
+      throw e;
+    }
+
+    log(request, response, System.nanoTime() - startNanos, null);
+
+    return response;
+  }
+
+  /**
+   * Returns whether a call should be logged.
+   *
+   * @param isFailed Whether the call failed or returned an unsuccessful status code.
+   * @param durationNanos How long the call took.
+   * @return True if the call is slow, failed or sampled.
+   */
+  boolean shouldLog(boolean isFailed, long durationNanos) {
+    return (isFailed && this.isLoggingFailures)
+        || (this.slowThresholdNanos > 0 && durationNanos >= this.slowThresholdNanos)
+        || (this.sampleRate > 0 && this.callCount.getAndIncrement() % this.sampleRate == 0);
+  }
+
+  private void log(Request request, Response response, long durationNanos, Exception error) {
+    boolean isFailed = response == null || !response.isSuccessful();
+
+    if (!shouldLog(isFailed, durationNanos)) {
+      return;
+    }
+
+    Level level = isFailed ? Level.WARN : Level.INFO;
+
+    if (!logger.isEnabled(level)) {
+      return;
+    }
+
+    this.writer.execute(
+        () -> {
+          Invocation invocation = request.tag(Invocation.class);
+          StringMapMessage message =
+              new StringMapMessage()
+                  .with(
+                      "endpoint",
+                      invocation == null
+                          ? request.url().encodedPath()
+                          : MetricsEventListener.toEndpoint(invocation))
+                  .with("method", request.method())
+                  .with("path", request.url().encodedPath())
+                  .with("query", Optional.ofNullable(request.url().encodedQuery()).orElse(""))
+                  .with("status", response == null ? 0 : response.code())
+                  .with("duration-micros", TimeUnit.NANOSECONDS.toMicros(durationNanos))
+                  .with("cached", response != null && response.cacheResponse() != null);
+
+          if (response != null && response.body() != null) {
+            message.with("content-length", response.body().contentLength());
+          }
+
+          if (error != null) {
+            message.with("error", error.toString());
+          }
+
+          logger.log(level, message);
+        });
+  }
+
+  /**
+   * Stops the writer thread once the entries that are already queued have been written. Entries of
+   * calls that complete afterwards are dropped.
+   */
+  @Override
+  public void close() {
+    this.writer.shutdown();
+  }
+
+  /**
+   * Creates an access log interceptor if access logging is enabled.
+   *
+   * @param config The Config instance produced from parsing the static configuration resource file.
+   * @param configOptions The ConfigOptions instance that contains additional configuration options
+   *     set at runtime.
+   * @return A new AccessLogInterceptor, or null if access logging is not enabled.
+   */
+  static AccessLogInterceptor create(Config config, ConfigOptions configOptions) {
+    Optional<Config.AccessLog> accessLog = Optional.ofNullable(config.getAccessLog());
+    boolean isEnabled =
+        Optional.ofNullable(configOptions.getAccessLogEnabled())
+            .orElseGet(() -> accessLog.map(Config.AccessLog::isEnabled).orElse(false));
+
+    if (!isEnabled) {
+      return null;
+    }
+
+    int sampleRate =
+        Optional.ofNullable(configOptions.getAccessLogSampleRate())
+            .orElseGet(
+                () -> accessLog.map(Config.AccessLog::getSampleRate).orElse(DEFAULT_SAMPLE_RATE));
+    Duration slowThreshold =
+        Optional.ofNullable(configOptions.getAccessLogSlowThreshold())
+            .orElseGet(
+                () ->
+                    Duration.ofMillis(
+                        accessLog
+                            .map(Config.AccessLog::getSlowThresholdMillis)
+                            .orElse(DEFAULT_SLOW_THRESHOLD_MILLIS)));
+    boolean isLoggingFailures = accessLog.map(Config.AccessLog::isLogFailures).orElse(true);
+
+    if (sampleRate < 0) {
+      throw new OneApiException("Access log sample rate must not be a negative value.");
+    }
+
+    if (slowThreshold.isNegative()) {
+      throw new OneApiException("Access log slow threshold must not be a negative value.");
+    }
+
+    return new AccessLogInterceptor(sampleRate, slowThreshold, isLoggingFailures);
+  }
+}
@@ -0,0 +1,28 @@
+package com.danielkyu.oneapi;
+
+import lombok.Value;
+
+/** A point-in-time snapshot of the counters kept by the in-memory response cache. */
+@Value
+public class CacheStats {
+  /** Snapshot returned when the response cache is disabled. */
+  static final CacheStats EMPTY = new CacheStats(0, 0, 0, 0, 0, 0);
+
+  /** The number of lookups that were served from the cache, including stale entries. */
+  long hitCount;
+
+  /** The number of lookups that had to go to the OneApi service. */
+  long missCount;
+
+  /** The number of entries removed from the cache because of size or TTL limits. */
+  long evictionCount;
+
+  /** The approximate number of entries currently held in the cache. */
+  long size;
+
+  /** The number of lookups that were served an expired entry while it was being refreshed. */
+  long staleHitCount;
+
+  /** The number of entries that were replaced by a background refresh. */
+  long refreshCount;
+}
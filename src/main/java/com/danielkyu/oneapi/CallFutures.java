@@ -0,0 +1,45 @@
+package com.danielkyu.oneapi;
+
+import java.util.concurrent.CompletableFuture;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/** Utility methods for bridging Retrofit calls and CompletableFutures. */
+final class CallFutures {
+  private CallFutures() {
+    // Prevent instantiation as this is a utility class.
+  }
+
+  /**
+   * Enqueues the call and returns a future that completes with its response.
+   *
+   * <p>Cancelling the returned future cancels the underlying call, which releases its connection.
+   *
+   * @param call The call to enqueue.
+   * @return A future that completes with the response or the error raised by the call.
+   */
+  static <T> CompletableFuture<Response<T>> enqueue(Call<T> call) {
+    CompletableFuture<Response<T>> future = new CompletableFuture<>();
+
+    future.whenComplete(
+        (response, error) -> {
+          if (future.isCancelled()) {
+            call.cancel();
+          }
+        });
+    call.enqueue(
+        new retrofit2.Callback<T>() {
+          @Override
+          public void onResponse(Call<T> call, Response<T> response) {
+            future.complete(response);
+          }
+
+          @Override
+          public void onFailure(Call<T> call, Throwable t) {
+            future.completeExceptionally(t);
+          }
+        });
+
+    return future;
+  }
+}
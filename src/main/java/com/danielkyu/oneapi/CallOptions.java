@@ -0,0 +1,19 @@
+package com.danielkyu.oneapi;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Getter;
+
+/** Options that apply to a single invocation of the OneApi service. */
+@Builder
+@Getter
+public class CallOptions {
+  /** Options with no per-call overrides. */
+  public static final CallOptions DEFAULT = CallOptions.builder().build();
+
+  /**
+   * The time budget for the call, covering connecting, writing the request and reading the full
+   * response body. The call is cancelled and fails once the budget is exhausted.
+   */
+  public Duration timeout;
+}
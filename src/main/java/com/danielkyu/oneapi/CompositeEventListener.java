@@ -0,0 +1,215 @@
+package com.danielkyu.oneapi;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.HttpUrl;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Custom OkHttp event listener that forwards every event of a call to two listeners, so that the
+ * SDK can measure calls without replacing the listener of an application's client.
+ */
+final class CompositeEventListener extends EventListener {
+  private final EventListener first;
+  private final EventListener second;
+
+  /**
+   * Constructs the instance.
+   *
+   * @param first The listener that receives each event first.
+   * @param second The listener that receives each event second.
+   */
+  CompositeEventListener(EventListener first, EventListener second) {
+    this.first = first;
+    this.second = second;
+  }
+
+  @Override
+  public void callStart(Call call) {
+    this.first.callStart(call);
+    this.second.callStart(call);
+  }
+
+  @Override
+  public void proxySelectStart(Call call, HttpUrl url) {
+    this.first.proxySelectStart(call, url);
+    this.second.proxySelectStart(call, url);
+  }
+
+  @Override
+  public void proxySelectEnd(Call call, HttpUrl url, List<Proxy> proxies) {
+    this.first.proxySelectEnd(call, url, proxies);
+    this.second.proxySelectEnd(call, url, proxies);
+  }
+
+  @Override
+  public void dnsStart(Call call, String domainName) {
+    this.first.dnsStart(call, domainName);
+    this.second.dnsStart(call, domainName);
+  }
+
+  @Override
+  public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+    this.first.dnsEnd(call, domainName, inetAddressList);
+    this.second.dnsEnd(call, domainName, inetAddressList);
+  }
+
+  @Override
+  public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+    this.first.connectStart(call, inetSocketAddress, proxy);
+    this.second.connectStart(call, inetSocketAddress, proxy);
+  }
+
+  @Override
+  public void secureConnectStart(Call call) {
+    this.first.secureConnectStart(call);
+    this.second.secureConnectStart(call);
+  }
+
+  @Override
+  public void secureConnectEnd(Call call, Handshake handshake) {
+    this.first.secureConnectEnd(call, handshake);
+    this.second.secureConnectEnd(call, handshake);
+  }
+
+  @Override
+  public void connectEnd(
+      Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+    this.first.connectEnd(call, inetSocketAddress, proxy, protocol);
+    this.second.connectEnd(call, inetSocketAddress, proxy, protocol);
+  }
+
+  @Override
+  public void connectFailed(
+      Call call,
+      InetSocketAddress inetSocketAddress,
+      Proxy proxy,
+      Protocol protocol,
+      IOException ioe) {
+    this.first.connectFailed(call, inetSocketAddress, proxy, protocol, ioe);
+    this.second.connectFailed(call, inetSocketAddress, proxy, protocol, ioe);
+  }
+
+  @Override
+  public void connectionAcquired(Call call, Connection connection) {
+    this.first.connectionAcquired(call, connection);
+    this.second.connectionAcquired(call, connection);
+  }
+
+  @Override
+  public void connectionReleased(Call call, Connection connection) {
+    this.first.connectionReleased(call, connection);
+    this.second.connectionReleased(call, connection);
+  }
+
+  @Override
+  public void requestHeadersStart(Call call) {
+    this.first.requestHeadersStart(call);
+    this.second.requestHeadersStart(call);
+  }
+
+  @Override
+  public void requestHeadersEnd(Call call, Request request) {
+    this.first.requestHeadersEnd(call, request);
+    this.second.requestHeadersEnd(call, request);
+  }
+
+  @Override
+  public void requestBodyStart(Call call) {
+    this.first.requestBodyStart(call);
+    this.second.requestBodyStart(call);
+  }
+
+  @Override
+  public void requestBodyEnd(Call call, long byteCount) {
+    this.first.requestBodyEnd(call, byteCount);
+    this.second.requestBodyEnd(call, byteCount);
+  }
+
+  @Override
+  public void requestFailed(Call call, IOException ioe) {
+    this.first.requestFailed(call, ioe);
+    this.second.requestFailed(call, ioe);
+  }
+
+  @Override
+  public void responseHeadersStart(Call call) {
+    this.first.responseHeadersStart(call);
+    this.second.responseHeadersStart(call);
+  }
+
+  @Override
+  public void responseHeadersEnd(Call call, Response response) {
+    this.first.responseHeadersEnd(call, response);
+    this.second.responseHeadersEnd(call, response);
+  }
+
+  @Override
+  public void responseBodyStart(Call call) {
+    this.first.responseBodyStart(call);
+    this.second.responseBodyStart(call);
+  }
+
+  @Override
+  public void responseBodyEnd(Call call, long byteCount) {
+    this.first.responseBodyEnd(call, byteCount);
+    this.second.responseBodyEnd(call, byteCount);
+  }
+
+  @Override
+  public void responseFailed(Call call, IOException ioe) {
+    this.first.responseFailed(call, ioe);
+    this.second.responseFailed(call, ioe);
+  }
+
+  @Override
+  public void callEnd(Call call) {
+    this.first.callEnd(call);
+    this.second.callEnd(call);
+  }
+
+  @Override
+  public void callFailed(Call call, IOException ioe) {
+    this.first.callFailed(call, ioe);
+    this.second.callFailed(call, ioe);
+  }
+
+  @Override
+  public void canceled(Call call) {
+    this.first.canceled(call);
+    this.second.canceled(call);
+  }
+
+  @Override
+  public void satisfactionFailure(Call call, Response response) {
+    this.first.satisfactionFailure(call, response);
+    this.second.satisfactionFailure(call, response);
+  }
+
+  @Override
+  public void cacheHit(Call call, Response response) {
+    this.first.cacheHit(call, response);
+    this.second.cacheHit(call, response);
+  }
+
+  @Override
+  public void cacheMiss(Call call) {
+    this.first.cacheMiss(call);
+    this.second.cacheMiss(call);
+  }
+
+  @Override
+  public void cacheConditionalHit(Call call, Response cachedResponse) {
+    this.first.cacheConditionalHit(call, cachedResponse);
+    this.second.cacheConditionalHit(call, cachedResponse);
+  }
+}
@@ -1,10 +1,15 @@
 package com.danielkyu.oneapi;
 
+import com.danielkyu.oneapi.utils.NetworkingUtils;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
 import lombok.Getter;
 
 /**
@@ -12,17 +17,271 @@ import lombok.Getter;
  */
 @Getter
 public class Config {
+  static final String SYSTEM_PROPERTY_PREFIX = "one-api.";
+  static final String ENVIRONMENT_VARIABLE_PREFIX = "ONE_API_";
+
+  @Getter
+  public static class Caching {
+    public boolean enabled;
+
+    @JsonProperty("max-entries")
+    public long maxEntries = ResponseCache.DEFAULT_MAX_ENTRIES;
+
+    @JsonProperty("ttl-seconds")
+    public long ttlSeconds = ResponseCache.DEFAULT_TTL_SECONDS;
+
+    @JsonProperty("stale-seconds")
+    public long staleSeconds;
+
+    @JsonProperty("refresh-ahead")
+    public boolean refreshAhead;
+
+    @JsonProperty("refresh-concurrency")
+    public int refreshConcurrency = RefreshScheduler.DEFAULT_REFRESH_CONCURRENCY;
+
+    @JsonProperty("hot-key-min-hits")
+    public int hotKeyMinHits = RefreshScheduler.DEFAULT_HOT_KEY_MIN_HITS;
+  }
+
+  @Getter
+  public static class Hedging {
+    public boolean enabled;
+
+    public double percentile = Hedger.DEFAULT_PERCENTILE;
+
+    @JsonProperty("budget-percent")
+    public double budgetPercent = Hedger.DEFAULT_BUDGET_PERCENT;
+
+    @JsonProperty("min-delay-millis")
+    public long minDelayMillis = Hedger.DEFAULT_MIN_DELAY_MILLIS;
+  }
+
+  @Getter
+  public static class Batching {
+    public boolean enabled;
+
+    @JsonProperty("window-millis")
+    public long windowMillis = MicroBatcher.DEFAULT_WINDOW_MILLIS;
+
+    @JsonProperty("max-size")
+    public int maxSize = MicroBatcher.DEFAULT_MAX_SIZE;
+  }
+
+  @Getter
+  public static class RateLimit {
+    public int requests;
+
+    @JsonProperty("period-seconds")
+    public long periodSeconds = 1;
+
+    public int burst = RateLimiter.DEFAULT_BURST;
+
+    @JsonProperty("max-retries")
+    public int maxRetries = RateLimiter.DEFAULT_MAX_RETRIES;
+  }
+
+  @Getter
+  public static class Offline {
+    public boolean enabled;
+  }
+
+  @Getter
+  public static class Snapshot {
+    public String path;
+
+    @JsonProperty("interval-seconds")
+    public long intervalSeconds = ResponseSnapshot.DEFAULT_INTERVAL_SECONDS;
+  }
+
+  @Getter
+  public static class Pagination {
+    @JsonProperty("prefetch-depth")
+    public int prefetchDepth = OneApi.DEFAULT_PREFETCH_DEPTH;
+  }
+
+  @Getter
+  public static class AccessLog {
+    public boolean enabled;
+
+    @JsonProperty("sample-rate")
+    public int sampleRate = AccessLogInterceptor.DEFAULT_SAMPLE_RATE;
+
+    @JsonProperty("slow-threshold-millis")
+    public long slowThresholdMillis = AccessLogInterceptor.DEFAULT_SLOW_THRESHOLD_MILLIS;
+
+    @JsonProperty("log-failures")
+    public boolean logFailures = true;
+  }
+
   @Getter
   public static class Networking {
     @JsonProperty("log-traffic")
     public boolean logTraffic;
+
+    @JsonProperty("cache-directory")
+    public String cacheDirectory;
+
+    @JsonProperty("cache-size-bytes")
+    public long cacheSizeBytes = NetworkingUtils.DEFAULT_CACHE_SIZE_BYTES;
+
+    @JsonProperty("max-requests")
+    public int maxRequests = NetworkingUtils.DEFAULT_MAX_REQUESTS;
+
+    @JsonProperty("max-requests-per-host")
+    public int maxRequestsPerHost = NetworkingUtils.DEFAULT_MAX_REQUESTS_PER_HOST;
+
+    @JsonProperty("virtual-threads")
+    public boolean virtualThreads;
+
+    @JsonProperty("max-idle-connections")
+    public int maxIdleConnections = NetworkingUtils.DEFAULT_MAX_IDLE_CONNECTIONS;
+
+    @JsonProperty("keep-alive-millis")
+    public long keepAliveMillis = NetworkingUtils.DEFAULT_KEEP_ALIVE_DURATION_MS;
+
+    @JsonProperty("connect-timeout-millis")
+    public long connectTimeoutMillis = NetworkingUtils.DEFAULT_CONNECT_TIMEOUT_MS;
+
+    @JsonProperty("read-timeout-millis")
+    public long readTimeoutMillis = NetworkingUtils.DEFAULT_READ_TIMEOUT_MS;
+
+    @JsonProperty("call-timeout-millis")
+    public long callTimeoutMillis;
+
+    public String protocols = NetworkingUtils.DEFAULT_PROTOCOLS;
+
+    @JsonProperty("prewarm-connections")
+    public int prewarmConnections;
   }
 
   @JsonProperty("api-key")
   public String apiKey;
 
+  public Caching caching;
+
   public Networking networking;
 
+  public Pagination pagination;
+
+  @JsonProperty("rate-limit")
+  public RateLimit rateLimit;
+
+  public Hedging hedging;
+
+  public Batching batching;
+
+  public Offline offline;
+
+  public Snapshot snapshot;
+
+  @JsonProperty("access-log")
+  public AccessLog accessLog;
+
+  /**
+   * Loads the configuration from system properties and environment variables, without reading the
+   * configuration file.
+   *
+   * <p>Every key of the configuration file can be set as a system property prefixed with {@value
+   * #SYSTEM_PROPERTY_PREFIX}, e.g. {@code -Done-api.caching.ttl-seconds=60}, or as an environment
+   * variable prefixed with {@value #ENVIRONMENT_VARIABLE_PREFIX} in upper case with dots and dashes
+   * replaced by underscores, e.g. {@code ONE_API_CACHING_TTL_SECONDS=60}. System properties take
+   * precedence over environment variables.
+   *
+   * @return A new Config instance that contains the values that were set.
+   */
+  static Config loadConfigFromEnvironment() {
+    return loadConfigFromEnvironment(System.getProperties(), System.getenv());
+  }
+
+  /**
+   * Loads the configuration from a set of properties and environment variables.
+   *
+   * @param properties The system properties.
+   * @param environment The environment variables.
+   * @return A new Config instance that contains the values that were set.
+   * @see #loadConfigFromEnvironment()
+   */
+  static Config loadConfigFromEnvironment(Properties properties, Map<String, String> environment) {
+    Config config = new Config();
+
+    // The keys are derived from the fields, so that both sources stay in sync with the YAML file.
+    try {
+      for (Field field : Config.class.getFields()) {
+        String key = toKey(field);
+
+        if (!isScalar(field.getType())) {
+          for (Field sectionField : field.getType().getFields()) {
+            String sectionKey = key + "." + toKey(sectionField);
+            String value = lookup(properties, environment, sectionKey);
+
+            if (value != null) {
+              if (field.get(config) == null) {
+                field.set(config, field.getType().getConstructor().newInstance());
+              }
+
+              sectionField.set(field.get(config), parse(sectionField.getType(), sectionKey, value));
+            }
+          }
+        } else {
+          String value = lookup(properties, environment, key);
+
+          if (value != null) {
+            field.set(config, parse(field.getType(), key, value));
+          }
+        }
+      }
+    } catch (ReflectiveOperationException e) {
+      throw new OneApiException("Failed to load configuration from the environment.", e);
+    }
+
+    return config;
+  }
+
+  private static String toKey(Field field) {
+    JsonProperty property = field.getAnnotation(JsonProperty.class);
+
+    return property != null ? property.value() : field.getName();
+  }
+
+  private static boolean isScalar(Class<?> type) {
+    return type.isPrimitive() || type == String.class;
+  }
+
+  private static String lookup(Properties properties, Map<String, String> environment, String key) {
+    String value = properties.getProperty(SYSTEM_PROPERTY_PREFIX + key);
+
+    if (value == null) {
+      value =
+          environment.get(
+              ENVIRONMENT_VARIABLE_PREFIX
+                  + key.toUpperCase(Locale.ROOT).replace('.', '_').replace('-', '_'));
+    }
+
+    return value;
+  }
+
+  private static Object parse(Class<?> type, String key, String value) {
+    try {
+      if (type == boolean.class) {
+        if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+          throw new IllegalArgumentException(value);
+        }
+
+        return Boolean.parseBoolean(value);
+      } else if (type == int.class) {
+        return Integer.parseInt(value.trim());
+      } else if (type == long.class) {
+        return Long.parseLong(value.trim());
+      } else if (type == double.class) {
+        return Double.parseDouble(value.trim());
+      }
+
+      return value;
+    } catch (IllegalArgumentException e) {
+      throw new OneApiException("Invalid value for configuration key " + key + ": " + value, e);
+    }
+  }
+
   /**
    * Loads the configuration file from a resource path.
    *
@@ -1,5 +1,8 @@
 package com.danielkyu.oneapi;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executor;
 import lombok.Builder;
 import lombok.Getter;
 import okhttp3.OkHttpClient;
@@ -18,6 +21,126 @@ public class ConfigOptions {
   /** The base URL of the OneApi service. */
   public String baseUrl;
 
+  /**
+   * Whether to start without reading one-api/config.yaml, taking configuration from system
+   * properties and environment variables instead (e.g. {@code ONE_API_API_KEY}), and to build the
+   * HTTP client on the first call rather than in the constructor. Reduces the time spent in the
+   * constructor for short-lived processes such as CLI tools and serverless functions.
+   */
+  public Boolean fastStart;
+
   /** The OkHttpClient that should be used for network calls. */
   public OkHttpClient okHttpClient;
+
+  /**
+   * The executor on which asynchronous results are delivered (Callback methods and
+   * CompletableFuture completions). Defaults to the networking thread that completed the call.
+   */
+  public Executor callbackExecutor;
+
+  /**
+   * The maximum number of asynchronous calls to execute concurrently. If set, the SDK uses its own
+   * dispatcher even when an OkHttpClient is provided.
+   */
+  public Integer maxRequests;
+
+  /**
+   * The maximum number of asynchronous calls to execute concurrently per host. If set, the SDK uses
+   * its own dispatcher even when an OkHttpClient is provided.
+   */
+  public Integer maxRequestsPerHost;
+
+  /**
+   * Whether asynchronous calls should run on virtual threads (Java 21+). If set, the SDK uses its
+   * own dispatcher even when an OkHttpClient is provided.
+   */
+  public Boolean virtualThreads;
+
+  /**
+   * The number of connections to the OneApi service to open at construction and keep open while
+   * idle. Zero (the default) opens connections on demand.
+   */
+  public Integer prewarmConnections;
+
+  /**
+   * The sink that receives timings and counts of the calls made to the OneApi service, e.g. an
+   * {@link InMemoryMetricsSink}. The event listener of a provided OkHttpClient keeps receiving the
+   * events of the SDK's calls alongside the metrics.
+   */
+  public MetricsSink metricsSink;
+
+  /** Whether a sample of the calls to the OneApi service should be written to the access log. */
+  public Boolean accessLogEnabled;
+
+  /** Log one in every this many calls to the access log, or none if zero. Defaults to 100. */
+  public Integer accessLogSampleRate;
+
+  /** Calls that take at least this long are always logged; zero disables this. Defaults to 1s. */
+  public Duration accessLogSlowThreshold;
+
+  /** The number of requests per rate limit period that the client-side rate limiter allows. */
+  public Integer rateLimitRequests;
+
+  /** The period over which the rate limited number of requests is allowed. Defaults to 1s. */
+  public Duration rateLimitPeriod;
+
+  /** The number of requests that may be issued back-to-back after an idle spell. */
+  public Integer rateLimitBurst;
+
+  /**
+   * Whether slow requests should be hedged with a second identical request once they exceed the
+   * configured latency percentile.
+   */
+  public Boolean hedgingEnabled;
+
+  /**
+   * Whether lookups of a single movie by id that arrive within a short window should be combined
+   * into one request.
+   */
+  public Boolean batchingEnabled;
+
+  /** How long single-id movie lookups are collected before they are sent. Defaults to 2ms. */
+  public Duration batchWindow;
+
+  /** The number of collected single-id movie lookups at which they are sent right away. */
+  public Integer batchMaxSize;
+
+  /** Whether parsed responses should be cached in memory. */
+  public Boolean cacheEnabled;
+
+  /** The maximum number of responses held by the in-memory cache. */
+  public Long cacheMaxEntries;
+
+  /** How long a response may be served from the in-memory cache after it was fetched. */
+  public Duration cacheTtl;
+
+  /**
+   * How long past its TTL a cached response may still be served while it is refreshed in the
+   * background (stale-while-revalidate).
+   */
+  public Duration cacheMaxStale;
+
+  /** Whether hot cache entries should be refreshed in the background before they expire. */
+  public Boolean cacheRefreshAhead;
+
+  /** The maximum number of background cache refreshes that may run concurrently. */
+  public Integer cacheRefreshConcurrency;
+
+  /**
+   * Whether the full movie catalog should be synced on first use and every movie query evaluated
+   * locally instead of by the OneApi service.
+   */
+  public Boolean offlineEnabled;
+
+  /**
+   * The file the in-memory cache is persisted to and restored from at startup. Requires caching to
+   * be enabled.
+   */
+  public Path snapshotPath;
+
+  /** How often the cache snapshot is written. Zero disables periodic writes. */
+  public Duration snapshotInterval;
+
+  /** The number of pages to fetch ahead of the page being consumed when streaming results. */
+  public Integer prefetchDepth;
 }
@@ -0,0 +1,102 @@
+package com.danielkyu.oneapi;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Opens connections to the OneApi service ahead of the first request and keeps them from being
+ * evicted from the connection pool while the application is idle.
+ *
+ * <p>Warm-up requests are HEAD requests to the base URL. They are sent without the authorization
+ * header and bypass the client-side rate limiter. All warm-up requests of a round are issued
+ * concurrently, so over HTTP/1.1 each one holds a separate connection (up to the dispatcher's
+ * per-host limit), while over HTTP/2 they are multiplexed on a single connection, which is all that
+ * is needed. A round is repeated every half keep-alive period so that idle connections are used
+ * before the pool evicts them. OkHttp does not expose the keep-alive period of a connection pool,
+ * so the period is taken from the networking configuration; when the application supplies its own
+ * client, the configured keep-alive should match that of the client's pool. Warming stops when the
+ * warmer is closed.
+ */
+final class ConnectionWarmer implements AutoCloseable {
+  private static final Logger logger = LogManager.getLogger();
+
+  private final OkHttpClient client;
+  private final Request request;
+  private final int connections;
+  private final ScheduledExecutorService executor =
+      Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("one-api-warmer-%d").build());
+
+  /**
+   * Constructs the instance.
+   *
+   * @param client The client whose connection pool should be kept warm. Its interceptors are not
+   *     applied to warm-up requests.
+   * @param url The URL that warm-up requests are sent to.
+   * @param connections The number of connections to keep open.
+   */
+  ConnectionWarmer(OkHttpClient client, HttpUrl url, int connections) {
+    OkHttpClient.Builder builder = client.newBuilder().cache(null);
+
+    builder.interceptors().clear();
+    builder.networkInterceptors().clear();
+    this.client = builder.build();
+    this.request = new Request.Builder().url(url).head().build();
+    this.connections = connections;
+  }
+
+  /** Issues one round of warm-up requests. */
+  void warm() {
+    for (int i = 0; i < this.connections; i++) {
+      this.client
+          .newCall(this.request)
+          .enqueue(
+              new Callback() {
+                @Override
+                public void onResponse(Call call, Response response) {
+                  response.close();
+                }
+
+                @Override
+                public void onFailure(Call call, IOException e) {
+                  logger.debug("Failed to warm a connection to {}", call.request().url(), e);
+                }
+              });
+    }
+  }
+
+  /** Stops keeping the connections warm. The connections themselves stay in the pool. */
+  @Override
+  public void close() {
+    this.executor.shutdownNow();
+  }
+
+  /**
+   * Warms the connections now and keeps them warm on a daemon thread until the warmer is closed.
+   *
+   * @param client The client whose connection pool should be kept warm.
+   * @param url The URL that warm-up requests are sent to.
+   * @param connections The number of connections to keep open.
+   * @param keepAliveMs How long the pool keeps idle connections open.
+   * @return The started warmer, which must be closed once the client is no longer used.
+   */
+  static ConnectionWarmer start(
+      OkHttpClient client, HttpUrl url, int connections, long keepAliveMs) {
+    ConnectionWarmer warmer = new ConnectionWarmer(client, url, connections);
+    long intervalMs = Math.max(1, keepAliveMs / 2);
+
+    warmer.executor.scheduleWithFixedDelay(warmer::warm, 0, intervalMs, TimeUnit.MILLISECONDS);
+    return warmer;
+  }
+}
@@ -0,0 +1,236 @@
+package com.danielkyu.oneapi;
+
+import com.danielkyu.oneapi.params.ResourceParams;
+import com.danielkyu.oneapi.responses.Pagination;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Properties;
+import okhttp3.ResponseBody;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import retrofit2.Response;
+
+/**
+ * Streams every page of a resource straight from the HTTP response bodies into a file.
+ *
+ * <p>Documents are copied token by token from the response parser to the file generator, so they
+ * are never bound to objects and no page is held in memory. Pages are written in order; after each
+ * page has been forced to disk, a checkpoint recording the next page and the file length is written
+ * next to the file ({@code <file>.progress}). If the export fails, running it again with the same
+ * resource, parameters and format truncates the file to the last checkpoint and resumes with the
+ * next page. The checkpoint is deleted once the export completes.
+ */
+final class DocumentExporter {
+  private static final Logger logger = LogManager.getLogger();
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final String PROGRESS_SUFFIX = ".progress";
+  private static final String PROPERTY_SIGNATURE = "signature";
+  private static final String PROPERTY_NEXT_PAGE = "next-page";
+  private static final String PROPERTY_BYTE_OFFSET = "byte-offset";
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final SmileFactory SMILE_FACTORY =
+      SmileFactory.builder()
+          .disable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+          .enable(SmileGenerator.Feature.WRITE_HEADER)
+          .build();
+  private static final SmileFactory SMILE_APPEND_FACTORY =
+      SmileFactory.builder()
+          .disable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+          .disable(SmileGenerator.Feature.WRITE_HEADER)
+          .build();
+
+  private DocumentExporter() {
+    // Prevent instantiation as this is a utility class.
+  }
+
+  /**
+   * Exports every document of a resource that matches the parameters, starting at the page set in
+   * the parameters.
+   *
+   * @param service The service used to fetch the pages.
+   * @param resource The resource to export.
+   * @param params Parameters that specify the documents to export and the page size.
+   * @param path The file to write. It is created if it does not exist and overwritten unless an
+   *     interrupted export of the same query is being resumed.
+   * @param format The format of the file.
+   * @return The throughput of the export.
+   * @throws OneApiException A page could not be fetched or the file could not be written.
+   */
+  static <P extends ResourceParams<?, P>> ExportStats export(
+      OneApiService service,
+      Resource<?, ?, P> resource,
+      P params,
+      Path path,
+      ExportFormat format)
+      throws OneApiException {
+    Path progressPath = path.resolveSibling(path.getFileName() + PROGRESS_SUFFIX);
+    String signature =
+        format + " " + resource.getPath() + "?" + String.join("&", params.toQueryList());
+    Properties checkpoint = readCheckpoint(progressPath, signature);
+    int page =
+        Integer.parseInt(
+            checkpoint.getProperty(PROPERTY_NEXT_PAGE, String.valueOf(params.getPage())));
+    long byteOffset = Long.parseLong(checkpoint.getProperty(PROPERTY_BYTE_OFFSET, "0"));
+    long startNanos = System.nanoTime();
+    int pageCount = 0;
+    long recordCount = 0;
+
+    if (byteOffset > 0) {
+      logger.info("Resuming export to {} at page {}.", path, page);
+    }
+
+    try (FileChannel channel =
+        FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+      // Drop anything written after the last checkpoint, e.g. a partially written page.
+      channel.truncate(byteOffset);
+      channel.position(byteOffset);
+
+      OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+      JsonGenerator generator = createGenerator(format, out, byteOffset == 0);
+      long[] pageRecordCount = new long[1];
+
+      for (int lastPage = page; page <= lastPage; page++) {
+        Response<ResponseBody> response =
+            service
+                .getDocumentsStreaming(
+                    resource.getPath(), params.copy().withPage(page).toQueryList())
+                .execute();
+
+        if (!response.isSuccessful()) {
+          response.errorBody().close();
+          throw new OneApiException(
+              "Failed to get "
+                  + resource.getName()
+                  + " data: Server returned "
+                  + response.code());
+        }
+
+        Pagination pagination;
+
+        pageRecordCount[0] = 0;
+
+        try (ResponseBody body = response.body()) {
+          pagination =
+              DocumentStreamParser.parse(
+                  body.byteStream(),
+                  parser -> {
+                    generator.copyCurrentStructure(parser);
+
+                    if (format == ExportFormat.NDJSON) {
+                      generator.writeRaw('\n');
+                    }
+
+                    pageRecordCount[0]++;
+                  });
+        }
+
+        generator.flush();
+        channel.force(false);
+        writeCheckpoint(progressPath, signature, page + 1, channel.position());
+        pageCount++;
+        recordCount += pageRecordCount[0];
+
+        if (pageRecordCount[0] == 0) {
+          break;
+        }
+
+        lastPage = PageIterator.getPageCount(pagination);
+      }
+
+      // Every page has been flushed, so this is the final length of the file.
+      long length = channel.position();
+
+      generator.close();
+
+      ExportStats stats =
+          new ExportStats(
+              pageCount,
+              recordCount,
+              length - byteOffset,
+              Duration.ofNanos(System.nanoTime() - startNanos));
+
+      Files.deleteIfExists(progressPath);
+      logger.info(
+          "Exported {} {} documents to {} ({} records/s, {} bytes/s).",
+          stats.getRecordCount(),
+          resource.getName(),
+          path,
+          Math.round(stats.getRecordsPerSecond()),
+          Math.round(stats.getBytesPerSecond()));
+      return stats;
+    } catch (IOException e) {
+      throw new OneApiException(
+          "Failed to export " + resource.getName() + " data to " + path + ".", e);
+    }
+  }
+
+  private static JsonGenerator createGenerator(
+      ExportFormat format, OutputStream out, boolean isNewFile) throws IOException {
+    if (format == ExportFormat.SMILE) {
+      // The header may only appear at the start of the file, so it is not written on resume.
+      return (isNewFile ? SMILE_FACTORY : SMILE_APPEND_FACTORY).createGenerator(out);
+    }
+
+    JsonGenerator generator = JSON_FACTORY.createGenerator(out);
+
+    // Documents are separated by the newline written after each one instead.
+    generator.setRootValueSeparator(null);
+    return generator;
+  }
+
+  private static Properties readCheckpoint(Path progressPath, String signature) {
+    Properties checkpoint = new Properties();
+
+    if (!Files.exists(progressPath)) {
+      return checkpoint;
+    }
+
+    try (Reader reader = Files.newBufferedReader(progressPath, StandardCharsets.UTF_8)) {
+      checkpoint.load(reader);
+    } catch (IOException e) {
+      logger.warn("Ignoring unreadable export checkpoint: {}", progressPath, e);
+      return new Properties();
+    }
+
+    // A checkpoint left by a different export cannot be resumed; start over.
+    return signature.equals(checkpoint.getProperty(PROPERTY_SIGNATURE))
+        ? checkpoint
+        : new Properties();
+  }
+
+  private static void writeCheckpoint(
+      Path progressPath, String signature, int nextPage, long byteOffset) throws IOException {
+    Properties checkpoint = new Properties();
+    Path tempPath = progressPath.resolveSibling(progressPath.getFileName() + ".tmp");
+
+    checkpoint.setProperty(PROPERTY_SIGNATURE, signature);
+    checkpoint.setProperty(PROPERTY_NEXT_PAGE, String.valueOf(nextPage));
+    checkpoint.setProperty(PROPERTY_BYTE_OFFSET, String.valueOf(byteOffset));
+
+    try (Writer writer = Files.newBufferedWriter(tempPath, StandardCharsets.UTF_8)) {
+      checkpoint.store(writer, null);
+    }
+
+    Files.move(
+        tempPath,
+        progressPath,
+        StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+}
@@ -0,0 +1,114 @@
+package com.danielkyu.oneapi;
+
+import com.danielkyu.oneapi.responses.Pagination;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Incremental parser for paginated responses.
+ *
+ * <p>Each document in the {@code docs} array is decoded and handed to the visitor as soon as it
+ * has been read from the stream, so memory use does not depend on the page size.
+ */
+final class DocumentStreamParser {
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  /** Consumes a single document from a parser. */
+  @FunctionalInterface
+  interface DocumentHandler {
+    /**
+     * Consumes the document at the parser's current position.
+     *
+     * @param parser The parser, positioned on the first token of the document. The handler must
+     *     consume the whole document, leaving the parser on its last token.
+     * @throws IOException The document could not be read or processed.
+     */
+    void handle(JsonParser parser) throws IOException;
+  }
+
+  private DocumentStreamParser() {
+    // Prevent instantiation as this is a utility class.
+  }
+
+  /**
+   * Parses a paginated response.
+   *
+   * @param input The response body. The caller remains responsible for closing it.
+   * @param documentType The type the documents are decoded into.
+   * @param visitor The consumer that receives each document in order.
+   * @return The pagination fields of the response.
+   * @throws IOException The response could not be read or is not a valid paginated response.
+   */
+  static <T> Pagination parse(
+      InputStream input, Class<T> documentType, Consumer<? super T> visitor) throws IOException {
+    ObjectReader reader = OBJECT_MAPPER.readerFor(documentType);
+
+    return parse(input, parser -> visitor.accept(reader.readValue(parser)));
+  }
+
+  /**
+   * Parses a paginated response, handing the parser to the handler at the start of each document
+   * so that documents can be copied or decoded without being bound to a type.
+   *
+   * @param input The response body. The caller remains responsible for closing it.
+   * @param handler The handler that consumes each document in order.
+   * @return The pagination fields of the response.
+   * @throws IOException The response could not be read or is not a valid paginated response.
+   */
+  static Pagination parse(InputStream input, DocumentHandler handler) throws IOException {
+    Pagination pagination = new Pagination();
+
+    try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(input)) {
+      expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+
+        switch (field) {
+          case "docs":
+            expect(parser, value, JsonToken.START_ARRAY);
+
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+              handler.handle(parser);
+            }
+            break;
+          case "total":
+            pagination.setTotal(parser.getValueAsInt());
+            break;
+          case "limit":
+            pagination.setLimit(parser.getValueAsInt());
+            break;
+          case "offset":
+            pagination.setOffset(parser.getValueAsInt());
+            break;
+          case "page":
+            pagination.setPage(parser.getValueAsInt());
+            break;
+          case "pages":
+            pagination.setPages(parser.getValueAsInt());
+            break;
+          default:
+            parser.skipChildren();
+            break;
+        }
+      }
+    }
+
+    return pagination;
+  }
+
+  private static void expect(JsonParser parser, JsonToken actual, JsonToken expected)
+      throws IOException {
+    if (actual != expected) {
+      throw new IOException(
+          "Malformed response: expected " + expected + " but found " + actual + " at "
+              + parser.getCurrentLocation());
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package com.danielkyu.oneapi;
+
+/** The file formats that datasets can be exported to. */
+public enum ExportFormat {
+  /** Newline-delimited JSON: one document per line, UTF-8 encoded. */
+  NDJSON,
+
+  /**
+   * Jackson Smile, a compact binary encoding of JSON: a sequence of root-level documents that can
+   * be read back with a Smile parser or an ObjectMapper created over a SmileFactory. Shared name
+   * back-references are disabled so that an export can be resumed by appending to the file.
+   */
+  SMILE
+}
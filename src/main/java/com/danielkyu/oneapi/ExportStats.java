@@ -0,0 +1,44 @@
+package com.danielkyu.oneapi;
+
+import java.time.Duration;
+import lombok.Value;
+
+/** Throughput of a completed export. Counters cover only the pages written by this run. */
+@Value
+public class ExportStats {
+  /** The number of pages fetched and written. */
+  int pageCount;
+
+  /** The number of documents written. */
+  long recordCount;
+
+  /** The number of bytes written to the file. */
+  long byteCount;
+
+  /** The time taken by the export. */
+  Duration elapsed;
+
+  /**
+   * Returns the number of documents written per second.
+   *
+   * @return The record throughput.
+   */
+  public double getRecordsPerSecond() {
+    return perSecond(this.recordCount);
+  }
+
+  /**
+   * Returns the number of bytes written per second.
+   *
+   * @return The byte throughput.
+   */
+  public double getBytesPerSecond() {
+    return perSecond(this.byteCount);
+  }
+
+  private double perSecond(long count) {
+    long nanos = this.elapsed.toNanos();
+
+    return nanos > 0 ? count * 1e9 / nanos : 0;
+  }
+}
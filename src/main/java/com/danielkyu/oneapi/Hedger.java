@@ -0,0 +1,287 @@
+package com.danielkyu.oneapi;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Issues hedged requests to cut tail latency.
+ *
+ * <p>If a request has not responded within the configured latency percentile of recent requests,
+ * an identical hedge request is sent. Whichever responds first wins and the other is cancelled.
+ * Hedges are limited by a budget expressed as a fraction of all requests so that hedging cannot
+ * amplify load on the service by more than that fraction. Until enough latency samples have been
+ * collected, no hedges are sent.
+ *
+ * <p>A hedge only helps if it does not share the fate of the slow request, so hedges should not be
+ * multiplexed onto the same HTTP/2 connection. Call factories can use {@link #isEnqueueingHedge()}
+ * to send them over a connection of their own.
+ */
+final class Hedger {
+  static final double DEFAULT_PERCENTILE = 95;
+  static final double DEFAULT_BUDGET_PERCENT = 5;
+  static final long DEFAULT_MIN_DELAY_MILLIS = 10;
+
+  private static final int SAMPLE_COUNT = 1024;
+  private static final int MIN_SAMPLES = 20;
+  private static final int RECOMPUTE_INTERVAL = 64;
+
+  // Set while a hedge is being enqueued; Retrofit creates the underlying HTTP call in enqueue.
+  private static final ThreadLocal<Boolean> enqueueingHedge = new ThreadLocal<>();
+
+  private final double percentile;
+  private final double budgetRatio;
+  private final long minDelayNanos;
+  private final ScheduledExecutorService scheduler;
+  private final AtomicLongArray latencySamples = new AtomicLongArray(SAMPLE_COUNT);
+  private final AtomicLong sampleCount = new AtomicLong();
+  private final LongAdder requestCount = new LongAdder();
+  private final AtomicLong hedgeCount = new AtomicLong();
+  private final LongAdder hedgeWinCount = new LongAdder();
+
+  // Recomputed from the latency samples periodically; -1 until enough samples have been seen.
+  private volatile long delayNanos = -1;
+
+  /**
+   * Constructs the instance.
+   *
+   * @param percentile The latency percentile (0-100) of recent requests after which to hedge.
+   * @param budgetPercent The maximum number of hedges as a percentage of all requests.
+   * @param minDelayMillis The minimum delay before a request is hedged, in milliseconds.
+   */
+  Hedger(double percentile, double budgetPercent, long minDelayMillis) {
+    this.percentile = percentile;
+    this.budgetRatio = budgetPercent / 100;
+    this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMillis);
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("one-api-hedger-%d").build());
+  }
+
+  /**
+   * Enqueues the call, hedging it with a clone if it is slow to respond.
+   *
+   * <p>Cancelling the returned future cancels every outstanding copy of the call.
+   *
+   * @param call The call to enqueue.
+   * @return A future that completes with the first response received.
+   */
+  <T> CompletableFuture<Response<T>> enqueue(Call<T> call) {
+    this.requestCount.increment();
+
+    HedgedCall<T> hedgedCall = new HedgedCall<>(call);
+    long delay = this.delayNanos;
+
+    if (delay >= 0) {
+      try {
+        ScheduledFuture<?> timer =
+            this.scheduler.schedule(hedgedCall::hedge, delay, TimeUnit.NANOSECONDS);
+
+        hedgedCall.result.whenComplete((response, error) -> timer.cancel(false));
+      } catch (RejectedExecutionException e) {
+        // The hedger has been closed; the call proceeds without a hedge.
+      }
+    }
+
+    return hedgedCall.result;
+  }
+
+  /**
+   * Returns whether the current thread is enqueueing a hedge.
+   *
+   * @return True if the HTTP call being created is a hedge.
+   */
+  static boolean isEnqueueingHedge() {
+    return enqueueingHedge.get() != null;
+  }
+
+  /** Stops the hedge timer. Calls enqueued afterwards are no longer hedged. */
+  void close() {
+    this.scheduler.shutdownNow();
+  }
+
+  /**
+   * Returns a snapshot of the hedging counters.
+   *
+   * @return The current hedging statistics.
+   */
+  HedgingStats stats() {
+    return new HedgingStats(
+        this.requestCount.sum(),
+        this.hedgeCount.get(),
+        this.hedgeWinCount.sum(),
+        TimeUnit.NANOSECONDS.toMillis(Math.max(0, this.delayNanos)));
+  }
+
+  private boolean tryAcquireHedge() {
+    while (true) {
+      long hedges = this.hedgeCount.get();
+
+      if (hedges + 1 > this.requestCount.sum() * this.budgetRatio) {
+        return false;
+      } else if (this.hedgeCount.compareAndSet(hedges, hedges + 1)) {
+        return true;
+      }
+    }
+  }
+
+  private void recordLatency(long latencyNanos) {
+    long count = this.sampleCount.incrementAndGet();
+
+    this.latencySamples.set((int) ((count - 1) % SAMPLE_COUNT), latencyNanos);
+
+    // Sorting the samples is cheap relative to a network call, but there is no need to do it on
+    // every response.
+    if (count == MIN_SAMPLES || (count > MIN_SAMPLES && count % RECOMPUTE_INTERVAL == 0)) {
+      int size = (int) Math.min(count, SAMPLE_COUNT);
+      long[] samples = new long[size];
+
+      for (int i = 0; i < size; i++) {
+        samples[i] = this.latencySamples.get(i);
+      }
+
+      Arrays.sort(samples);
+
+      int index = (int) Math.min(size - 1, Math.ceil(this.percentile / 100 * size) - 1);
+
+      this.delayNanos = Math.max(this.minDelayNanos, samples[Math.max(0, index)]);
+    }
+  }
+
+  /** A call along with the hedge that may be issued for it. */
+  private final class HedgedCall<T> {
+    final CompletableFuture<Response<T>> result = new CompletableFuture<>();
+    final Call<T> call;
+    final long startNanos = System.nanoTime();
+    final CompletableFuture<Response<T>> primary;
+    final AtomicBoolean settled = new AtomicBoolean();
+
+    // Guarded by this.
+    CompletableFuture<Response<T>> hedge;
+    long hedgeStartNanos;
+    int outstanding = 1;
+
+    HedgedCall(Call<T> call) {
+      this.call = call;
+      this.primary = CallFutures.enqueue(call);
+      this.primary.whenComplete((response, error) -> onComplete(response, error, false));
+      this.result.whenComplete(
+          (response, error) -> {
+            // Cancel whichever copy lost, or both if the caller cancelled.
+            this.primary.cancel(true);
+
+            synchronized (this) {
+              if (this.hedge != null) {
+                this.hedge.cancel(true);
+              }
+            }
+          });
+    }
+
+    void hedge() {
+      CompletableFuture<Response<T>> hedge;
+
+      synchronized (this) {
+        if (this.result.isDone() || this.outstanding == 0 || !tryAcquireHedge()) {
+          return;
+        }
+
+        this.outstanding++;
+        enqueueingHedge.set(Boolean.TRUE);
+
+        try {
+          this.hedgeStartNanos = System.nanoTime();
+          this.hedge = hedge = CallFutures.enqueue(this.call.clone());
+        } finally {
+          enqueueingHedge.remove();
+        }
+      }
+
+      hedge.whenComplete((response, error) -> onComplete(response, error, true));
+    }
+
+    void onComplete(Response<T> response, Throwable error, boolean isHedge) {
+      if (error == null) {
+        // Only the winner is sampled, timed from when that copy was sent: timing a hedge from the
+        // primary's start would add the hedge delay to the sample and push the delay ever higher.
+        if (this.settled.compareAndSet(false, true)) {
+          long startNanos;
+
+          synchronized (this) {
+            startNanos = isHedge ? this.hedgeStartNanos : this.startNanos;
+          }
+
+          recordLatency(System.nanoTime() - startNanos);
+
+          if (isHedge) {
+            hedgeWinCount.increment();
+          }
+
+          this.result.complete(response);
+        }
+
+        return;
+      }
+
+      synchronized (this) {
+        // Only fail once no copy of the call is left that could still succeed.
+        if (--this.outstanding > 0) {
+          return;
+        }
+      }
+
+      this.result.completeExceptionally(error);
+    }
+  }
+
+  /**
+   * Creates a hedger from the static and runtime configuration.
+   *
+   * @param config The Config instance produced from parsing the static configuration resource file.
+   * @param configOptions The ConfigOptions instance that contains additional configuration options
+   *     set at runtime.
+   * @return A new Hedger instance or null if hedging has not been enabled.
+   */
+  static Hedger create(Config config, ConfigOptions configOptions) {
+    Optional<Config.Hedging> hedging = Optional.ofNullable(config.getHedging());
+    boolean isEnabled =
+        Optional.ofNullable(configOptions.getHedgingEnabled())
+            .orElseGet(() -> hedging.map(Config.Hedging::isEnabled).orElse(false));
+
+    if (!isEnabled) {
+      return null;
+    }
+
+    double percentile = hedging.map(Config.Hedging::getPercentile).orElse(DEFAULT_PERCENTILE);
+    double budgetPercent =
+        hedging.map(Config.Hedging::getBudgetPercent).orElse(DEFAULT_BUDGET_PERCENT);
+    long minDelayMillis =
+        hedging.map(Config.Hedging::getMinDelayMillis).orElse(DEFAULT_MIN_DELAY_MILLIS);
+
+    if (percentile <= 0 || percentile > 100) {
+      throw new OneApiException("Hedging percentile must be between 0 and 100.");
+    }
+
+    if (budgetPercent <= 0) {
+      throw new OneApiException("Hedging budget must be a positive value.");
+    }
+
+    if (minDelayMillis < 0) {
+      throw new OneApiException("Hedging delay must not be a negative value.");
+    }
+
+    return new Hedger(percentile, budgetPercent, minDelayMillis);
+  }
+}
@@ -0,0 +1,22 @@
+package com.danielkyu.oneapi;
+
+import lombok.Value;
+
+/** A point-in-time snapshot of the counters kept by request hedging. */
+@Value
+public class HedgingStats {
+  /** Snapshot returned when hedging is disabled. */
+  static final HedgingStats EMPTY = new HedgingStats(0, 0, 0, 0);
+
+  /** The number of hedge-eligible requests issued to the service. */
+  long requestCount;
+
+  /** The number of hedge requests that were sent because a request was slow to respond. */
+  long hedgeCount;
+
+  /** The number of hedge requests that responded before the request they were hedging. */
+  long hedgeWinCount;
+
+  /** The delay after which a slow request is currently hedged, in milliseconds. */
+  long currentDelayMillis;
+}
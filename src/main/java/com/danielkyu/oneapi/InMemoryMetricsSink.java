@@ -0,0 +1,105 @@
+package com.danielkyu.oneapi;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A metrics sink that keeps its measurements in memory, per endpoint.
+ *
+ * <p>Durations are recorded in lock-free histograms and counts in striped counters, so recording
+ * is cheap enough to leave enabled in production and never blocks the calling thread. Call {@link
+ * #snapshot()} to read the measurements, e.g. from a periodic reporter or a health endpoint.
+ * Measurements accumulate for the lifetime of the sink.
+ */
+public final class InMemoryMetricsSink implements MetricsSink {
+  private final ConcurrentMap<String, EndpointRecorder> endpoints = new ConcurrentHashMap<>();
+
+  @Override
+  public void recordCallStart(String endpoint) {
+    getRecorder(endpoint).inFlightCount.incrementAndGet();
+  }
+
+  @Override
+  public void recordCall(String endpoint, int statusCode, long durationNanos) {
+    EndpointRecorder recorder = getRecorder(endpoint);
+
+    recorder.inFlightCount.decrementAndGet();
+    recorder.statusCounts.computeIfAbsent(statusCode, key -> new LongAdder()).increment();
+    recorder.latency.record(durationNanos);
+  }
+
+  @Override
+  public void recordPhase(String endpoint, Phase phase, long durationNanos) {
+    getRecorder(endpoint).phases.get(phase).record(durationNanos);
+  }
+
+  @Override
+  public void recordRetry(String endpoint) {
+    getRecorder(endpoint).retryCount.increment();
+  }
+
+  @Override
+  public void recordCacheHit(String endpoint) {
+    getRecorder(endpoint).cacheHitCount.increment();
+  }
+
+  /**
+   * Returns a snapshot of the measurements recorded so far.
+   *
+   * @return The measurements of every endpoint that has been called.
+   */
+  public MetricsSnapshot snapshot() {
+    Map<String, MetricsSnapshot.EndpointMetrics> endpoints = new TreeMap<>();
+
+    this.endpoints.forEach((endpoint, recorder) -> endpoints.put(endpoint, recorder.snapshot()));
+    return new MetricsSnapshot(Collections.unmodifiableMap(endpoints));
+  }
+
+  private EndpointRecorder getRecorder(String endpoint) {
+    EndpointRecorder recorder = this.endpoints.get(endpoint);
+
+    // Look the recorder up before computing it, as computeIfAbsent locks even when the key exists.
+    return recorder != null
+        ? recorder
+        : this.endpoints.computeIfAbsent(endpoint, key -> new EndpointRecorder());
+  }
+
+  /** The histograms and counters of a single endpoint. */
+  private static final class EndpointRecorder {
+    private final AtomicLong inFlightCount = new AtomicLong();
+    private final LongAdder cacheHitCount = new LongAdder();
+    private final LongAdder retryCount = new LongAdder();
+    private final ConcurrentMap<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final Map<Phase, LatencyHistogram> phases = new EnumMap<>(Phase.class);
+
+    EndpointRecorder() {
+      // Every phase is created up front, so the map is only read after construction.
+      for (Phase phase : Phase.values()) {
+        this.phases.put(phase, new LatencyHistogram());
+      }
+    }
+
+    MetricsSnapshot.EndpointMetrics snapshot() {
+      Map<Integer, Long> statusCounts = new TreeMap<>();
+      Map<Phase, LatencyStats> phases = new EnumMap<>(Phase.class);
+
+      this.statusCounts.forEach((statusCode, count) -> statusCounts.put(statusCode, count.sum()));
+      this.phases.forEach((phase, histogram) -> phases.put(phase, histogram.stats()));
+
+      return new MetricsSnapshot.EndpointMetrics(
+          this.inFlightCount.get(),
+          this.cacheHitCount.sum(),
+          this.retryCount.sum(),
+          Collections.unmodifiableMap(statusCounts),
+          this.latency.stats(),
+          Collections.unmodifiableMap(phases));
+    }
+  }
+}
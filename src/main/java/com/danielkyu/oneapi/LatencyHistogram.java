@@ -0,0 +1,124 @@
+package com.danielkyu.oneapi;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations with a bounded relative error, in the style of an HDR
+ * histogram.
+ *
+ * <p>Each power of two is split into 16 linear sub-buckets, so a recorded value is reported with
+ * an error of at most 1/16 (6.25%) while the histogram covers 1ns to about 18 minutes in 608
+ * counters. Recording a value is a handful of atomic increments and never allocates. Snapshots are
+ * taken without stopping writers, so a snapshot taken while values are being recorded may include
+ * some of them in the count but not yet in the percentiles.
+ */
+final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int MAX_EXPONENT = 40;
+  private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+  static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Records a duration.
+   *
+   * @param nanos The duration in nanoseconds. Negative values are recorded as zero and values
+   *     beyond the range of the histogram as its maximum.
+   */
+  void record(long nanos) {
+    long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+
+    this.counts.incrementAndGet(toIndex(value));
+    this.sum.add(value);
+    this.max.accumulate(value);
+  }
+
+  /**
+   * Returns a summary of the recorded durations.
+   *
+   * @return The count, mean, percentiles and maximum of the recorded durations.
+   */
+  LatencyStats stats() {
+    long[] snapshot = new long[BUCKET_COUNT];
+    long count = 0;
+
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      snapshot[i] = this.counts.get(i);
+      count += snapshot[i];
+    }
+
+    if (count == 0) {
+      return LatencyStats.EMPTY;
+    }
+
+    long max = this.max.get();
+
+    return new LatencyStats(
+        count,
+        toMicros(this.sum.sum() / count),
+        toMicros(Math.min(getPercentile(snapshot, count, 50), max)),
+        toMicros(Math.min(getPercentile(snapshot, count, 90), max)),
+        toMicros(Math.min(getPercentile(snapshot, count, 99), max)),
+        toMicros(max));
+  }
+
+  /**
+   * Returns the bucket that a value is counted in.
+   *
+   * @param value A value between 0 and the maximum value of the histogram.
+   * @return The index of the bucket.
+   */
+  static int toIndex(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  /**
+   * Returns the largest value that is counted in a bucket.
+   *
+   * @param index The index of the bucket.
+   * @return The largest value of the bucket.
+   */
+  static long getUpperBound(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+
+    int shift = index / SUB_BUCKET_COUNT - 1;
+    long lowerBound = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+
+    return lowerBound + (1L << shift) - 1;
+  }
+
+  private static long getPercentile(long[] counts, long count, double percentile) {
+    long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+    long seen = 0;
+
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+
+      if (seen >= rank) {
+        return getUpperBound(i);
+      }
+    }
+
+    return getUpperBound(counts.length - 1);
+  }
+
+  private static long toMicros(long nanos) {
+    return TimeUnit.NANOSECONDS.toMicros(nanos);
+  }
+}
@@ -0,0 +1,31 @@
+package com.danielkyu.oneapi;
+
+import lombok.Value;
+
+/**
+ * A point-in-time summary of a latency histogram. Percentiles are accurate to within 6.25% of the
+ * recorded values.
+ */
+@Value
+public class LatencyStats {
+  /** Summary of a histogram that has not recorded any values. */
+  static final LatencyStats EMPTY = new LatencyStats(0, 0, 0, 0, 0, 0);
+
+  /** The number of recorded durations. */
+  long count;
+
+  /** The mean of the recorded durations, in microseconds. */
+  long meanMicros;
+
+  /** The median of the recorded durations, in microseconds. */
+  long p50Micros;
+
+  /** The 90th percentile of the recorded durations, in microseconds. */
+  long p90Micros;
+
+  /** The 99th percentile of the recorded durations, in microseconds. */
+  long p99Micros;
+
+  /** The longest recorded duration, in microseconds. */
+  long maxMicros;
+}
@@ -0,0 +1,91 @@
+package com.danielkyu.oneapi;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Source;
+import org.apache.commons.lang3.Validate;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+
+/**
+ * Custom Retrofit converter factory that times the decoding of response bodies and reports it to a
+ * {@link MetricsSink} as the {@link MetricsSink.Phase#DECODE} phase.
+ *
+ * <p>Decoding is delegated to the next converter factory. The body is decoded as it streams in, so
+ * it is never held in memory as a whole; the time spent waiting for the network inside the decoder
+ * is subtracted from the decode time, since it is already part of the {@link
+ * MetricsSink.Phase#BODY} phase.
+ */
+final class MetricsConverterFactory extends Converter.Factory {
+  private final MetricsSink metricsSink;
+
+  /**
+   * Constructs the instance.
+   *
+   * @param metricsSink The sink that receives the measurements.
+   */
+  MetricsConverterFactory(MetricsSink metricsSink) {
+    this.metricsSink = Validate.notNull(metricsSink);
+  }
+
+  @Override
+  public Converter<ResponseBody, ?> responseBodyConverter(
+      Type type, Annotation[] annotations, Retrofit retrofit) {
+    String endpoint = null;
+
+    for (Annotation annotation : annotations) {
+      if (annotation instanceof GET) {
+        endpoint = MetricsEventListener.toEndpoint(((GET) annotation).value());
+      }
+    }
+
+    if (endpoint == null) {
+      return null;
+    }
+
+    String measuredEndpoint = endpoint;
+    Converter<ResponseBody, ?> converter =
+        retrofit.nextResponseBodyConverter(this, type, annotations);
+
+    return body -> {
+      TimedSource source = new TimedSource(body.source());
+      long startNanos = System.nanoTime();
+
+      try (ResponseBody timedBody =
+          ResponseBody.create(Okio.buffer(source), body.contentType(), body.contentLength())) {
+        return converter.convert(timedBody);
+      } finally {
+        this.metricsSink.recordPhase(
+            measuredEndpoint,
+            MetricsSink.Phase.DECODE,
+            System.nanoTime() - startNanos - source.readNanos);
+      }
+    };
+  }
+
+  /** Accumulates the time spent reading from the network. Used by one decoding thread only. */
+  private static final class TimedSource extends ForwardingSource {
+    long readNanos;
+
+    TimedSource(Source delegate) {
+      super(delegate);
+    }
+
+    @Override
+    public long read(Buffer sink, long byteCount) throws IOException {
+      long startNanos = System.nanoTime();
+
+      try {
+        return super.read(sink, byteCount);
+      } finally {
+        this.readNanos += System.nanoTime() - startNanos;
+      }
+    }
+  }
+}
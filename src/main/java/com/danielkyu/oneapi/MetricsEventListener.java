@@ -0,0 +1,201 @@
+package com.danielkyu.oneapi;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.apache.commons.lang3.Validate;
+import retrofit2.Invocation;
+import retrofit2.http.GET;
+
+/**
+ * Custom OkHttp event listener that times the phases of a call to the OneApi service and reports
+ * them to a {@link MetricsSink}.
+ *
+ * <p>A listener is created for every call, and OkHttp delivers the events of a call one after
+ * another, so the listener keeps its timestamps in plain fields.
+ */
+final class MetricsEventListener extends EventListener {
+  /**
+   * Creates a listener for every call made through the OneApiService proxy, alongside the listener
+   * that the application's client already creates, if any.
+   */
+  static final class Factory implements EventListener.Factory {
+    private final MetricsSink metricsSink;
+    private final EventListener.Factory delegate;
+
+    /**
+     * Constructs the instance.
+     *
+     * @param metricsSink The sink that receives the measurements.
+     * @param delegate The factory of the client that the SDK's client was derived from, whose
+     *     listeners keep receiving every event, or null if there is none.
+     */
+    Factory(MetricsSink metricsSink, EventListener.Factory delegate) {
+      this.metricsSink = Validate.notNull(metricsSink);
+      this.delegate = delegate;
+    }
+
+    @Override
+    public EventListener create(Call call) {
+      EventListener listener =
+          this.delegate == null ? EventListener.NONE : this.delegate.create(call);
+      Invocation invocation = call.request().tag(Invocation.class);
+
+      // Calls that are not made through the service proxy, such as connection warm-up requests,
+      // are not measured.
+      if (invocation == null) {
+        return listener;
+      }
+
+      EventListener metricsListener =
+          new MetricsEventListener(this.metricsSink, toEndpoint(invocation));
+
+      return listener == EventListener.NONE
+          ? metricsListener
+          : new CompositeEventListener(listener, metricsListener);
+    }
+  }
+
+  private final MetricsSink metricsSink;
+  private final String endpoint;
+  private long callStartNanos;
+  private long dnsStartNanos;
+  private long connectStartNanos;
+  private long secureConnectStartNanos;
+  private long requestStartNanos;
+  private long responseBodyStartNanos;
+  private int attemptCount;
+  private int statusCode;
+
+  private MetricsEventListener(MetricsSink metricsSink, String endpoint) {
+    this.metricsSink = metricsSink;
+    this.endpoint = endpoint;
+  }
+
+  /**
+   * Returns the endpoint that a path belongs to, with the id of the parent document replaced by a
+   * placeholder so that the calls of every movie, book or character are measured together.
+   *
+   * @param path The path of a resource relative to the base URL, e.g. movie/{id}/quote.
+   * @return The endpoint, e.g. movie/{id}/quote.
+   */
+  static String toEndpoint(String path) {
+    String[] segments = path.split("/", -1);
+
+    return segments.length == 3 ? segments[0] + "/{id}/" + segments[2] : path;
+  }
+
+  /**
+   * Returns the endpoint that a call made through the OneApiService proxy belongs to.
+   *
+   * @param invocation The invocation of the proxy method that created the call.
+   * @return The endpoint, e.g. movie/{id}/quote.
+   */
+  static String toEndpoint(Invocation invocation) {
+    GET get = invocation.method().getAnnotation(GET.class);
+
+    if (get == null) {
+      return invocation.method().getName();
+    }
+
+    // Streaming calls take the path of the resource as their first argument.
+    return toEndpoint(
+        get.value().equals("{path}") ? (String) invocation.arguments().get(0) : get.value());
+  }
+
+  @Override
+  public void callStart(Call call) {
+    this.callStartNanos = System.nanoTime();
+    this.metricsSink.recordCallStart(this.endpoint);
+  }
+
+  @Override
+  public void dnsStart(Call call, String domainName) {
+    this.dnsStartNanos = System.nanoTime();
+  }
+
+  @Override
+  public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+    recordPhase(MetricsSink.Phase.DNS, this.dnsStartNanos);
+  }
+
+  @Override
+  public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+    this.connectStartNanos = System.nanoTime();
+  }
+
+  @Override
+  public void secureConnectStart(Call call) {
+    this.secureConnectStartNanos = System.nanoTime();
+  }
+
+  @Override
+  public void secureConnectEnd(Call call, Handshake handshake) {
+    recordPhase(MetricsSink.Phase.TLS, this.secureConnectStartNanos);
+  }
+
+  @Override
+  public void connectEnd(
+      Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+    recordPhase(MetricsSink.Phase.CONNECT, this.connectStartNanos);
+  }
+
+  @Override
+  public void requestHeadersStart(Call call) {
+    this.requestStartNanos = System.nanoTime();
+
+    // Interceptors that retry a request (e.g. after a 429 response) send it again within the call.
+    if (++this.attemptCount > 1) {
+      this.metricsSink.recordRetry(this.endpoint);
+    }
+  }
+
+  @Override
+  public void responseHeadersStart(Call call) {
+    recordPhase(MetricsSink.Phase.TIME_TO_FIRST_BYTE, this.requestStartNanos);
+  }
+
+  @Override
+  public void responseHeadersEnd(Call call, Response response) {
+    this.statusCode = response.code();
+  }
+
+  @Override
+  public void responseBodyStart(Call call) {
+    this.responseBodyStartNanos = System.nanoTime();
+  }
+
+  @Override
+  public void responseBodyEnd(Call call, long byteCount) {
+    recordPhase(MetricsSink.Phase.BODY, this.responseBodyStartNanos);
+  }
+
+  @Override
+  public void cacheHit(Call call, Response response) {
+    this.statusCode = response.code();
+    this.metricsSink.recordCacheHit(this.endpoint);
+  }
+
+  @Override
+  public void callEnd(Call call) {
+    this.metricsSink.recordCall(
+        this.endpoint, this.statusCode, System.nanoTime() - this.callStartNanos);
+  }
+
+  @Override
+  public void callFailed(Call call, IOException ioe) {
+    this.metricsSink.recordCall(this.endpoint, 0, System.nanoTime() - this.callStartNanos);
+  }
+
+  private void recordPhase(MetricsSink.Phase phase, long startNanos) {
+    this.metricsSink.recordPhase(this.endpoint, phase, System.nanoTime() - startNanos);
+  }
+}
@@ -0,0 +1,76 @@
+package com.danielkyu.oneapi;
+
+/**
+ * Receives measurements of the calls made to the OneApi service.
+ *
+ * <p>Endpoints are identified by their path template relative to the base URL, e.g. {@code movie}
+ * or {@code movie/{id}/quote}. The methods are invoked on the threads that make the calls, which
+ * are often OkHttp's networking threads, so implementations must be thread-safe and must not
+ * block. {@link InMemoryMetricsSink} keeps lock-free histograms and counters that can be read at
+ * any time; other implementations can forward the measurements to a metrics library.
+ */
+public interface MetricsSink {
+  /** A phase of a call to the OneApi service. */
+  enum Phase {
+    /** Resolving the host name of the service. */
+    DNS,
+
+    /** Establishing a new connection, including the TLS handshake. */
+    CONNECT,
+
+    /** The TLS handshake of a new connection. */
+    TLS,
+
+    /** From starting to send the request until the response headers start to arrive. */
+    TIME_TO_FIRST_BYTE,
+
+    /** Reading the response body. */
+    BODY,
+
+    /** Decoding the response body into response objects. */
+    DECODE
+  }
+
+  /**
+   * Records that a call was started. Every call that was started is later recorded by {@link
+   * #recordCall}, so the difference between the two is the number of calls in flight.
+   *
+   * @param endpoint The endpoint that is called.
+   */
+  void recordCallStart(String endpoint);
+
+  /**
+   * Records a completed or failed call.
+   *
+   * @param endpoint The endpoint that was called.
+   * @param statusCode The HTTP status code of the final response, or 0 if no response was
+   *     received.
+   * @param durationNanos The time from starting the call until its response body was closed.
+   */
+  void recordCall(String endpoint, int statusCode, long durationNanos);
+
+  /**
+   * Records the duration of a phase of a call. Phases that were not needed by a call, such as
+   * connecting when a pooled connection was reused, are not recorded.
+   *
+   * @param endpoint The endpoint that was called.
+   * @param phase The phase.
+   * @param durationNanos The duration of the phase.
+   */
+  void recordPhase(String endpoint, Phase phase, long durationNanos);
+
+  /**
+   * Records that a request was sent again as part of the same call, for example after the service
+   * throttled it with 429 (Too Many Requests) or a connection failed.
+   *
+   * @param endpoint The endpoint that was called.
+   */
+  void recordRetry(String endpoint);
+
+  /**
+   * Records that a response was served from a cache without calling the service.
+   *
+   * @param endpoint The endpoint whose response was served.
+   */
+  void recordCacheHit(String endpoint);
+}
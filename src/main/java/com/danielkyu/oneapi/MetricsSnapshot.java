@@ -0,0 +1,33 @@
+package com.danielkyu.oneapi;
+
+import java.util.Map;
+import lombok.Value;
+
+/** A point-in-time snapshot of the measurements kept by an {@link InMemoryMetricsSink}. */
+@Value
+public class MetricsSnapshot {
+  /** The measurements of every endpoint that has been called, keyed by endpoint. */
+  Map<String, EndpointMetrics> endpoints;
+
+  /** The measurements of a single endpoint. */
+  @Value
+  public static class EndpointMetrics {
+    /** The number of calls that have been started but have not completed yet. */
+    long inFlightCount;
+
+    /** The number of responses that were served from a cache without calling the service. */
+    long cacheHitCount;
+
+    /** The number of requests that were sent again as part of the same call. */
+    long retryCount;
+
+    /** The number of completed calls by HTTP status code; 0 counts calls that failed. */
+    Map<Integer, Long> statusCounts;
+
+    /** The durations of completed calls. */
+    LatencyStats latency;
+
+    /** The durations of the phases of calls, for every phase. */
+    Map<MetricsSink.Phase, LatencyStats> phases;
+  }
+}
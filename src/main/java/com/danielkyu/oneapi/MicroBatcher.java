@@ -0,0 +1,199 @@
+package com.danielkyu.oneapi;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects individual key lookups that arrive within a short window and loads them with a single
+ * batch lookup, in the style of a DataLoader.
+ *
+ * <p>The first lookup of a batch opens a window. Every lookup that arrives before the window closes
+ * joins the batch, and the batch is loaded as soon as the window closes or the batch is full,
+ * whichever comes first. Lookups of a key that is already part of the open batch share its result.
+ * Each caller receives its own future, completed with the value loaded for its key (null if the
+ * batch did not return one) or exceptionally if the batch lookup failed.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ */
+final class MicroBatcher<K, V> {
+  static final long DEFAULT_WINDOW_MILLIS = 2;
+  static final int DEFAULT_MAX_SIZE = 50;
+
+  private final Function<Set<K>, CompletableFuture<Map<K, V>>> loader;
+  private final long windowNanos;
+  private final int maxSize;
+
+  // Each instance has its own timer so that a slow loader cannot hold up the batches of another.
+  private final ScheduledExecutorService scheduler =
+      Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("one-api-batcher-%d").build());
+
+  // Guarded by this.
+  private Map<K, CompletableFuture<V>> pending;
+
+  /**
+   * Constructs the instance.
+   *
+   * @param loader Loads the values of a batch of keys. Keys missing from the returned map complete
+   *     with null.
+   * @param window How long a batch collects lookups after its first lookup.
+   * @param maxSize The number of keys at which a batch is loaded without waiting for the window
+   *     to close.
+   */
+  MicroBatcher(
+      Function<Set<K>, CompletableFuture<Map<K, V>>> loader, Duration window, int maxSize) {
+    this.loader = loader;
+    this.windowNanos = window.toNanos();
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Looks up the value of a key as part of the current batch.
+   *
+   * @param key The key to look up.
+   * @return A future that completes with the value of the key, or null if it has none.
+   */
+  CompletableFuture<V> load(K key) {
+    Map<K, CompletableFuture<V>> full = null;
+    CompletableFuture<V> value;
+
+    synchronized (this) {
+      if (this.pending == null) {
+        Map<K, CompletableFuture<V>> batch = new LinkedHashMap<>();
+
+        this.pending = batch;
+        schedule(batch);
+      }
+
+      value = this.pending.computeIfAbsent(key, k -> new CompletableFuture<>());
+
+      if (this.pending.size() >= this.maxSize) {
+        full = this.pending;
+        this.pending = null;
+      }
+    }
+
+    if (full != null) {
+      dispatch(full);
+    }
+
+    return value;
+  }
+
+  /** Stops the timer. The open batch, if any, is loaded at once; later batches are not delayed. */
+  void close() {
+    Map<K, CompletableFuture<V>> batch;
+
+    synchronized (this) {
+      batch = this.pending;
+      this.pending = null;
+    }
+
+    // The flushes returned by shutdownNow() cancel themselves when run, so load the batch directly.
+    this.scheduler.shutdownNow();
+
+    if (batch != null) {
+      dispatch(batch);
+    }
+  }
+
+  private void schedule(Map<K, CompletableFuture<V>> batch) {
+    try {
+      this.scheduler.schedule(() -> flush(batch), this.windowNanos, TimeUnit.NANOSECONDS);
+    } catch (RejectedExecutionException e) {
+      // The batcher has been closed; load the batch as soon as the caller has joined it.
+      CompletableFuture.runAsync(() -> flush(batch));
+    }
+  }
+
+  private void flush(Map<K, CompletableFuture<V>> batch) {
+    synchronized (this) {
+      // The batch may have been dispatched already because it filled up before its window closed.
+      if (this.pending != batch) {
+        return;
+      }
+
+      this.pending = null;
+    }
+
+    dispatch(batch);
+  }
+
+  private void dispatch(Map<K, CompletableFuture<V>> batch) {
+    CompletableFuture<Map<K, V>> values;
+
+    try {
+      values = this.loader.apply(batch.keySet());
+    } catch (RuntimeException e) {
+      values = new CompletableFuture<>();
+      values.completeExceptionally(e);
+    }
+
+    values.whenComplete(
+        (result, error) ->
+            batch.forEach(
+                (key, value) -> {
+                  if (error != null) {
+                    value.completeExceptionally(error);
+                  } else {
+                    value.complete(result.get(key));
+                  }
+                }));
+  }
+
+  /**
+   * Creates a micro-batcher if batching is enabled.
+   *
+   * @param config The Config instance produced from parsing the static configuration resource file.
+   * @param configOptions The ConfigOptions instance that contains additional configuration options
+   *     set at runtime.
+   * @param loader Loads the values of a batch of keys.
+   * @return A new MicroBatcher, or null if batching is not enabled.
+   */
+  static <K, V> MicroBatcher<K, V> create(
+      Config config,
+      ConfigOptions configOptions,
+      Function<Set<K>, CompletableFuture<Map<K, V>>> loader) {
+    Optional<Config.Batching> batching = Optional.ofNullable(config.getBatching());
+    boolean isEnabled =
+        Optional.ofNullable(configOptions.getBatchingEnabled())
+            .orElseGet(() -> batching.map(Config.Batching::isEnabled).orElse(false));
+
+    if (!isEnabled) {
+      return null;
+    }
+
+    Duration window =
+        Optional.ofNullable(configOptions.getBatchWindow())
+            .orElseGet(
+                () ->
+                    Duration.ofMillis(
+                        batching
+                            .map(Config.Batching::getWindowMillis)
+                            .orElse(DEFAULT_WINDOW_MILLIS)));
+    int maxSize =
+        Optional.ofNullable(configOptions.getBatchMaxSize())
+            .orElseGet(() -> batching.map(Config.Batching::getMaxSize).orElse(DEFAULT_MAX_SIZE));
+
+    if (window.isNegative()) {
+      throw new OneApiException("Batch window must not be a negative value.");
+    }
+
+    if (maxSize <= 0) {
+      throw new OneApiException("Batch max size must be a positive value.");
+    }
+
+    return new MicroBatcher<>(loader, window, maxSize);
+  }
+}
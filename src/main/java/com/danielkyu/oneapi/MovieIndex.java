@@ -0,0 +1,331 @@
+package com.danielkyu.oneapi;
+
+import com.danielkyu.oneapi.params.MovieParams.MovieAttribute;
+import com.danielkyu.oneapi.responses.MovieResponse;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * An immutable, in-memory copy of the movie catalog that evaluates movie queries locally.
+ *
+ * <p>Queries are given in the same query list form that is sent to the OneApi service and are
+ * answered with the same filtering and pagination semantics. Numeric attributes are backed by
+ * sorted indexes so that range filters are resolved with a binary search, and ids by a hash index.
+ */
+final class MovieIndex {
+  private static final String[] OPERATORS = {"!=", "<=", ">=", "=", "<", ">"};
+  private static final Pattern REGEX_VALUE = Pattern.compile("^/(.*)/([a-z]*)$", Pattern.DOTALL);
+  private static final Map<MovieAttribute, ToIntFunction<MovieResponse.Movie>> NUMERIC_ATTRIBUTES =
+      new EnumMap<>(MovieAttribute.class);
+  private static final Map<MovieAttribute, Function<MovieResponse.Movie, String>> TEXT_ATTRIBUTES =
+      new EnumMap<>(MovieAttribute.class);
+
+  static {
+    NUMERIC_ATTRIBUTES.put(
+        MovieAttribute.RUNTIME_IN_MINUTES, MovieResponse.Movie::getRuntimeInMinutes);
+    NUMERIC_ATTRIBUTES.put(
+        MovieAttribute.BUDGET_IN_MILLIONS, MovieResponse.Movie::getBudgetInMillions);
+    NUMERIC_ATTRIBUTES.put(
+        MovieAttribute.BOX_OFFICE_REVENUE_IN_MILLIONS,
+        MovieResponse.Movie::getBoxOfficeRevenueInMillions);
+    NUMERIC_ATTRIBUTES.put(
+        MovieAttribute.ACADEMY_AWARD_NOMINATIONS, MovieResponse.Movie::getAcademyAwardNominations);
+    NUMERIC_ATTRIBUTES.put(
+        MovieAttribute.ACADEMY_AWARD_WINS, MovieResponse.Movie::getAcademyAwardWins);
+    NUMERIC_ATTRIBUTES.put(
+        MovieAttribute.ROTTEN_TOMATOES_SCORE, MovieResponse.Movie::getRottenTomatoesScore);
+    TEXT_ATTRIBUTES.put(MovieAttribute.ID, MovieResponse.Movie::getId);
+    TEXT_ATTRIBUTES.put(MovieAttribute.NAME, MovieResponse.Movie::getName);
+  }
+
+  /** A numeric attribute's values in ascending order, with the position of each movie. */
+  private static final class SortedColumn {
+    private final int[] values;
+    private final int[] positions;
+
+    private SortedColumn(List<MovieResponse.Movie> movies, ToIntFunction<MovieResponse.Movie> f) {
+      List<Integer> order = new ArrayList<>(movies.size());
+
+      for (int position = 0; position < movies.size(); position++) {
+        order.add(position);
+      }
+
+      // The sort is stable, so movies with equal values keep their catalog order.
+      order.sort(Comparator.comparingInt(position -> f.applyAsInt(movies.get(position))));
+      this.values = new int[movies.size()];
+      this.positions = new int[movies.size()];
+
+      for (int i = 0; i < order.size(); i++) {
+        this.positions[i] = order.get(i);
+        this.values[i] = f.applyAsInt(movies.get(order.get(i)));
+      }
+    }
+
+    /** Returns the index of the first value that is greater than (or equal to) the bound. */
+    private int search(double bound, boolean inclusive) {
+      int low = 0;
+      int high = this.values.length;
+
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+
+        if (this.values[mid] < bound || (!inclusive && this.values[mid] == bound)) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+
+      return low;
+    }
+
+    private void addRange(BitSet matches, int from, int to) {
+      for (int i = from; i < to; i++) {
+        matches.set(this.positions[i]);
+      }
+    }
+  }
+
+  private final List<MovieResponse.Movie> movies;
+  private final Map<String, Integer> positionsById = new HashMap<>();
+  private final Map<MovieAttribute, SortedColumn> columns = new EnumMap<>(MovieAttribute.class);
+
+  /**
+   * Creates an index over a snapshot of the movie catalog.
+   *
+   * @param movies Every movie in the catalog, in the order the OneApi service returns them.
+   */
+  MovieIndex(List<MovieResponse.Movie> movies) {
+    this.movies = Collections.unmodifiableList(new ArrayList<>(movies));
+
+    for (int position = 0; position < this.movies.size(); position++) {
+      this.positionsById.putIfAbsent(this.movies.get(position).getId(), position);
+    }
+
+    NUMERIC_ATTRIBUTES.forEach(
+        (attribute, f) -> this.columns.put(attribute, new SortedColumn(this.movies, f)));
+  }
+
+  /**
+   * Returns the number of movies in the index.
+   *
+   * @return The number of movies.
+   */
+  int size() {
+    return this.movies.size();
+  }
+
+  /**
+   * Evaluates a movie query.
+   *
+   * @param queryList The query list, as produced by MovieParams.
+   * @return The page of matching movies, with the pagination fields the OneApi service would
+   *     return for the same query.
+   * @throws OneApiException The query contains a filter that cannot be evaluated.
+   */
+  MovieResponse query(List<String> queryList) throws OneApiException {
+    BitSet matches = new BitSet(this.movies.size());
+    int page = 1;
+    int offset = 0;
+    int limit = 10;
+
+    matches.set(0, this.movies.size());
+
+    for (String query : queryList) {
+      if (query.startsWith("page=")) {
+        page = parseInt(query, "page=");
+      } else if (query.startsWith("offset=")) {
+        offset = parseInt(query, "offset=");
+      } else if (query.startsWith("limit=")) {
+        limit = parseInt(query, "limit=");
+      } else {
+        matches.and(evaluate(query));
+      }
+    }
+
+    // As on the server, a non-zero offset takes precedence over the page.
+    int skip = offset > 0 ? offset : (page - 1) * limit;
+    int total = matches.cardinality();
+    List<MovieResponse.Movie> docs = new ArrayList<>(Math.min(limit, total));
+    int position = matches.nextSetBit(0);
+
+    for (int skipped = 0; position >= 0 && skipped < skip; skipped++) {
+      position = matches.nextSetBit(position + 1);
+    }
+
+    while (position >= 0 && docs.size() < limit) {
+      docs.add(this.movies.get(position));
+      position = matches.nextSetBit(position + 1);
+    }
+
+    MovieResponse response = new MovieResponse();
+
+    response.setMovies(docs);
+    response.setTotal(total);
+    response.setLimit(limit);
+    response.setOffset(skip);
+    response.setPage(limit > 0 ? skip / limit + 1 : 1);
+    response.setPages(limit > 0 ? (total + limit - 1) / limit : 1);
+    return response;
+  }
+
+  private BitSet evaluate(String query) {
+    for (MovieAttribute attribute : MovieAttribute.values()) {
+      if (!query.startsWith(attribute.toString())) {
+        continue;
+      }
+
+      String expression = query.substring(attribute.toString().length());
+
+      for (String operator : OPERATORS) {
+        if (expression.startsWith(operator)) {
+          String value = expression.substring(operator.length());
+
+          return NUMERIC_ATTRIBUTES.containsKey(attribute)
+              ? evaluateNumeric(query, this.columns.get(attribute), operator, value)
+              : evaluateText(query, attribute, operator, value);
+        }
+      }
+    }
+
+    throw new OneApiException("Unsupported movie filter: " + query);
+  }
+
+  private BitSet evaluateNumeric(String query, SortedColumn column, String operator, String value) {
+    BitSet matches = new BitSet(this.movies.size());
+
+    if (operator.equals("=") || operator.equals("!=")) {
+      // A comma-separated list matches any of its values, as on the server.
+      for (String item : StringUtils.split(value, ',')) {
+        double bound = parseNumber(query, item);
+
+        column.addRange(matches, column.search(bound, true), column.search(bound, false));
+      }
+
+      if (operator.equals("!=")) {
+        matches.flip(0, this.movies.size());
+      }
+
+      return matches;
+    }
+
+    double bound = parseNumber(query, value);
+
+    switch (operator) {
+      case "<":
+        column.addRange(matches, 0, column.search(bound, true));
+        break;
+      case "<=":
+        column.addRange(matches, 0, column.search(bound, false));
+        break;
+      case ">":
+        column.addRange(matches, column.search(bound, false), this.movies.size());
+        break;
+      default:
+        column.addRange(matches, column.search(bound, true), this.movies.size());
+        break;
+    }
+
+    return matches;
+  }
+
+  private BitSet evaluateText(
+      String query, MovieAttribute attribute, String operator, String value) {
+    if (!operator.equals("=") && !operator.equals("!=")) {
+      throw new OneApiException("Unsupported movie filter: " + query);
+    }
+
+    BitSet matches = new BitSet(this.movies.size());
+    Matcher regex = REGEX_VALUE.matcher(value);
+
+    if (regex.matches()) {
+      Pattern pattern = compile(query, regex.group(1), regex.group(2));
+      Function<MovieResponse.Movie, String> f = TEXT_ATTRIBUTES.get(attribute);
+
+      for (int position = 0; position < this.movies.size(); position++) {
+        String text = f.apply(this.movies.get(position));
+
+        matches.set(position, text != null && pattern.matcher(text).find());
+      }
+    } else {
+      for (String item : StringUtils.split(value, ',')) {
+        if (attribute == MovieAttribute.ID) {
+          Integer position = this.positionsById.get(item);
+
+          if (position != null) {
+            matches.set(position);
+          }
+        } else {
+          for (int position = 0; position < this.movies.size(); position++) {
+            if (item.equals(this.movies.get(position).getName())) {
+              matches.set(position);
+            }
+          }
+        }
+      }
+    }
+
+    if (operator.equals("!=")) {
+      matches.flip(0, this.movies.size());
+    }
+
+    return matches;
+  }
+
+  private static Pattern compile(String query, String regex, String options) {
+    int flags = 0;
+
+    for (char option : options.toCharArray()) {
+      switch (option) {
+        case 'i':
+          flags |= Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+          break;
+        case 'm':
+          flags |= Pattern.MULTILINE;
+          break;
+        case 's':
+          flags |= Pattern.DOTALL;
+          break;
+        case 'x':
+          flags |= Pattern.COMMENTS;
+          break;
+        default:
+          throw new OneApiException("Unsupported regular expression option in filter: " + query);
+      }
+    }
+
+    try {
+      return Pattern.compile(regex, flags);
+    } catch (PatternSyntaxException e) {
+      throw new OneApiException("Invalid regular expression in filter: " + query, e);
+    }
+  }
+
+  private static double parseNumber(String query, String value) {
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      throw new OneApiException("Unsupported movie filter: " + query, e);
+    }
+  }
+
+  private static int parseInt(String query, String prefix) {
+    try {
+      return Integer.parseInt(query.substring(prefix.length()));
+    } catch (NumberFormatException e) {
+      throw new OneApiException("Unsupported movie filter: " + query, e);
+    }
+  }
+}
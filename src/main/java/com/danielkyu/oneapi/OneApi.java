@@ -1,10 +1,48 @@
 package com.danielkyu.oneapi;
 
 import com.danielkyu.oneapi.params.MovieParams;
+import com.danielkyu.oneapi.params.MovieParams.MovieAttribute;
+import com.danielkyu.oneapi.params.ResourceParams;
+import com.danielkyu.oneapi.params.ResourceQuery;
+import com.danielkyu.oneapi.responses.MovieBatch;
 import com.danielkyu.oneapi.responses.MovieResponse;
+import com.danielkyu.oneapi.responses.PaginatedResponse;
+import com.danielkyu.oneapi.responses.Pagination;
+import com.google.common.base.Suppliers;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import okhttp3.ResponseBody;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.reactivestreams.Publisher;
 import retrofit2.Call;
 import retrofit2.Response;
 
@@ -16,20 +54,55 @@ import retrofit2.Response;
  * during the application's initialization and referenced as a singleton where needed.
  *
  * <p>The class requires that a configuration file be bundled as a resource at: one-api/config.yaml.
- * The API key, among other configuration values, will be loaded from this location.
+ * The API key, among other configuration values, will be loaded from this location. In fast-start
+ * mode (see {@link ConfigOptions#fastStart}) the file is not read; configuration is taken from
+ * system properties and environment variables instead, and the HTTP client is built on first use.
+ *
+ * <p>Every endpoint is described by a {@link Resource} and can be fetched with the generic
+ * operations ({@link #get}, {@link #getAsync}, {@link #stream}, {@link #getAll} and {@link
+ * #visit}), which share the same caching, request coalescing, hedging and pagination machinery.
+ * The movie-specific operations are shorthands for the generic operations on {@link
+ * Resource#MOVIE}.
  *
  * <p>Both synchronous and asynchronous mechanisms of invocation are supported. Note that the
  * aysnchronous model for handling network calls utilizes a thread pool in the background in order
- * to more efficiently manage resources. As a result of relying on the default behavior of the
- * thread pool, the application may hang for about a minute after termination as the VM tries to
- * wait for any in-flight network calls to complete. As a result, the asynchronous API is only
- * recommended for applications that hardly ever terminate (e.g. an Android application).
+ * to more efficiently manage resources. The thread pool created by the SDK uses daemon threads, and
+ * on Java 21+ it can be configured to use virtual threads instead. If the application provides its
+ * own OkHttpClient, that client's thread pool is used and the application may hang for about a
+ * minute after termination as the VM waits for its idle threads to expire. Asynchronous results
+ * are delivered on the networking thread unless a callback executor is configured.
+ *
+ * <p>An instance owns background threads (e.g. for cache refreshes and snapshots) and should be
+ * closed once it is no longer needed.
  */
-public final class OneApi {
+public final class OneApi implements AutoCloseable {
   private static final Logger logger = LogManager.getLogger();
   private static final String RESOURCE_PATH_CONFIG_FILE = "one-api/config.yaml";
+  static final int DEFAULT_PREFETCH_DEPTH = 1;
+  static final int SYNC_PAGE_LIMIT = 1000;
 
-  private final OneApiService oneApi;
+  /**
+   * The maximum length of the id filter of a single batch lookup request, which keeps the request
+   * URL within the 2048 characters that servers and proxies commonly accept.
+   */
+  static final int ID_FILTER_MAX_LENGTH = 1900;
+
+  private static final int ID_SEPARATOR_LENGTH = "%2C".length();
+
+  private final Supplier<OneApiService> oneApi;
+  private final RateLimiter rateLimiter;
+  private final ResponseCache<PaginatedResponse<?>> responseCache;
+  private final RefreshScheduler<PaginatedResponse<?>> responseRefresher;
+  private final ResponseSnapshot responseSnapshot;
+  private final Hedger hedger;
+  private final MetricsSink metricsSink;
+  private final MicroBatcher<String, MovieResponse.Movie> movieBatcher;
+  private final RequestCoalescer<PaginatedResponse<?>> requests;
+  private final int prefetchDepth;
+  private final boolean offline;
+  private final AtomicReference<CompletableFuture<MovieIndex>> movieIndex =
+      new AtomicReference<>();
+  private final List<AutoCloseable> closeables = new CopyOnWriteArrayList<>();
 
   /**
    * Creates an instance.
@@ -52,17 +125,84 @@ public final class OneApi {
       throw new OneApiException("ConfigOptions must not be null.");
     }
 
-    logger.info("Loading OneApi configuration from resources: " + RESOURCE_PATH_CONFIG_FILE);
+    boolean isFastStart = Optional.ofNullable(configOptions.getFastStart()).orElse(false);
+    Config config;
+
+    if (isFastStart) {
+      logger.info("Loading OneApi configuration from system properties and environment.");
+      config = Config.loadConfigFromEnvironment();
+    } else {
+      logger.info("Loading OneApi configuration from resources: " + RESOURCE_PATH_CONFIG_FILE);
+      config = Config.loadConfigFromResource(RESOURCE_PATH_CONFIG_FILE);
+    }
+
+    this.rateLimiter = RateLimiter.create(config, configOptions);
+    this.hedger = Hedger.create(config, configOptions);
 
-    this.oneApi =
-        OneApiService.create(
-            Config.loadConfigFromResource(RESOURCE_PATH_CONFIG_FILE), configOptions);
+    if (isFastStart) {
+      // Defer building the HTTP client and the Retrofit proxy until the first call (or warmUp).
+      this.oneApi =
+          Suppliers.memoize(
+              () ->
+                  OneApiService.create(
+                      config, configOptions, this.rateLimiter, this.hedger, this.closeables::add));
+    } else {
+      OneApiService oneApiService =
+          OneApiService.create(
+              config, configOptions, this.rateLimiter, this.hedger, this.closeables::add);
+
+      this.oneApi = () -> oneApiService;
+    }
+
+    this.metricsSink = configOptions.getMetricsSink();
+    this.movieBatcher = MicroBatcher.create(config, configOptions, this::fetchMoviesByIds);
+    this.requests = new RequestCoalescer<>(this.hedger, configOptions.getCallbackExecutor());
+    this.responseCache = ResponseCache.create(config, configOptions, OneApi::indexMovies);
+    this.responseRefresher =
+        RefreshScheduler.create(config, configOptions, this.responseCache, this::refresh);
+    this.responseSnapshot =
+        ResponseSnapshot.create(config, configOptions, this.responseCache, this.responseRefresher);
+    this.prefetchDepth =
+        Optional.ofNullable(configOptions.getPrefetchDepth())
+            .orElseGet(
+                () ->
+                    Optional.ofNullable(config.getPagination())
+                        .map(Config.Pagination::getPrefetchDepth)
+                        .orElse(DEFAULT_PREFETCH_DEPTH));
+
+    this.offline =
+        Optional.ofNullable(configOptions.getOfflineEnabled())
+            .orElseGet(
+                () ->
+                    Optional.ofNullable(config.getOffline())
+                        .map(Config.Offline::isEnabled)
+                        .orElse(false));
+
+    if (this.prefetchDepth < 0) {
+      throw new OneApiException("Prefetch depth must not be a negative value.");
+    }
 
-    logger.info(
-        "Successfully loaded OneApi configuration from resources: " + RESOURCE_PATH_CONFIG_FILE);
     logger.info("Successfully created OneApi instance.");
   }
 
+  /**
+   * Builds the HTTP client and the service proxy on a background thread, if they have not been
+   * built yet.
+   *
+   * <p>In fast-start mode they are otherwise built by the first call. Calling this method right
+   * after construction moves that work off both the startup path and the first request.
+   *
+   * @return A future that completes once the instance is ready to issue requests, or completes
+   *     exceptionally if the client could not be built (e.g. no API key was provided).
+   */
+  public CompletableFuture<Void> warmUp() {
+    return CompletableFuture.runAsync(
+        () -> {
+          // Creating (but not executing) a call also parses the proxy's method annotations.
+          Resource.MOVIE.createCall(this.oneApi.get(), new MovieParams().toQueryList());
+        });
+  }
+
   /**
    * Returns movies based on the filters in the parameters provided.
    *
@@ -75,54 +215,1117 @@ public final class OneApi {
    *     for more details as to the cause of the error.
    */
   public MovieResponse getMovies(MovieParams movieParams) throws OneApiException {
+    return get(Resource.MOVIE, movieParams);
+  }
+
+  /**
+   * Returns movies based on a compiled query.
+   *
+   * <p>This operation is synchronous and will block the calling thread until a response is
+   * received.
+   *
+   * @param movieQuery The query compiled from the parameters that specify the types of movies to
+   *     return, see {@link MovieParams#build()}.
+   * @return An instance of MovieResponse which contains the movies that meet the filter criteria.
+   * @throws OneApiException An error occurred during the operation. Refer to the exception message
+   *     for more details as to the cause of the error.
+   */
+  public MovieResponse getMovies(ResourceQuery<MovieParams> movieQuery) throws OneApiException {
+    return get(Resource.MOVIE, movieQuery);
+  }
+
+  /**
+   * Returns movies based on the filters in the parameters provided.
+   *
+   * <p>This operation is asynchronous and the result is delivered to the callback. If the response
+   * is served from the in-memory cache, the callback is invoked on the calling thread. Identical
+   * requests that are already in flight are coalesced into a single call to the service.
+   *
+   * @param movieParams Parameters that specify the types of movies to return.
+   * @param callback The callback that receives the result of the operation.
+   */
+  public void getMovies(MovieParams movieParams, Callback<MovieResponse> callback) {
+    get(Resource.MOVIE, movieParams, callback);
+  }
+
+  /**
+   * Returns movies based on the filters in the parameters provided.
+   *
+   * <p>This operation is asynchronous. Cancelling the returned future cancels the underlying call
+   * and releases its connection, unless the call is shared with other identical in-flight requests,
+   * in which case it is cancelled once every request sharing it has been cancelled.
+   *
+   * @param movieParams Parameters that specify the types of movies to return.
+   * @return A future that completes with the movies that meet the filter criteria, or exceptionally
+   *     with a OneApiException if the operation failed.
+   */
+  public CompletableFuture<MovieResponse> getMoviesAsync(MovieParams movieParams) {
+    return getAsync(Resource.MOVIE, movieParams);
+  }
+
+  /**
+   * Returns movies based on a compiled query.
+   *
+   * @param movieQuery The query compiled from the parameters that specify the types of movies to
+   *     return, see {@link MovieParams#build()}.
+   * @return A future that completes with the movies that meet the filter criteria, or exceptionally
+   *     with a OneApiException if the operation failed.
+   * @see #getMoviesAsync(MovieParams)
+   */
+  public CompletableFuture<MovieResponse> getMoviesAsync(ResourceQuery<MovieParams> movieQuery) {
+    return getAsync(Resource.MOVIE, movieQuery, CallOptions.DEFAULT);
+  }
+
+  /**
+   * Returns movies based on the filters in the parameters provided.
+   *
+   * <p>This operation is asynchronous. Cancelling the returned future cancels the underlying call
+   * and releases its connection, unless the call is shared with other identical in-flight requests,
+   * in which case it is cancelled once every request sharing it has been cancelled. If the call
+   * options specify a timeout, the call is issued on its own and is cancelled by OkHttp once the
+   * timeout elapses.
+   *
+   * @param movieParams Parameters that specify the types of movies to return.
+   * @param callOptions Options that apply to this call only.
+   * @return A future that completes with the movies that meet the filter criteria, or exceptionally
+   *     with a OneApiException if the operation failed.
+   */
+  public CompletableFuture<MovieResponse> getMoviesAsync(
+      MovieParams movieParams, CallOptions callOptions) {
+    return getAsync(Resource.MOVIE, movieParams, callOptions);
+  }
+
+  /**
+   * Returns a lazy stream over every movie that matches the filters in the parameters provided,
+   * starting at the page set in the parameters.
+   *
+   * @param movieParams Parameters that specify the types of movies to return and the page size.
+   * @return A sequential, ordered stream of movies.
+   * @see #stream
+   */
+  public Stream<MovieResponse.Movie> streamMovies(MovieParams movieParams) {
+    return stream(Resource.MOVIE, movieParams);
+  }
+
+  /**
+   * Returns a publisher of every movie that matches the filters in the parameters provided,
+   * starting at the page set in the parameters.
+   *
+   * @param movieParams Parameters that specify the types of movies to return and the page size.
+   * @return A Reactive Streams publisher of movies, in page order.
+   * @see #publish
+   */
+  public Publisher<MovieResponse.Movie> publishMovies(MovieParams movieParams) {
+    return publish(Resource.MOVIE, movieParams);
+  }
+
+  /**
+   * Returns every movie that matches the filters in the parameters provided, starting at the page
+   * set in the parameters.
+   *
+   * @param movieParams Parameters that specify the types of movies to return and the page size.
+   * @param parallelism The maximum number of pages to fetch concurrently.
+   * @return Every movie that meets the filter criteria, in page order.
+   * @throws OneApiException An error occurred while fetching one of the pages. Refer to the
+   *     exception message for more details as to the cause of the error.
+   * @see #getAll
+   */
+  public List<MovieResponse.Movie> getAllMovies(MovieParams movieParams, int parallelism)
+      throws OneApiException {
+    return getAll(Resource.MOVIE, movieParams, parallelism);
+  }
+
+  /**
+   * Hands each movie that matches the filters in the parameters provided to the visitor as soon as
+   * it has been decoded, without materializing the page.
+   *
+   * @param movieParams Parameters that specify the types of movies to return.
+   * @param visitor The consumer that receives each movie in page order.
+   * @return The pagination fields of the response.
+   * @throws OneApiException An error occurred during the operation. Refer to the exception message
+   *     for more details as to the cause of the error.
+   * @see #visit
+   */
+  public Pagination visitMovies(MovieParams movieParams, Consumer<MovieResponse.Movie> visitor)
+      throws OneApiException {
+    return visit(Resource.MOVIE, movieParams, visitor);
+  }
+
+  /**
+   * Returns movies based on the filters in the parameters provided, in compact columnar form.
+   *
+   * <p>The response body is decoded incrementally straight into the columns of the batch, so no
+   * list of movie objects is built. Prefer this form for results that are held in memory for a
+   * long time or scanned attribute by attribute. Like {@link #visitMovies}, this operation bypasses
+   * the in-memory cache. This operation is synchronous and will block the calling thread until the
+   * response has been received.
+   *
+   * @param movieParams Parameters that specify the types of movies to return.
+   * @return The movies that meet the filter criteria, together with the pagination fields.
+   * @throws OneApiException An error occurred during the operation. Refer to the exception message
+   *     for more details as to the cause of the error.
+   */
+  public MovieBatch getMovieBatch(MovieParams movieParams) throws OneApiException {
+    MovieBatch.Builder builder = MovieBatch.builder();
+
+    return builder.build(visitMovies(movieParams, builder::add));
+  }
+
+  /**
+   * Returns the movies with the ids provided.
+   *
+   * <p>Movies held by a fresh response in the in-memory cache, or by the synced movie catalog, are
+   * returned without a request. The remaining ids are packed into as few requests as the length of
+   * a request URL allows (a comma-separated id filter holds about 70 ids), and those requests are
+   * issued concurrently. This operation is synchronous and will block the calling thread until
+   * every request has completed.
+   *
+   * @param ids The ids of the movies to return. Duplicates are ignored.
+   * @return The movies keyed by id, in the order of the ids provided. Ids that do not belong to a
+   *     movie are omitted.
+   * @throws OneApiException An error occurred during the operation. Refer to the exception message
+   *     for more details as to the cause of the error.
+   */
+  public Map<String, MovieResponse.Movie> getMoviesByIds(Collection<String> ids)
+      throws OneApiException {
+    Validate.notNull(ids, "Ids must not be null.");
+
+    Set<String> requestedIds = new LinkedHashSet<>();
+
+    for (String id : ids) {
+      Validate.isTrue(
+          StringUtils.isNotBlank(id) && id.indexOf(',') < 0,
+          "Ids must not be blank or contain commas.");
+      requestedIds.add(id);
+    }
+
+    CompletableFuture<Map<String, MovieResponse.Movie>> movies = fetchMoviesByIds(requestedIds);
+
     try {
-      logger.info("Fetching movies from OneApi service.", movieParams);
+      return movies.get();
+    } catch (InterruptedException e) {
+      movies.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new OneApiException("Interrupted while fetching movie data.", e);
+    } catch (ExecutionException e) {
+      throw toOneApiException(Resource.MOVIE, e.getCause());
+    }
+  }
 
-      Response<MovieResponse> response = this.oneApi.getMovies(movieParams.toQueryList()).execute();
+  /**
+   * Writes every movie that matches the filters in the parameters provided to a file, starting at
+   * the page set in the parameters.
+   *
+   * @param movieParams Parameters that specify the movies to export and the page size.
+   * @param path The file to write.
+   * @param format The format of the file.
+   * @return The number of pages, records and bytes written, and the throughput of the export.
+   * @throws OneApiException An error occurred during the operation. Refer to the exception message
+   *     for more details as to the cause of the error.
+   * @see #export
+   */
+  public ExportStats exportMovies(MovieParams movieParams, Path path, ExportFormat format)
+      throws OneApiException {
+    return export(Resource.MOVIE, movieParams, path, format);
+  }
 
-      if (!response.isSuccessful()) {
-        throw new OneApiException("Failed to get movie data: Server returned " + response.code());
+  /**
+   * Returns a page of documents based on the filters in the parameters provided.
+   *
+   * <p>This operation is synchronous and will block the calling thread until a response is
+   * received.
+   *
+   * @param resource The resource to fetch, e.g. {@link Resource#QUOTE}.
+   * @param params Parameters that specify the documents to return.
+   * @return The page of documents that meet the filter criteria.
+   * @throws OneApiException An error occurred during the operation. Refer to the exception message
+   *     for more details as to the cause of the error.
+   */
+  public <T, R extends PaginatedResponse<T>, P extends ResourceParams<?, P>> R get(
+      Resource<T, R, P> resource, P params) throws OneApiException {
+    return get(resource, params.build());
+  }
+
+  /**
+   * Returns a page of documents based on a compiled query.
+   *
+   * <p>Compiling parameters that are used repeatedly once with {@link ResourceParams#build()} saves
+   * building the query and the cache key on every call. This operation is synchronous and will
+   * block the calling thread until a response is received.
+   *
+   * @param resource The resource to fetch, e.g. {@link Resource#QUOTE}.
+   * @param query The query compiled from the parameters that specify the documents to return.
+   * @return The page of documents that meet the filter criteria.
+   * @throws OneApiException An error occurred during the operation. Refer to the exception message
+   *     for more details as to the cause of the error.
+   */
+  public <T, R extends PaginatedResponse<T>, P extends ResourceParams<?, P>> R get(
+      Resource<T, R, P> resource, ResourceQuery<P> query) throws OneApiException {
+    List<String> queryList = query.toQueryList();
+
+    if (isLocal(resource)) {
+      return cast(awaitMovieIndex().query(queryList));
+    }
+
+    String requestKey = toRequestKey(resource, query);
+    R cached = getCached(requestKey);
+
+    if (cached != null) {
+      return cached;
+    }
+
+    CompletableFuture<R> batched = batch(resource, query);
+
+    if (batched != null) {
+      try {
+        return batched.join();
+      } catch (CompletionException e) {
+        throw toOneApiException(resource, e);
       }
+    }
+
+    try {
+      logger.debug("Fetching {} data from OneApi service.", resource.getName());
 
-      return response.body();
+      return fetch(
+          resource, requestKey, queryList, response -> cache(requestKey, queryList, response));
     } catch (IOException e) {
-      throw new OneApiException("Failed to get movie data.", e);
+      throw new OneApiException("Failed to get " + resource.getName() + " data.", e);
     }
   }
 
   /**
-   * Returns movies based on the filters in the parameters provided.
+   * Returns a page of documents based on the filters in the parameters provided.
    *
-   * <p>This operation is synchronous and will block the calling thread until a response is
-   * received.
+   * <p>This operation is asynchronous and the result is delivered to the callback. If the response
+   * is served from the in-memory cache, the callback is invoked on the calling thread. Identical
+   * requests that are already in flight are coalesced into a single call to the service.
    *
-   * @param movieParams Parameters that specify the types of movies to return.
-   * @return An instance of MovieResponse which contains the movies that meet the filter criteria.
+   * @param resource The resource to fetch, e.g. {@link Resource#QUOTE}.
+   * @param params Parameters that specify the documents to return.
+   * @param callback The callback that receives the result of the operation.
+   */
+  public <T, R extends PaginatedResponse<T>, P extends ResourceParams<?, P>> void get(
+      Resource<T, R, P> resource, P params, Callback<R> callback) {
+    enqueue(resource, params.build(), CallOptions.DEFAULT, true)
+        .whenComplete(
+            (response, error) -> {
+              if (error != null) {
+                callback.onError(unwrap(error));
+              } else if (response.isSuccessful()) {
+                callback.onSuccess(response.code(), response.body());
+              } else {
+                callback.onFailure(response.code());
+              }
+            });
+  }
+
+  /**
+   * Returns a page of documents based on the filters in the parameters provided.
+   *
+   * @param resource The resource to fetch, e.g. {@link Resource#QUOTE}.
+   * @param params Parameters that specify the documents to return.
+   * @return A future that completes with the documents that meet the filter criteria, or
+   *     exceptionally with a OneApiException if the operation failed.
+   * @see #getAsync(Resource, ResourceParams, CallOptions)
+   */
+  public <T, R extends PaginatedResponse<T>, P extends ResourceParams<?, P>>
+      CompletableFuture<R> getAsync(Resource<T, R, P> resource, P params) {
+    return getAsync(resource, params.build(), CallOptions.DEFAULT);
+  }
+
+  /**
+   * Returns a page of documents based on the filters in the parameters provided.
+   *
+   * <p>This operation is asynchronous. Cancelling the returned future cancels the underlying call
+   * and releases its connection, unless the call is shared with other identical in-flight requests,
+   * in which case it is cancelled once every request sharing it has been cancelled. If the call
+   * options specify a timeout, the call is issued on its own and is cancelled by OkHttp once the
+   * timeout elapses.
+   *
+   * @param resource The resource to fetch, e.g. {@link Resource#QUOTE}.
+   * @param params Parameters that specify the documents to return.
+   * @param callOptions Options that apply to this call only.
+   * @return A future that completes with the documents that meet the filter criteria, or
+   *     exceptionally with a OneApiException if the operation failed.
+   */
+  public <T, R extends PaginatedResponse<T>, P extends ResourceParams<?, P>>
+      CompletableFuture<R> getAsync(
+          Resource<T, R, P> resource, P params, CallOptions callOptions) {
+    return getAsync(resource, params.build(), callOptions);
+  }
+
+  /**
+   * Returns a page of documents based on a compiled query.
+   *
+   * <p>Compiling parameters that are used repeatedly once with {@link ResourceParams#build()} saves
+   * building the query and the cache key on every call.
+   *
+   * @param resource The resource to fetch, e.g. {@link Resource#QUOTE}.
+   * @param query The query compiled from the parameters that specify the documents to return.
+   * @param callOptions Options that apply to this call only.
+   * @return A future that completes with the documents that meet the filter criteria, or
+   *     exceptionally with a OneApiException if the operation failed.
+   * @see #getAsync(Resource, ResourceParams, CallOptions)
+   */
+  public <T, R extends PaginatedResponse<T>, P extends ResourceParams<?, P>>
+      CompletableFuture<R> getAsync(
+          Resource<T, R, P> resource, ResourceQuery<P> query, CallOptions callOptions) {
+    return getAsync(resource, query, callOptions, true);
+  }
+
+  private <T, R extends PaginatedResponse<T>> CompletableFuture<R> getAsync(
+      Resource<T, R, ?> resource,
+      ResourceQuery<?> query,
+      CallOptions callOptions,
+      boolean isBatchable) {
+    CompletableFuture<Response<R>> response = enqueue(resource, query, callOptions, isBatchable);
+    CompletableFuture<R> result = new CompletableFuture<>();
+
+    response.whenComplete(
+        (value, error) -> {
+          if (error != null) {
+            result.completeExceptionally(toOneApiException(resource, error));
+          } else if (!value.isSuccessful()) {
+            result.completeExceptionally(toFailure(resource, value));
+          } else {
+            result.complete(value.body());
+          }
+        });
+    result.whenComplete(
+        (value, error) -> {
+          if (result.isCancelled()) {
+            response.cancel(true);
+          }
+        });
+
+    return result;
+  }
+
+  /**
+   * Returns a lazy stream over every document that matches the filters in the parameters provided,
+   * starting at the page set in the parameters.
+   *
+   * <p>Pages are fetched on demand as the stream is consumed. Once the first page has arrived, the
+   * next pages (up to the configured prefetch depth) are fetched in the background while the
+   * current page is consumed, so network latency is hidden without buffering the whole result set.
+   * Closing the stream abandons any pages that are still being prefetched. A failure to fetch a
+   * page is surfaced as a OneApiException when the stream reaches that page.
+   *
+   * @param resource The resource to fetch, e.g. {@link Resource#QUOTE}.
+   * @param params Parameters that specify the documents to return and the page size.
+   * @return A sequential, ordered stream of documents.
+   */
+  public <T, R extends PaginatedResponse<T>, P extends ResourceParams<?, P>> Stream<T> stream(
+      Resource<T, R, P> resource, P params) {
+    PageIterator<T, P> iterator =
+        new PageIterator<>(params, page -> getAsync(resource, page), this.prefetchDepth);
+
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(
+                iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+            false)
+        .onClose(iterator::close);
+  }
+
+  /**
+   * Returns a Reactive Streams publisher of every document that matches the filters in the
+   * parameters provided, starting at the page set in the parameters.
+   *
+   * <p>The publisher is cold and every subscriber walks the result set on its own. Pages are only
+   * requested when the documents already received cannot satisfy the subscriber's demand, and at
+   * most the configured prefetch depth of pages (at least one) is buffered or in flight, so memory
+   * stays bounded however slowly the subscriber consumes. Cancelling the subscription cancels the
+   * calls of outstanding pages. A failure to fetch a page is signalled as a OneApiException.
+   *
+   * <p>On Java 9 and later, {@code org.reactivestreams.FlowAdapters.toFlowPublisher} adapts the
+   * publisher to a {@code java.util.concurrent.Flow.Publisher}.
+   *
+   * @param resource The resource to fetch, e.g. {@link Resource#QUOTE}.
+   * @param params Parameters that specify the documents to return and the page size.
+   * @return A publisher of documents, in page order.
+   */
+  public <T, R extends PaginatedResponse<T>, P extends ResourceParams<?, P>> Publisher<T> publish(
+      Resource<T, R, P> resource, P params) {
+    return new PagePublisher<T, P>(
+        params.build(),
+        query -> getAsync(resource, query, CallOptions.DEFAULT),
+        this.prefetchDepth);
+  }
+
+  /**
+   * Returns every document that matches the filters in the parameters provided, starting at the
+   * page set in the parameters.
+   *
+   * <p>The first page is fetched to learn how many pages exist; the remaining pages are then
+   * fetched concurrently, with at most {@code parallelism} requests in flight, and merged back in
+   * page order. This operation is synchronous and will block the calling thread until every page
+   * has been received.
+   *
+   * @param resource The resource to fetch, e.g. {@link Resource#QUOTE}.
+   * @param params Parameters that specify the documents to return and the page size.
+   * @param parallelism The maximum number of pages to fetch concurrently.
+   * @return Every document that meets the filter criteria, in page order.
+   * @throws OneApiException An error occurred while fetching one of the pages. Refer to the
+   *     exception message for more details as to the cause of the error.
+   */
+  public <T, R extends PaginatedResponse<T>, P extends ResourceParams<?, P>> List<T> getAll(
+      Resource<T, R, P> resource, P params, int parallelism) throws OneApiException {
+    Validate.isTrue(parallelism > 0, "Parallelism must be a positive value.");
+
+    R firstPage = get(resource, params);
+    int lastPage = PageIterator.getPageCount(firstPage);
+    List<CompletableFuture<R>> remainingPages = new ArrayList<>();
+    Semaphore permits = new Semaphore(parallelism);
+    AtomicBoolean failed = new AtomicBoolean();
+
+    try {
+      // Stop issuing requests for further pages as soon as any page fails.
+      for (int page = params.getPage() + 1; page <= lastPage && !failed.get(); page++) {
+        permits.acquire();
+
+        CompletableFuture<R> remainingPage = getAsync(resource, params.copy().withPage(page));
+
+        remainingPage.whenComplete(
+            (response, error) -> {
+              failed.compareAndSet(false, error != null);
+              permits.release();
+            });
+        remainingPages.add(remainingPage);
+      }
+
+      List<T> documents = new ArrayList<>(firstPage.getDocs());
+
+      for (CompletableFuture<R> remainingPage : remainingPages) {
+        documents.addAll(remainingPage.get().getDocs());
+      }
+
+      return documents;
+    } catch (InterruptedException e) {
+      remainingPages.forEach(remainingPage -> remainingPage.cancel(true));
+      Thread.currentThread().interrupt();
+      throw new OneApiException(
+          "Interrupted while fetching " + resource.getName() + " data.", e);
+    } catch (ExecutionException e) {
+      remainingPages.forEach(remainingPage -> remainingPage.cancel(true));
+      throw toOneApiException(resource, e.getCause());
+    }
+  }
+
+  /**
+   * Hands each document that matches the filters in the parameters provided to the visitor as soon
+   * as it has been decoded, without materializing the page.
+   *
+   * <p>The response body is parsed incrementally while it is being received, so memory use stays
+   * constant regardless of the page size and the first document is delivered before the rest of
+   * the page has arrived. Because no complete response is ever built, this operation bypasses the
+   * in-memory cache and is not coalesced with identical in-flight requests. This operation is
+   * synchronous; the visitor is invoked on the calling thread.
+   *
+   * @param resource The resource to fetch, e.g. {@link Resource#QUOTE}.
+   * @param params Parameters that specify the documents to return.
+   * @param visitor The consumer that receives each document in page order.
+   * @return The pagination fields of the response.
    * @throws OneApiException An error occurred during the operation. Refer to the exception message
    *     for more details as to the cause of the error.
    */
-  public void getMovies(MovieParams movieParams, Callback<MovieResponse> callback) {
-    logger.info("Fetching movies from OneApi service.");
-
-    this.oneApi
-        .getMovies(movieParams.toQueryList())
-        .enqueue(
-            new retrofit2.Callback<MovieResponse>() {
-              @Override
-              public void onResponse(Call<MovieResponse> call, Response<MovieResponse> response) {
-                int status = response.code();
-
-                if (response.isSuccessful()) {
-                  callback.onSuccess(status, response.body());
-                } else {
-                  callback.onFailure(status);
+  public <T, R extends PaginatedResponse<T>, P extends ResourceParams<?, P>> Pagination visit(
+      Resource<T, R, P> resource, P params, Consumer<? super T> visitor) throws OneApiException {
+    Validate.notNull(visitor, "Visitor must not be null.");
+
+    if (isLocal(resource)) {
+      R response = cast(awaitMovieIndex().query(params.toQueryList()));
+
+      response.getDocs().forEach(visitor);
+      return toPagination(response);
+    }
+
+    logger.debug("Streaming {} data from OneApi service.", resource.getName());
+
+    try {
+      Response<ResponseBody> response =
+          this.oneApi
+              .get()
+              .getDocumentsStreaming(resource.getPath(), params.toQueryList())
+              .execute();
+
+      if (!response.isSuccessful()) {
+        response.errorBody().close();
+        throw toFailure(resource, response);
+      }
+
+      try (ResponseBody body = response.body()) {
+        return DocumentStreamParser.parse(body.byteStream(), resource.getDocumentType(), visitor);
+      }
+    } catch (IOException e) {
+      throw new OneApiException("Failed to get " + resource.getName() + " data.", e);
+    }
+  }
+
+  /**
+   * Writes every document that matches the filters in the parameters provided to a file, starting
+   * at the page set in the parameters.
+   *
+   * <p>Pages are fetched one after another and their response bodies are copied to the file while
+   * they are being received, so memory use stays constant regardless of the size of the dataset.
+   * After each page has been written, the progress is recorded in a checkpoint file next to the
+   * output file ({@code <file>.progress}). If the export fails part way through, calling this
+   * method again with the same resource, parameters, file and format resumes it from the first
+   * page that has not been written; otherwise an existing file is overwritten. Like {@link #visit},
+   * this operation bypasses the in-memory cache. This operation is synchronous and will block the
+   * calling thread until the last page has been written.
+   *
+   * @param resource The resource to export, e.g. {@link Resource#CHARACTER}.
+   * @param params Parameters that specify the documents to export and the page size. Larger pages
+   *     mean fewer round trips.
+   * @param path The file to write.
+   * @param format The format of the file.
+   * @return The number of pages, records and bytes written, and the throughput of the export.
+   * @throws OneApiException An error occurred while fetching a page or writing the file. Refer to
+   *     the exception message for more details as to the cause of the error.
+   */
+  public <T, R extends PaginatedResponse<T>, P extends ResourceParams<?, P>> ExportStats export(
+      Resource<T, R, P> resource, P params, Path path, ExportFormat format)
+      throws OneApiException {
+    Validate.notNull(path, "Path must not be null.");
+    Validate.notNull(format, "Format must not be null.");
+    logger.info("Exporting {} data from OneApi service to {}.", resource.getName(), path);
+    return DocumentExporter.export(this.oneApi.get(), resource, params, path, format);
+  }
+
+  /**
+   * Downloads the full movie catalog and answers every subsequent movie query locally.
+   *
+   * <p>Once synced, filters, including regular expressions on names, are evaluated against an
+   * in-memory index of the catalog with the same semantics as the OneApi service, so queries no
+   * longer make a network round trip. Numeric filters are resolved with a binary search over sorted
+   * indexes. Calling this method again downloads a fresh copy of the catalog; queries continue to
+   * be answered from the previous copy until the new one has arrived. If offline mode is enabled in
+   * the configuration, the catalog is synced automatically by the first query.
+   *
+   * <p>This operation is synchronous and will block the calling thread until the catalog has been
+   * received.
+   *
+   * @return The number of movies in the catalog.
+   * @throws OneApiException An error occurred while downloading the catalog. Refer to the exception
+   *     message for more details as to the cause of the error.
+   */
+  public int syncMovies() throws OneApiException {
+    try {
+      MovieIndex index = new MovieIndex(downloadMovies(1, new ArrayList<>()).join());
+
+      this.movieIndex.set(CompletableFuture.completedFuture(index));
+      return index.size();
+    } catch (CompletionException e) {
+      throw toOneApiException(Resource.MOVIE, e);
+    }
+  }
+
+  /**
+   * Returns a snapshot of the in-memory response cache counters.
+   *
+   * @return The cache statistics. All counters are zero if caching has not been enabled.
+   */
+  public CacheStats getCacheStats() {
+    return this.responseCache == null ? CacheStats.EMPTY : this.responseCache.stats();
+  }
+
+  /**
+   * Writes the in-memory response cache to the configured snapshot file right away, instead of
+   * waiting for the next periodic write. Calling this method before a planned shutdown lets the
+   * next instance start with the most recent responses.
+   *
+   * @return The number of cached responses written, or zero if no snapshot file is configured.
+   * @throws OneApiException The snapshot could not be written.
+   */
+  public int saveSnapshot() throws OneApiException {
+    return this.responseSnapshot == null ? 0 : this.responseSnapshot.save();
+  }
+
+  /**
+   * Stops the background work of this instance and releases its resources.
+   *
+   * <p>Background cache refreshes, hedge timers and periodic snapshot writes are stopped, calls
+   * that are waiting for a rate limit permit are sent at once, and the response snapshot, if one is
+   * configured, is written one last time so that the responses cached since the last periodic
+   * write are not lost. The threads and connections of the HTTP client are
+   * released unless they are shared with the application. The instance must not be used once it
+   * has been closed.
+   *
+   * @throws OneApiException The final snapshot could not be written.
+   */
+  @Override
+  public void close() throws OneApiException {
+    if (this.responseRefresher != null) {
+      this.responseRefresher.close();
+    }
+
+    if (this.hedger != null) {
+      this.hedger.close();
+    }
+
+    if (this.rateLimiter != null) {
+      this.rateLimiter.close();
+    }
+
+    if (this.movieBatcher != null) {
+      this.movieBatcher.close();
+    }
+
+    try {
+      if (this.responseSnapshot != null) {
+        this.responseSnapshot.close();
+      }
+    } finally {
+      for (AutoCloseable closeable : this.closeables) {
+        try {
+          closeable.close();
+        } catch (Exception e) {
+          logger.warn("Failed to release a OneApi resource.", e);
+        }
+      }
+
+      this.closeables.clear();
+    }
+  }
+
+  /**
+   * Returns the number of requests that were served by sharing an identical in-flight request
+   * instead of calling the service.
+   *
+   * @return The number of coalesced requests.
+   */
+  public long getCoalescedRequestCount() {
+    return this.requests.coalescedCount();
+  }
+
+  /**
+   * Returns a snapshot of the client-side rate limiter, including the number of queued requests
+   * and how long they wait for a permit.
+   *
+   * @return The rate limiter statistics. All values are zero if rate limiting is not configured.
+   */
+  public RateLimiterStats getRateLimiterStats() {
+    return this.rateLimiter == null ? RateLimiterStats.EMPTY : this.rateLimiter.stats();
+  }
+
+  /**
+   * Returns a snapshot of the request hedging counters, including how many hedges were sent and
+   * how many of them won.
+   *
+   * @return The hedging statistics. All values are zero if hedging is not enabled.
+   */
+  public HedgingStats getHedgingStats() {
+    return this.hedger == null ? HedgingStats.EMPTY : this.hedger.stats();
+  }
+
+  private <T, R extends PaginatedResponse<T>> CompletableFuture<Response<R>> enqueue(
+      Resource<T, R, ?> resource,
+      ResourceQuery<?> query,
+      CallOptions callOptions,
+      boolean isBatchable) {
+    List<String> queryList = query.toQueryList();
+
+    if (isLocal(resource)) {
+      CompletableFuture<Response<R>> response = new CompletableFuture<>();
+
+      loadMovieIndex()
+          .whenComplete(
+              (index, error) -> {
+                if (error != null) {
+                  response.completeExceptionally(unwrap(error));
+                  return;
+                }
+
+                try {
+                  response.complete(Response.success(cast(index.query(queryList))));
+                } catch (OneApiException e) {
+                  response.completeExceptionally(e);
                 }
+              });
+      return response;
+    }
+
+    String requestKey = toRequestKey(resource, query);
+    R cached = getCached(requestKey);
+
+    if (cached != null) {
+      return CompletableFuture.completedFuture(Response.success(cached));
+    }
+
+    if (isBatchable && callOptions.getTimeout() == null) {
+      CompletableFuture<R> batched = batch(resource, query);
+
+      if (batched != null) {
+        return batched.thenApply(Response::success);
+      }
+    }
+
+    logger.debug("Fetching {} data from OneApi service.", resource.getName());
+
+    if (callOptions.getTimeout() == null) {
+      return cast(
+          this.requests.enqueue(
+              requestKey,
+              () -> cast(resource.createCall(this.oneApi.get(), queryList)),
+              response -> cache(requestKey, queryList, response)));
+    }
+
+    // Calls with a deadline are issued on their own rather than coalesced (or hedged) so that the
+    // deadline can be enforced by the OkHttp call timeout without affecting any other caller.
+    Call<R> call = resource.createCall(this.oneApi.get(), queryList);
+
+    call.timeout().timeout(callOptions.getTimeout().toNanos(), TimeUnit.NANOSECONDS);
+
+    CompletableFuture<Response<R>> response = CallFutures.enqueue(call);
+
+    response.thenAccept(result -> cache(requestKey, queryList, result));
+    return response;
+  }
+
+  private <T, R extends PaginatedResponse<T>> R fetch(
+      Resource<T, R, ?> resource,
+      String requestKey,
+      List<String> queryList,
+      Consumer<Response<? extends PaginatedResponse<?>>> onResponse)
+      throws IOException {
+    Response<R> response =
+        cast(
+            this.requests.execute(
+                requestKey,
+                () -> cast(resource.createCall(this.oneApi.get(), queryList)),
+                onResponse::accept));
+
+    if (!response.isSuccessful()) {
+      throw toFailure(resource, response);
+    }
+
+    return response.body();
+  }
+
+  private PaginatedResponse<?> refresh(String requestKey, List<String> queryList)
+      throws IOException {
+    Resource<?, ?, ?> resource =
+        Resource.forPath(requestKey.substring(0, requestKey.indexOf('?')));
+
+    return fetch(resource, requestKey, queryList, response -> {});
+  }
+
+  private boolean isLocal(Resource<?, ?, ?> resource) {
+    return resource == Resource.MOVIE && (this.offline || this.movieIndex.get() != null);
+  }
+
+  private MovieIndex awaitMovieIndex() {
+    try {
+      return loadMovieIndex().join();
+    } catch (CompletionException e) {
+      throw toOneApiException(Resource.MOVIE, e);
+    }
+  }
+
+  private CompletableFuture<MovieIndex> loadMovieIndex() {
+    CompletableFuture<MovieIndex> current = this.movieIndex.get();
+
+    if (current != null && !current.isCompletedExceptionally()) {
+      return current;
+    }
+
+    // Only one caller downloads the catalog; a failed download is retried by the next query.
+    CompletableFuture<MovieIndex> loading = new CompletableFuture<>();
+
+    if (!this.movieIndex.compareAndSet(current, loading)) {
+      return loadMovieIndex();
+    }
+
+    logger.info("Syncing the movie catalog from OneApi service.");
+
+    downloadMovies(1, new ArrayList<>())
+        .whenComplete(
+            (movies, error) -> {
+              if (error != null) {
+                loading.completeExceptionally(unwrap(error));
+              } else {
+                loading.complete(new MovieIndex(movies));
               }
+            });
+    return loading;
+  }
+
+  private CompletableFuture<List<MovieResponse.Movie>> downloadMovies(
+      int page, List<MovieResponse.Movie> movies) {
+    List<String> queryList =
+        new MovieParams().withLimit(SYNC_PAGE_LIMIT).withPage(page).toQueryList();
 
-              @Override
-              public void onFailure(Call<MovieResponse> call, Throwable t) {
-                callback.onError(t);
+    return CallFutures.enqueue(Resource.MOVIE.createCall(this.oneApi.get(), queryList))
+        .thenCompose(
+            response -> {
+              if (!response.isSuccessful()) {
+                throw toFailure(Resource.MOVIE, response);
               }
+
+              MovieResponse body = response.body();
+
+              movies.addAll(body.getMovies());
+              return body.getMovies().isEmpty() || page >= PageIterator.getPageCount(body)
+                  ? CompletableFuture.completedFuture(movies)
+                  : downloadMovies(page + 1, movies);
             });
   }
+
+  private CompletableFuture<Map<String, MovieResponse.Movie>> fetchMoviesByIds(
+      Set<String> requestedIds) {
+    Map<String, MovieResponse.Movie> found = new HashMap<>();
+
+    if (!isLocal(Resource.MOVIE)) {
+      findCachedMovies(requestedIds, found);
+    }
+
+    // Sorting the ids makes the same set of ids produce the same requests, and so the same cache
+    // keys, however it was ordered.
+    Set<String> missingIds = new TreeSet<>(requestedIds);
+    List<CompletableFuture<MovieResponse>> chunks = new ArrayList<>();
+
+    missingIds.removeAll(found.keySet());
+
+    for (List<String> chunk : toIdChunks(missingIds)) {
+      ResourceQuery<MovieParams> query =
+          new MovieParams()
+              .withAttributeEquals(MovieAttribute.ID, String.join(",", chunk))
+              .withLimit(chunk.size())
+              .build();
+
+      // A chunk of a single id must not be batched again.
+      chunks.add(getAsync(Resource.MOVIE, query, CallOptions.DEFAULT, false));
+    }
+
+    CompletableFuture<Map<String, MovieResponse.Movie>> movies = new CompletableFuture<>();
+
+    // The lookup fails as soon as any chunk fails, and cancelling or failing the lookup cancels the
+    // calls of the chunks that are still outstanding.
+    movies.whenComplete(
+        (value, error) -> {
+          if (error != null) {
+            chunks.forEach(chunk -> chunk.cancel(true));
+          }
+        });
+
+    for (CompletableFuture<MovieResponse> chunk : chunks) {
+      chunk.whenComplete(
+          (response, error) -> {
+            if (error != null) {
+              movies.completeExceptionally(error);
+            }
+          });
+    }
+
+    CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0]))
+        .thenRun(
+            () -> {
+              try {
+                Map<String, MovieResponse.Movie> ordered = new LinkedHashMap<>();
+
+                for (CompletableFuture<MovieResponse> chunk : chunks) {
+                  chunk.join().getMovies().forEach(movie -> found.put(movie.getId(), movie));
+                }
+
+                for (String id : requestedIds) {
+                  MovieResponse.Movie movie = found.get(id);
+
+                  if (movie != null) {
+                    ordered.put(id, movie);
+                  }
+                }
+
+                movies.complete(ordered);
+              } catch (RuntimeException e) {
+                movies.completeExceptionally(e);
+              }
+            });
+
+    return movies;
+  }
+
+  /**
+   * Routes a lookup of a single movie by id through the micro-batcher, if batching is enabled.
+   *
+   * @param resource The resource to fetch.
+   * @param query The query to fetch.
+   * @return A future that completes with the page holding the movie, or null if the query is not a
+   *     lookup of a single movie by id.
+   */
+  private <R> CompletableFuture<R> batch(Resource<?, ?, ?> resource, ResourceQuery<?> query) {
+    if (this.movieBatcher == null
+        || resource != Resource.MOVIE
+        || query.getFilters().size() != 1
+        || query.getPage() != 1
+        || query.getOffset() != 0
+        || query.getLimit() == 0) {
+      return null;
+    }
+
+    String filter = query.getFilters().get(0);
+    String prefix = MovieAttribute.ID + "=";
+    String id = filter.startsWith(prefix) ? filter.substring(prefix.length()) : "";
+
+    // Lists of ids and regular expressions are not single-id lookups.
+    if (StringUtils.isBlank(id) || id.indexOf(',') >= 0 || id.startsWith("/")) {
+      return null;
+    }
+
+    return cast(
+        this.movieBatcher
+            .load(id)
+            .thenApply(
+                movie -> {
+                  MovieResponse response = new MovieResponse();
+                  int total = movie == null ? 0 : 1;
+
+                  response.setMovies(
+                      movie == null ? Collections.emptyList() : Collections.singletonList(movie));
+                  response.setTotal(total);
+                  response.setLimit(query.getLimit());
+                  response.setOffset(0);
+                  response.setPage(1);
+                  response.setPages(total);
+                  return response;
+                }));
+  }
+
+  private void findCachedMovies(Set<String> ids, Map<String, MovieResponse.Movie> found) {
+    if (this.responseCache == null) {
+      return;
+    }
+
+    for (String id : ids) {
+      MovieResponse.Movie movie = this.responseCache.getDocument(id, MovieResponse.Movie.class);
+
+      if (movie != null) {
+        found.put(id, movie);
+      }
+    }
+  }
+
+  private static Map<String, ?> indexMovies(PaginatedResponse<?> response) {
+    if (!(response instanceof MovieResponse) || response.getDocs() == null) {
+      return Collections.emptyMap();
+    }
+
+    Map<String, MovieResponse.Movie> movies = new HashMap<>();
+
+    for (MovieResponse.Movie movie : ((MovieResponse) response).getMovies()) {
+      if (movie.getId() != null) {
+        movies.put(movie.getId(), movie);
+      }
+    }
+
+    return movies;
+  }
+
+  /**
+   * Splits ids into groups whose comma-separated id filter fits in a single request.
+   *
+   * @param ids The ids to look up.
+   * @return The groups of ids, in the order of the ids provided.
+   */
+  static List<List<String>> toIdChunks(Collection<String> ids) {
+    List<List<String>> chunks = new ArrayList<>();
+    List<String> chunk = new ArrayList<>();
+    int length = 0;
+
+    for (String id : ids) {
+      // Characters other than letters and digits may be percent-encoded, each UTF-8 byte as three,
+      // and so are the commas that separate the ids.
+      int idLength =
+          StringUtils.isAsciiPrintable(id) && StringUtils.isAlphanumeric(id)
+              ? id.length()
+              : 3 * id.getBytes(StandardCharsets.UTF_8).length;
+
+      if (!chunk.isEmpty() && length + ID_SEPARATOR_LENGTH + idLength > ID_FILTER_MAX_LENGTH) {
+        chunks.add(chunk);
+        chunk = new ArrayList<>();
+      }
+
+      length = chunk.isEmpty() ? idLength : length + ID_SEPARATOR_LENGTH + idLength;
+      chunk.add(id);
+    }
+
+    if (!chunk.isEmpty()) {
+      chunks.add(chunk);
+    }
+
+    return chunks;
+  }
+
+  private <R> R getCached(String requestKey) {
+    ResponseCache.Entry<PaginatedResponse<?>> entry =
+        this.responseCache == null ? null : this.responseCache.getEntry(requestKey);
+
+    if (entry == null) {
+      return null;
+    }
+
+    if (this.metricsSink != null) {
+      this.metricsSink.recordCacheHit(
+          MetricsEventListener.toEndpoint(requestKey.substring(0, requestKey.indexOf('?'))));
+    }
+
+    if (!this.responseCache.isFresh(entry)) {
+      // Serve the stale entry immediately and let the refresh scheduler replace it.
+      this.responseRefresher.refresh(entry);
+    }
+
+    return cast(entry.value);
+  }
+
+  private void cache(
+      String requestKey,
+      List<String> queryList,
+      Response<? extends PaginatedResponse<?>> response) {
+    if (this.responseCache != null && response.isSuccessful() && response.body() != null) {
+      this.responseCache.put(requestKey, queryList, response.body());
+    }
+  }
+
+  private static Pagination toPagination(Pagination source) {
+    Pagination pagination = new Pagination();
+
+    pagination.setTotal(source.getTotal());
+    pagination.setLimit(source.getLimit());
+    pagination.setOffset(source.getOffset());
+    pagination.setPage(source.getPage());
+    pagination.setPages(source.getPages());
+    return pagination;
+  }
+
+  private static Throwable unwrap(Throwable error) {
+    return error instanceof CompletionException && error.getCause() != null
+        ? error.getCause()
+        : error;
+  }
+
+  private static OneApiException toOneApiException(Resource<?, ?, ?> resource, Throwable error) {
+    Throwable cause = unwrap(error);
+
+    return cause instanceof OneApiException
+        ? (OneApiException) cause
+        : new OneApiException("Failed to get " + resource.getName() + " data.", cause);
+  }
+
+  private static OneApiException toFailure(Resource<?, ?, ?> resource, Response<?> response) {
+    return new OneApiException(
+        "Failed to get " + resource.getName() + " data: Server returned " + response.code());
+  }
+
+  /**
+   * Casts between the shared pipeline, which holds responses of every resource, and the typed
+   * operations. Responses are keyed by resource path, so the cast always matches the resource.
+   */
+  @SuppressWarnings("unchecked")
+  private static <V> V cast(Object value) {
+    return (V) value;
+  }
+
+  private static String toRequestKey(Resource<?, ?, ?> resource, ResourceQuery<?> query) {
+    return resource.getPath() + "?" + query.getQueryString();
+  }
 }
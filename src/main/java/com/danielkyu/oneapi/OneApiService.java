@@ -1,20 +1,37 @@
 package com.danielkyu.oneapi;
 
+import com.danielkyu.oneapi.responses.BookResponse;
+import com.danielkyu.oneapi.responses.ChapterResponse;
+import com.danielkyu.oneapi.responses.CharacterResponse;
 import com.danielkyu.oneapi.responses.MovieResponse;
+import com.danielkyu.oneapi.responses.QuoteResponse;
 import com.danielkyu.oneapi.utils.NetworkingUtils;
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import okhttp3.ConnectionPool;
+import okhttp3.HttpUrl;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import retrofit2.Call;
 import retrofit2.Retrofit;
 import retrofit2.converter.jackson.JacksonConverterFactory;
 import retrofit2.http.GET;
+import retrofit2.http.Path;
 import retrofit2.http.QueryName;
+import retrofit2.http.Streaming;
 
 /**
  * An abstract representation of the OneApi web service with callable endpoints as interface
@@ -52,6 +69,104 @@ interface OneApiService {
     }
   }
 
+  /**
+   * Custom OkHttp network interceptor that paces requests that go out on the network through a
+   * client-side token bucket. Responses served from the HTTP cache never reach it.
+   */
+  static class PacingInterceptor implements Interceptor {
+    private final RateLimiter rateLimiter;
+
+    /**
+     * Constructs the instance.
+     *
+     * @param rateLimiter The rate limiter that paces outgoing requests.
+     */
+    PacingInterceptor(RateLimiter rateLimiter) {
+      this.rateLimiter = Validate.notNull(rateLimiter);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+      this.rateLimiter.acquire(chain.call());
+      return chain.proceed(chain.request());
+    }
+  }
+
+  /**
+   * Custom OkHttp interceptor that retries requests that the server throttled with 429 (Too Many
+   * Requests), making every request paced by the same rate limiter back off as well.
+   */
+  static class RateLimitingInterceptor implements Interceptor {
+    static final int HTTP_STATUS_TOO_MANY_REQUESTS = 429;
+    static final String HTTP_HEADER_RETRY_AFTER = "Retry-After";
+    static final Duration DEFAULT_RETRY_DELAY = Duration.ofSeconds(1);
+    static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(1);
+
+    private final RateLimiter rateLimiter;
+
+    /**
+     * Constructs the instance.
+     *
+     * @param rateLimiter The rate limiter that paces outgoing requests.
+     */
+    RateLimitingInterceptor(RateLimiter rateLimiter) {
+      this.rateLimiter = Validate.notNull(rateLimiter);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+      for (int attempt = 0; ; attempt++) {
+        Response response = chain.proceed(chain.request());
+
+        if (response.code() != HTTP_STATUS_TOO_MANY_REQUESTS) {
+          return response;
+        }
+
+        // Back off for as long as the server asked (or exponentially if it did not say) and make
+        // every other queued request wait as well, since they would be throttled too.
+        this.rateLimiter.pause(getRetryDelay(response, attempt));
+
+        if (attempt >= this.rateLimiter.maxRetries()) {
+          return response;
+        }
+
+        response.close();
+        this.rateLimiter.retried();
+      }
+    }
+
+    /**
+     * Returns how long to back off for after a 429 response.
+     *
+     * @param response The 429 response.
+     * @param attempt The zero-based number of the attempt that was throttled.
+     * @return The Retry-After delay sent by the server or an exponential backoff delay.
+     */
+    static Duration getRetryDelay(Response response, int attempt) {
+      String retryAfter = response.header(HTTP_HEADER_RETRY_AFTER);
+      Duration delay = null;
+
+      if (StringUtils.isNumeric(retryAfter)) {
+        delay = Duration.ofSeconds(Long.parseLong(retryAfter));
+      } else if (StringUtils.isNotBlank(retryAfter)) {
+        try {
+          delay =
+              Duration.between(
+                  Instant.now(),
+                  ZonedDateTime.parse(retryAfter, DateTimeFormatter.RFC_1123_DATE_TIME));
+        } catch (DateTimeParseException e) {
+          // Fall through to exponential backoff.
+        }
+      }
+
+      if (delay == null) {
+        delay = DEFAULT_RETRY_DELAY.multipliedBy(1L << Math.min(attempt, 6));
+      }
+
+      return delay.isNegative() ? Duration.ZERO : ObjectUtils.min(delay, MAX_RETRY_DELAY);
+    }
+  }
+
   /**
    * Fetches movie data.
    *
@@ -60,6 +175,76 @@ interface OneApiService {
   @GET("movie")
   Call<MovieResponse> getMovies(@QueryName List<String> queryParams);
 
+  /**
+   * Fetches quote data for a single movie.
+   *
+   * @return A Retrofit Call instance that contains the results of the API invocation.
+   */
+  @GET("movie/{id}/quote")
+  Call<QuoteResponse> getMovieQuotes(@Path("id") String id, @QueryName List<String> queryParams);
+
+  /**
+   * Fetches book data.
+   *
+   * @return A Retrofit Call instance that contains the results of the API invocation.
+   */
+  @GET("book")
+  Call<BookResponse> getBooks(@QueryName List<String> queryParams);
+
+  /**
+   * Fetches chapter data for a single book.
+   *
+   * @return A Retrofit Call instance that contains the results of the API invocation.
+   */
+  @GET("book/{id}/chapter")
+  Call<ChapterResponse> getBookChapters(
+      @Path("id") String id, @QueryName List<String> queryParams);
+
+  /**
+   * Fetches chapter data.
+   *
+   * @return A Retrofit Call instance that contains the results of the API invocation.
+   */
+  @GET("chapter")
+  Call<ChapterResponse> getChapters(@QueryName List<String> queryParams);
+
+  /**
+   * Fetches character data.
+   *
+   * @return A Retrofit Call instance that contains the results of the API invocation.
+   */
+  @GET("character")
+  Call<CharacterResponse> getCharacters(@QueryName List<String> queryParams);
+
+  /**
+   * Fetches quote data for a single character.
+   *
+   * @return A Retrofit Call instance that contains the results of the API invocation.
+   */
+  @GET("character/{id}/quote")
+  Call<QuoteResponse> getCharacterQuotes(
+      @Path("id") String id, @QueryName List<String> queryParams);
+
+  /**
+   * Fetches quote data.
+   *
+   * @return A Retrofit Call instance that contains the results of the API invocation.
+   */
+  @GET("quote")
+  Call<QuoteResponse> getQuotes(@QueryName List<String> queryParams);
+
+  /**
+   * Fetches the documents of any resource without buffering or converting the response body, so
+   * that it can be parsed incrementally while it is still being received.
+   *
+   * @param path The path of the resource relative to the base URL, e.g. movie/{id}/quote.
+   * @return A Retrofit Call instance whose body is the raw, unread response stream.
+   */
+  @Streaming
+  @GET("{path}")
+  Call<ResponseBody> getDocumentsStreaming(
+      @Path(value = "path", encoded = true) String path, @QueryName List<String> queryParams);
+
   /**
    * Creates an instance of the OneApiService.
    *
@@ -68,9 +253,19 @@ interface OneApiService {
    * @param config The Config instance produced from parsing the static configuration resource file.
    * @param configOptions The ConfigOptions instance that contains additional configuration options
    *     set at runtime.
+   * @param rateLimiter The client-side rate limiter that paces outgoing requests, or null if
+   *     requests should not be rate limited.
+   * @param hedger The hedger that issues hedged requests, or null if requests are not hedged.
+   * @param closer Receives the resources created for the service, such as threads and connections
+   *     that the SDK owns, which must be closed once the service is no longer used.
    * @return An instance of OneApiService that can be used to interact with the web service.
    */
-  static OneApiService create(Config config, ConfigOptions configOptions) {
+  static OneApiService create(
+      Config config,
+      ConfigOptions configOptions,
+      RateLimiter rateLimiter,
+      Hedger hedger,
+      Consumer<AutoCloseable> closer) {
     // If provided an OkHttpClient instance, use it to spawn a new instance for our use.
     // This allows us to configure the instance for our API calls but shares the same underlying
     // internal networking resources (e.g. connection pool, thread pools, etc.) as the rest of the
@@ -92,6 +287,37 @@ interface OneApiService {
       okHttpClientBuilder = NetworkingUtils.createOkHttpClientBuilder(config);
     }
 
+    Optional<Config.Networking> networking = Optional.ofNullable(config.getNetworking());
+    boolean isOwnClient = configOptions.getOkHttpClient() == null;
+    boolean isOwnDispatcher =
+        isOwnClient
+            || configOptions.getMaxRequests() != null
+            || configOptions.getMaxRequestsPerHost() != null
+            || configOptions.getVirtualThreads() != null;
+
+    if (!isOwnClient && isOwnDispatcher) {
+      // Use a dedicated dispatcher rather than reconfiguring one that may be shared with the rest
+      // of the application.
+
+      okHttpClientBuilder.dispatcher(
+          NetworkingUtils.createDispatcher(
+              Optional.ofNullable(configOptions.getMaxRequests())
+                  .orElseGet(
+                      () ->
+                          networking
+                              .map(Config.Networking::getMaxRequests)
+                              .orElse(NetworkingUtils.DEFAULT_MAX_REQUESTS)),
+              Optional.ofNullable(configOptions.getMaxRequestsPerHost())
+                  .orElseGet(
+                      () ->
+                          networking
+                              .map(Config.Networking::getMaxRequestsPerHost)
+                              .orElse(NetworkingUtils.DEFAULT_MAX_REQUESTS_PER_HOST)),
+              Optional.ofNullable(configOptions.getVirtualThreads())
+                  .orElseGet(
+                      () -> networking.map(Config.Networking::isVirtualThreads).orElse(false))));
+    }
+
     // Obtain the API key from the configOptions (runtime) or, if it doesn't exist, the config
     // object (compile-time resource file) as a fallback. If the API key is not defined in either
     // location, throw an error.
@@ -101,13 +327,120 @@ interface OneApiService {
       throw new OneApiException("No API key was provided.");
     }
 
+    AccessLogInterceptor accessLogInterceptor = AccessLogInterceptor.create(config, configOptions);
+
+    if (accessLogInterceptor != null) {
+      // Added first so that the logged duration includes retries and, for synchronous calls, rate
+      // limiting.
+      okHttpClientBuilder.addInterceptor(accessLogInterceptor);
+      closer.accept(accessLogInterceptor);
+    }
+
     okHttpClientBuilder.addInterceptor(new RequestAuthorizationHeaderInterceptor(apiKey));
 
-    return new Retrofit.Builder()
-        .baseUrl(Optional.ofNullable(configOptions.getBaseUrl()).orElse(BASE_URL_ONE_API_DEV))
-        .client(okHttpClientBuilder.build())
-        .addConverterFactory(JacksonConverterFactory.create())
-        .build()
-        .create(OneApiService.class);
+    if (rateLimiter != null) {
+      // Retries go through the network interceptor again, so each attempt takes a permit.
+      okHttpClientBuilder.addInterceptor(new RateLimitingInterceptor(rateLimiter));
+      okHttpClientBuilder.addNetworkInterceptor(new PacingInterceptor(rateLimiter));
+    }
+
+    MetricsSink metricsSink = configOptions.getMetricsSink();
+
+    if (metricsSink != null) {
+      // Keep the application's listeners, which the builder would otherwise replace.
+      okHttpClientBuilder.eventListenerFactory(
+          new MetricsEventListener.Factory(
+              metricsSink,
+              Optional.ofNullable(configOptions.getOkHttpClient())
+                  .map(OkHttpClient::eventListenerFactory)
+                  .orElse(null)));
+    }
+
+    OkHttpClient okHttpClient = okHttpClientBuilder.build();
+
+    if (isOwnDispatcher) {
+      // Release the threads and connections that the SDK created, but never those shared with the
+      // rest of the application.
+      closer.accept(
+          () -> {
+            okHttpClient.dispatcher().executorService().shutdown();
+
+            if (isOwnClient) {
+              okHttpClient.connectionPool().evictAll();
+
+              if (okHttpClient.cache() != null) {
+                okHttpClient.cache().close();
+              }
+            }
+          });
+    }
+    HttpUrl baseUrl =
+        HttpUrl.get(Optional.ofNullable(configOptions.getBaseUrl()).orElse(BASE_URL_ONE_API_DEV));
+    int prewarmConnections =
+        Optional.ofNullable(configOptions.getPrewarmConnections())
+            .orElseGet(() -> networking.map(Config.Networking::getPrewarmConnections).orElse(0));
+
+    if (prewarmConnections < 0) {
+      throw new OneApiException("Prewarm connections must not be a negative value.");
+    }
+
+    if (prewarmConnections > 0) {
+      // Pay for DNS, TCP and TLS setup now rather than on the first request, and keep the
+      // connections from idling out of the pool. The pool of an application's client does not
+      // reveal its keep-alive, so the configured one is used.
+      closer.accept(
+          ConnectionWarmer.start(
+              okHttpClient,
+              baseUrl,
+              prewarmConnections,
+              networking
+                  .map(Config.Networking::getKeepAliveMillis)
+                  .orElse(NetworkingUtils.DEFAULT_KEEP_ALIVE_DURATION_MS)));
+    }
+
+    okhttp3.Call.Factory callFactory = okHttpClient;
+
+    if (hedger != null) {
+      // Send hedges over a connection pool of their own. With HTTP/2 they would otherwise be
+      // multiplexed onto the connection of the slow request and stall along with it.
+      OkHttpClient hedgeClient =
+          okHttpClient
+              .newBuilder()
+              .connectionPool(
+                  new ConnectionPool(
+                      1,
+                      networking
+                          .map(Config.Networking::getKeepAliveMillis)
+                          .orElse(NetworkingUtils.DEFAULT_KEEP_ALIVE_DURATION_MS),
+                      TimeUnit.MILLISECONDS))
+              .build();
+
+      callFactory =
+          request ->
+              (Hedger.isEnqueueingHedge() ? hedgeClient : okHttpClient).newCall(request);
+      closer.accept(() -> hedgeClient.connectionPool().evictAll());
+    }
+
+    if (rateLimiter != null) {
+      callFactory = new RateLimitedCallFactory(callFactory, rateLimiter);
+    }
+
+    Retrofit.Builder retrofitBuilder =
+        new Retrofit.Builder().baseUrl(baseUrl).callFactory(callFactory);
+
+    if (metricsSink != null) {
+      // Must precede the Jackson converter, which it times.
+      retrofitBuilder.addConverterFactory(new MetricsConverterFactory(metricsSink));
+    }
+
+    retrofitBuilder.addConverterFactory(JacksonConverterFactory.create());
+
+    if (configOptions.getCallbackExecutor() != null) {
+      // Deliver results on the caller's executor so that slow callbacks cannot stall the threads
+      // that perform network I/O.
+      retrofitBuilder.callbackExecutor(configOptions.getCallbackExecutor());
+    }
+
+    return retrofitBuilder.build().create(OneApiService.class);
   }
 }
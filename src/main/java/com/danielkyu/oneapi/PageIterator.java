@@ -0,0 +1,162 @@
+package com.danielkyu.oneapi;
+
+import com.danielkyu.oneapi.params.ResourceParams;
+import com.danielkyu.oneapi.responses.Pagination;
+import com.danielkyu.oneapi.responses.PaginatedResponse;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Lazily iterates over every document that matches the parameters, fetching pages on demand.
+ *
+ * <p>Nothing is fetched until the first element is requested. Once the first page arrives and the
+ * total number of pages is known, up to {@code prefetchDepth} subsequent pages are requested in the
+ * background while the current page is consumed. At most {@code prefetchDepth + 1} pages are held
+ * in memory at any time. With a prefetch depth of zero, each page is only requested once the
+ * previous page has been consumed.
+ *
+ * @param <T> The type of the documents.
+ * @param <P> The type of the parameters used to filter and paginate the documents.
+ */
+final class PageIterator<T, P extends ResourceParams<?, P>> implements Iterator<T>, AutoCloseable {
+  private final P params;
+  private final Function<P, ? extends CompletableFuture<? extends PaginatedResponse<T>>> fetchPage;
+  private final int prefetchDepth;
+  private final Deque<CompletableFuture<? extends PaginatedResponse<T>>> pending =
+      new ArrayDeque<>();
+
+  private Iterator<T> current = Collections.emptyIterator();
+  private int nextPage;
+  private int lastPage = -1;
+  private boolean closed;
+
+  /**
+   * Constructs the instance.
+   *
+   * @param params The parameters of the first page to fetch.
+   * @param fetchPage Fetches a single page asynchronously.
+   * @param prefetchDepth The number of pages to request ahead of the page being consumed.
+   */
+  PageIterator(
+      P params,
+      Function<P, ? extends CompletableFuture<? extends PaginatedResponse<T>>> fetchPage,
+      int prefetchDepth) {
+    this.params = params.copy();
+    this.fetchPage = fetchPage;
+    this.prefetchDepth = prefetchDepth;
+    this.nextPage = params.getPage();
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!this.current.hasNext()) {
+      if (this.closed) {
+        return false;
+      }
+
+      fill(true);
+
+      CompletableFuture<? extends PaginatedResponse<T>> page = this.pending.poll();
+
+      if (page == null) {
+        return false;
+      }
+
+      PaginatedResponse<T> response;
+
+      try {
+        response = await(page);
+      } catch (OneApiException e) {
+        // Abandon the pages prefetched beyond the one that failed.
+        close();
+        throw e;
+      }
+
+      if (response.getDocs() == null || response.getDocs().isEmpty()) {
+        // An empty page means we have walked past the end of the result set.
+        close();
+        return false;
+      }
+
+      if (this.lastPage < 0) {
+        this.lastPage = getPageCount(response);
+      }
+
+      this.current = response.getDocs().iterator();
+    }
+
+    return true;
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    // Top up the prefetch queue now that the page at the head of the queue is being consumed.
+    fill(false);
+    return this.current.next();
+  }
+
+  @Override
+  public void close() {
+    this.closed = true;
+
+    while (!this.pending.isEmpty()) {
+      this.pending.poll().cancel(true);
+    }
+  }
+
+  private void fill(boolean isNeeded) {
+    // Until the first page has arrived we do not know how many pages exist, so only request one.
+    // A page that is needed right away is requested even if prefetching is turned off.
+    int capacity = this.lastPage < 0 ? 1 : this.prefetchDepth;
+
+    if (isNeeded) {
+      capacity = Math.max(1, capacity);
+    }
+
+    while (!this.closed
+        && this.pending.size() < capacity
+        && (this.lastPage < 0 ? this.pending.isEmpty() : this.nextPage <= this.lastPage)) {
+      this.pending.add(
+          this.fetchPage.apply(this.params.copy().withPage(this.nextPage++)));
+    }
+  }
+
+  private static <T> PaginatedResponse<T> await(
+      CompletableFuture<? extends PaginatedResponse<T>> page) {
+    try {
+      return page.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof OneApiException) {
+        throw (OneApiException) e.getCause();
+      }
+
+      throw new OneApiException("Failed to get page data.", e.getCause());
+    }
+  }
+
+  /**
+   * Returns the number of pages in the result set that the response belongs to.
+   *
+   * @param pagination The pagination fields of a page of the result set.
+   * @return The number of pages, derived from the total and limit if the service did not report it.
+   */
+  static int getPageCount(Pagination pagination) {
+    if (pagination.getPages() > 0) {
+      return pagination.getPages();
+    }
+
+    return pagination.getLimit() > 0
+        ? (pagination.getTotal() + pagination.getLimit() - 1) / pagination.getLimit()
+        : pagination.getPage();
+  }
+}
@@ -0,0 +1,231 @@
+package com.danielkyu.oneapi;
+
+import com.danielkyu.oneapi.params.ResourceParams;
+import com.danielkyu.oneapi.params.ResourceQuery;
+import com.danielkyu.oneapi.responses.PaginatedResponse;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Publishes every document that matches a query, fetching pages as subscriber demand requires.
+ *
+ * <p>The publisher is cold: every subscriber walks the result set from the first page of the query
+ * on its own. A page is only requested when the documents that have already been received, or are
+ * on their way, cannot satisfy the outstanding demand, and at most {@code maxPages} pages are held
+ * in memory or in flight at any time, regardless of how much demand has been signalled. Pages are
+ * fetched concurrently but emitted in order. Cancelling the subscription cancels the calls of any
+ * outstanding pages.
+ *
+ * @param <T> The type of the documents.
+ * @param <P> The type of the parameters used to filter and paginate the documents.
+ */
+final class PagePublisher<T, P extends ResourceParams<?, P>> implements Publisher<T> {
+  private final ResourceQuery<P> query;
+  private final Function<ResourceQuery<P>, CompletableFuture<? extends PaginatedResponse<T>>>
+      fetchPage;
+  private final int maxPages;
+
+  /**
+   * Constructs the instance.
+   *
+   * @param query The query of the first page to publish.
+   * @param fetchPage Fetches a single page asynchronously. Cancelling the returned future must
+   *     cancel the call.
+   * @param maxPages The maximum number of pages to hold in memory or in flight.
+   */
+  PagePublisher(
+      ResourceQuery<P> query,
+      Function<ResourceQuery<P>, CompletableFuture<? extends PaginatedResponse<T>>> fetchPage,
+      int maxPages) {
+    this.query = query;
+    this.fetchPage = fetchPage;
+    this.maxPages = Math.max(1, maxPages);
+  }
+
+  @Override
+  public void subscribe(Subscriber<? super T> subscriber) {
+    if (subscriber == null) {
+      throw new NullPointerException("Subscriber must not be null.");
+    }
+
+    PageSubscription subscription = new PageSubscription(subscriber);
+
+    subscriber.onSubscribe(subscription);
+    subscription.drain();
+  }
+
+  /**
+   * The state of a single subscriber. Every signal to the subscriber is emitted from {@link
+   * #drain()}, which runs on one thread at a time, so the fields below are only accessed by it.
+   */
+  private final class PageSubscription implements Subscription {
+    private final Subscriber<? super T> subscriber;
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger drainCount = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile IllegalArgumentException invalidRequest;
+
+    private final Deque<CompletableFuture<? extends PaginatedResponse<T>>> pages =
+        new ArrayDeque<>();
+    private List<T> current = Collections.emptyList();
+    private int index;
+    private int nextPage = PagePublisher.this.query.getPage();
+    private int lastPage = -1;
+    private boolean terminated;
+
+    PageSubscription(Subscriber<? super T> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        this.invalidRequest =
+            new IllegalArgumentException("Requested a non-positive number of documents: " + n);
+      } else {
+        this.requested.getAndUpdate(r -> r + n < 0 ? Long.MAX_VALUE : r + n);
+      }
+
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      this.cancelled = true;
+      drain();
+    }
+
+    void drain() {
+      if (this.drainCount.getAndIncrement() != 0) {
+        // Another thread is draining and will pick up this signal before it stops.
+        return;
+      }
+
+      int missed = 1;
+
+      do {
+        emit();
+        missed = this.drainCount.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private void emit() {
+      while (!this.terminated) {
+        if (this.cancelled || this.invalidRequest != null) {
+          terminate(this.cancelled ? null : this.invalidRequest);
+          return;
+        }
+
+        if (this.index < this.current.size()) {
+          if (this.requested.get() == 0) {
+            return;
+          }
+
+          if (this.requested.get() != Long.MAX_VALUE) {
+            this.requested.decrementAndGet();
+          }
+
+          this.subscriber.onNext(this.current.get(this.index++));
+          continue;
+        }
+
+        fill();
+
+        CompletableFuture<? extends PaginatedResponse<T>> page = this.pages.peek();
+
+        if (page == null) {
+          if (!hasMorePages()) {
+            terminate(null);
+            this.subscriber.onComplete();
+          }
+
+          return;
+        }
+
+        if (!page.isDone()) {
+          // The drain resumes when the page arrives.
+          return;
+        }
+
+        this.pages.poll();
+
+        PaginatedResponse<T> response;
+
+        try {
+          response = page.join();
+        } catch (CompletionException e) {
+          terminate(toOneApiException(e.getCause()));
+          return;
+        }
+
+        if (response.getDocs() == null || response.getDocs().isEmpty()) {
+          // An empty page means we have walked past the end of the result set.
+          this.lastPage = this.nextPage - 1;
+          this.pages.forEach(pending -> pending.cancel(true));
+          this.pages.clear();
+          continue;
+        }
+
+        if (this.lastPage < 0) {
+          this.lastPage = PageIterator.getPageCount(response);
+        }
+
+        this.current = response.getDocs();
+        this.index = 0;
+      }
+    }
+
+    private void fill() {
+      long limit = PagePublisher.this.query.getLimit();
+      long available = (this.current.size() - this.index) + this.pages.size() * limit;
+
+      // Until the first page has arrived we do not know how many pages exist, so only request one.
+      int capacity = this.lastPage < 0 ? 1 : PagePublisher.this.maxPages;
+
+      while (this.pages.size() < capacity
+          && hasMorePages()
+          && this.requested.get() > available) {
+        CompletableFuture<? extends PaginatedResponse<T>> page =
+            PagePublisher.this.fetchPage.apply(
+                PagePublisher.this.query.withPage(this.nextPage++));
+
+        this.pages.add(page);
+        available += limit;
+        page.whenComplete((response, error) -> drain());
+      }
+    }
+
+    private boolean hasMorePages() {
+      return this.lastPage < 0
+          ? this.nextPage == PagePublisher.this.query.getPage()
+          : this.nextPage <= this.lastPage;
+    }
+
+    private void terminate(Throwable error) {
+      this.terminated = true;
+      this.pages.forEach(page -> page.cancel(true));
+      this.pages.clear();
+      this.current = Collections.emptyList();
+
+      if (error != null) {
+        this.subscriber.onError(error);
+      }
+    }
+
+    private OneApiException toOneApiException(Throwable error) {
+      return error instanceof OneApiException
+          ? (OneApiException) error
+          : new OneApiException("Failed to get page data.", error);
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package com.danielkyu.oneapi;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.Timeout;
+
+/**
+ * Creates calls whose asynchronous execution is delayed until the rate limiter grants them a
+ * permit, so that calls waiting for a permit do not hold dispatcher threads.
+ *
+ * <p>Synchronous calls are passed through unchanged; they are paced by {@link
+ * OneApiService.PacingInterceptor} on the calling thread.
+ */
+final class RateLimitedCallFactory implements Call.Factory {
+  private final Call.Factory callFactory;
+  private final RateLimiter rateLimiter;
+
+  /**
+   * Constructs the instance.
+   *
+   * @param callFactory Creates the calls to pace, usually an OkHttpClient.
+   * @param rateLimiter The rate limiter that paces the calls.
+   */
+  RateLimitedCallFactory(Call.Factory callFactory, RateLimiter rateLimiter) {
+    this.callFactory = callFactory;
+    this.rateLimiter = rateLimiter;
+  }
+
+  @Override
+  public Call newCall(Request request) {
+    return new RateLimitedCall(this.callFactory.newCall(request));
+  }
+
+  /** A call that is only enqueued once the rate limiter has a permit for it. */
+  private final class RateLimitedCall implements Call {
+    private final Call call;
+    private final AtomicBoolean executed = new AtomicBoolean();
+
+    RateLimitedCall(Call call) {
+      this.call = call;
+    }
+
+    @Override
+    public Request request() {
+      return this.call.request();
+    }
+
+    @Override
+    public Response execute() throws IOException {
+      this.executed.set(true);
+      return this.call.execute();
+    }
+
+    @Override
+    public void enqueue(Callback callback) {
+      if (!this.executed.compareAndSet(false, true)) {
+        throw new IllegalStateException("Already Executed");
+      }
+
+      rateLimiter.acquireAsync(this.call, () -> dispatch(callback));
+    }
+
+    @Override
+    public void cancel() {
+      this.call.cancel();
+    }
+
+    @Override
+    public boolean isExecuted() {
+      return this.executed.get();
+    }
+
+    @Override
+    public boolean isCanceled() {
+      return this.call.isCanceled();
+    }
+
+    @Override
+    public Timeout timeout() {
+      return this.call.timeout();
+    }
+
+    @Override
+    public Call clone() {
+      return new RateLimitedCall(this.call.clone());
+    }
+
+    private void dispatch(Callback callback) {
+      if (this.call.isCanceled()) {
+        rateLimiter.release(this.call);
+        callback.onFailure(this, new IOException("Canceled"));
+        return;
+      }
+
+      this.call.enqueue(
+          new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) throws IOException {
+              // A response that did not come from the network leaves the permit unused.
+              rateLimiter.release(call);
+              callback.onResponse(RateLimitedCall.this, response);
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+              rateLimiter.release(call);
+              callback.onFailure(RateLimitedCall.this, e);
+            }
+          });
+    }
+  }
+}
@@ -0,0 +1,337 @@
+package com.danielkyu.oneapi;
+
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import okhttp3.Call;
+
+/**
+ * A client-side token bucket that paces requests to the OneApi service.
+ *
+ * <p>The bucket holds up to {@code burst} permits and refills at the configured rate. Callers that
+ * find the bucket empty are not rejected; each reserves the next available permit and waits until
+ * it becomes valid, so requests are released in arrival order at the sustained rate. When the
+ * server responds with 429, the bucket is drained and paused until the server's Retry-After time so
+ * that every queued caller backs off, not just the one that was throttled.
+ *
+ * <p>Permits are taken when a request is about to go out on the network, so responses served from
+ * the HTTP cache are free. Synchronous calls wait on the calling thread. Asynchronous calls reserve
+ * their permit up front and are only handed to the dispatcher once it becomes valid, so waiting
+ * never holds a dispatcher thread; if such a call is answered without using the network, its permit
+ * is returned to the bucket.
+ */
+final class RateLimiter {
+  static final int DEFAULT_BURST = 1;
+  static final int DEFAULT_MAX_RETRIES = 3;
+
+  // How often a synchronous caller that is waiting for a permit checks whether it was cancelled.
+  private static final long CANCEL_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+  private final Ticker ticker;
+  private final double intervalNanos;
+  private final int burst;
+  private final int maxRetries;
+  private final AtomicInteger queueDepth = new AtomicInteger();
+  private final LongAdder delayedCount = new LongAdder();
+  private final LongAdder totalWaitNanos = new LongAdder();
+  private final LongAdder throttledCount = new LongAdder();
+  private final LongAdder retryCount = new LongAdder();
+  private final Set<Call> prepaidCalls = ConcurrentHashMap.newKeySet();
+  private final Set<WaitingCall> waitingCalls = ConcurrentHashMap.newKeySet();
+  private final ScheduledExecutorService scheduler;
+
+  // Guarded by this.
+  private double storedPermits;
+  private long nextFreeNanos;
+  private long resumeAtNanos;
+
+  /**
+   * Constructs the instance.
+   *
+   * @param requests The number of requests allowed per period.
+   * @param period The period over which the requests are allowed.
+   * @param burst The maximum number of requests that may be issued back-to-back after an idle spell.
+   * @param maxRetries The maximum number of times a request is retried after a 429 response.
+   * @param ticker The time source used to refill the bucket.
+   */
+  RateLimiter(int requests, Duration period, int burst, int maxRetries, Ticker ticker) {
+    this.ticker = ticker;
+    this.intervalNanos = (double) period.toNanos() / requests;
+    this.burst = burst;
+    this.maxRetries = maxRetries;
+    this.storedPermits = burst;
+    this.nextFreeNanos = ticker.read();
+    this.resumeAtNanos = this.nextFreeNanos;
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("one-api-rate-limiter-%d")
+                .build());
+  }
+
+  /**
+   * Blocks until the call may go out on the network, unless it already holds a permit that was
+   * reserved by {@link #acquireAsync}.
+   *
+   * @param call The call that is about to use the network.
+   * @throws InterruptedIOException The calling thread was interrupted while waiting.
+   * @throws IOException The call was cancelled while waiting.
+   */
+  void acquire(Call call) throws IOException {
+    if (this.prepaidCalls.remove(call)) {
+      return;
+    }
+
+    long waitNanos = reserve();
+
+    if (waitNanos <= 0) {
+      return;
+    }
+
+    recordDelay(waitNanos);
+
+    long deadline = System.nanoTime() + waitNanos;
+
+    try {
+      // Sleep in slices so that cancelling the call releases the thread promptly.
+      for (long remaining = waitNanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+        if (call.isCanceled()) {
+          refund();
+          throw new IOException("Canceled");
+        }
+
+        TimeUnit.NANOSECONDS.sleep(Math.min(remaining, CANCEL_POLL_NANOS));
+      }
+    } catch (InterruptedException e) {
+      refund();
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for a rate limit permit.");
+    } finally {
+      this.queueDepth.decrementAndGet();
+    }
+  }
+
+  /**
+   * Reserves a permit for the call and runs the task once the permit is valid, without blocking.
+   * The permit is consumed when the call reaches the network; until then it can be returned with
+   * {@link #release}.
+   *
+   * @param call The call to reserve a permit for.
+   * @param task Hands the call to the dispatcher.
+   */
+  void acquireAsync(Call call, Runnable task) {
+    this.prepaidCalls.add(call);
+
+    long waitNanos = reserve();
+
+    if (waitNanos <= 0) {
+      task.run();
+      return;
+    }
+
+    recordDelay(waitNanos);
+
+    WaitingCall waitingCall = new WaitingCall(task);
+
+    this.waitingCalls.add(waitingCall);
+
+    try {
+      this.scheduler.schedule(waitingCall, waitNanos, TimeUnit.NANOSECONDS);
+    } catch (RejectedExecutionException e) {
+      // The rate limiter has been closed; let the call through.
+      waitingCall.run();
+    }
+  }
+
+  /**
+   * Returns the permit reserved for the call if the call finished without using the network, e.g.
+   * because it was served from the HTTP cache or cancelled.
+   *
+   * @param call The finished call.
+   */
+  void release(Call call) {
+    if (this.prepaidCalls.remove(call)) {
+      refund();
+    }
+  }
+
+  /** Stops pacing asynchronous calls. Calls that are still waiting for a permit go out at once. */
+  void close() {
+    // The tasks returned by shutdownNow() cancel themselves when run, so release the waiting calls
+    // from our own set instead.
+    this.scheduler.shutdownNow();
+    this.waitingCalls.forEach(WaitingCall::run);
+  }
+
+  /**
+   * Reserves the next available permit.
+   *
+   * @return How long the caller must wait before the permit becomes valid, in nanoseconds.
+   */
+  synchronized long reserve() {
+    long now = this.ticker.read();
+
+    resync(now);
+
+    // Take a stored permit if there is one; otherwise go into debt for the next one to be minted.
+    double fromStored = Math.min(1, this.storedPermits);
+
+    this.storedPermits -= fromStored;
+    this.nextFreeNanos += (long) ((1 - fromStored) * this.intervalNanos);
+    return Math.max(0, this.nextFreeNanos - now);
+  }
+
+  /** Returns a reserved permit that was not used, unless the server asked us to back off. */
+  synchronized void refund() {
+    long now = this.ticker.read();
+
+    if (now < this.resumeAtNanos) {
+      return;
+    }
+
+    this.nextFreeNanos -= (long) this.intervalNanos;
+    resync(now);
+  }
+
+  /**
+   * Drains the bucket and withholds further permits until the given delay has elapsed.
+   *
+   * @param delay How long the server asked us to back off for.
+   */
+  synchronized void pause(Duration delay) {
+    long now = this.ticker.read();
+
+    long resumeAtNanos = now + delay.toNanos();
+
+    resync(now);
+    this.throttledCount.increment();
+
+    if (resumeAtNanos > this.nextFreeNanos) {
+      // Allow a single request through once the server's back-off period has elapsed and pace the
+      // rest at the sustained rate from there.
+      this.storedPermits = 1;
+      this.nextFreeNanos = resumeAtNanos;
+      this.resumeAtNanos = resumeAtNanos;
+    } else {
+      this.storedPermits = 0;
+    }
+  }
+
+  /** Records that a throttled request is being retried. */
+  void retried() {
+    this.retryCount.increment();
+  }
+
+  /**
+   * Returns the maximum number of times a request is retried after a 429 response.
+   *
+   * @return The maximum number of retries.
+   */
+  int maxRetries() {
+    return this.maxRetries;
+  }
+
+  /**
+   * Returns a snapshot of the rate limiter.
+   *
+   * @return The current rate limiter statistics.
+   */
+  RateLimiterStats stats() {
+    long currentWaitNanos;
+
+    synchronized (this) {
+      currentWaitNanos = Math.max(0, this.nextFreeNanos - this.ticker.read());
+    }
+
+    return new RateLimiterStats(
+        this.queueDepth.get(),
+        TimeUnit.NANOSECONDS.toMillis(currentWaitNanos),
+        this.delayedCount.sum(),
+        TimeUnit.NANOSECONDS.toMillis(this.totalWaitNanos.sum()),
+        this.throttledCount.sum(),
+        this.retryCount.sum());
+  }
+
+  /** An asynchronous call that is waiting for its permit. It is handed over at most once. */
+  private final class WaitingCall implements Runnable {
+    private final Runnable task;
+
+    WaitingCall(Runnable task) {
+      this.task = task;
+    }
+
+    @Override
+    public void run() {
+      if (RateLimiter.this.waitingCalls.remove(this)) {
+        RateLimiter.this.queueDepth.decrementAndGet();
+        this.task.run();
+      }
+    }
+  }
+
+  private void recordDelay(long waitNanos) {
+    this.delayedCount.increment();
+    this.totalWaitNanos.add(waitNanos);
+    this.queueDepth.incrementAndGet();
+  }
+
+  private void resync(long now) {
+    if (now > this.nextFreeNanos) {
+      this.storedPermits =
+          Math.min(this.burst, this.storedPermits + (now - this.nextFreeNanos) / this.intervalNanos);
+      this.nextFreeNanos = now;
+    }
+  }
+
+  /**
+   * Creates a rate limiter from the static and runtime configuration.
+   *
+   * @param config The Config instance produced from parsing the static configuration resource file.
+   * @param configOptions The ConfigOptions instance that contains additional configuration options
+   *     set at runtime.
+   * @return A new RateLimiter instance or null if rate limiting has not been configured.
+   */
+  static RateLimiter create(Config config, ConfigOptions configOptions) {
+    Optional<Config.RateLimit> rateLimit = Optional.ofNullable(config.getRateLimit());
+    Integer requests =
+        Optional.ofNullable(configOptions.getRateLimitRequests())
+            .orElseGet(() -> rateLimit.map(Config.RateLimit::getRequests).orElse(null));
+
+    if (requests == null) {
+      return null;
+    }
+
+    Duration period =
+        Optional.ofNullable(configOptions.getRateLimitPeriod())
+            .orElseGet(
+                () ->
+                    Duration.ofSeconds(
+                        rateLimit.map(Config.RateLimit::getPeriodSeconds).orElse(1L)));
+    int burst =
+        Optional.ofNullable(configOptions.getRateLimitBurst())
+            .orElseGet(() -> rateLimit.map(Config.RateLimit::getBurst).orElse(DEFAULT_BURST));
+    int maxRetries = rateLimit.map(Config.RateLimit::getMaxRetries).orElse(DEFAULT_MAX_RETRIES);
+
+    if (requests <= 0 || period.isNegative() || period.isZero() || burst <= 0) {
+      throw new OneApiException("Rate limit requests, period and burst must be positive values.");
+    }
+
+    if (maxRetries < 0) {
+      throw new OneApiException("Rate limit retries must not be a negative value.");
+    }
+
+    return new RateLimiter(requests, period, burst, maxRetries, Ticker.systemTicker());
+  }
+}
@@ -0,0 +1,28 @@
+package com.danielkyu.oneapi;
+
+import lombok.Value;
+
+/** A point-in-time snapshot of the client-side rate limiter. */
+@Value
+public class RateLimiterStats {
+  /** Snapshot returned when rate limiting is disabled. */
+  static final RateLimiterStats EMPTY = new RateLimiterStats(0, 0, 0, 0, 0, 0);
+
+  /** The number of requests currently queued waiting for a permit. */
+  int queueDepth;
+
+  /** How long a request issued now would wait for a permit, in milliseconds. */
+  long currentWaitMillis;
+
+  /** The number of requests that had to wait for a permit. */
+  long delayedCount;
+
+  /** The total time requests spent waiting for a permit, in milliseconds. */
+  long totalWaitMillis;
+
+  /** The number of 429 (Too Many Requests) responses received from the server. */
+  long throttledCount;
+
+  /** The number of requests that were retried after a 429 response. */
+  long retryCount;
+}
@@ -0,0 +1,180 @@
+package com.danielkyu.oneapi;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Refreshes entries of a {@link ResponseCache} in the background.
+ *
+ * <p>Stale entries are refreshed on demand when they are served (stale-while-revalidate). If
+ * refresh-ahead is enabled, a periodic sweep also refreshes hot entries shortly before they expire
+ * so that callers never observe an expired entry. At most one refresh per entry is in flight at any
+ * time and the number of concurrent refreshes is bounded by the size of the refresh thread pool.
+ * All threads are daemon threads and will not prevent the VM from exiting.
+ */
+final class RefreshScheduler<V> {
+  static final int DEFAULT_REFRESH_CONCURRENCY = 2;
+  static final int DEFAULT_HOT_KEY_MIN_HITS = 2;
+
+  /** The fraction of the TTL after which hot entries are refreshed ahead of expiry. */
+  static final double REFRESH_AHEAD_FACTOR = 0.8;
+
+  private static final Logger logger = LogManager.getLogger();
+  private static final long MIN_SWEEP_INTERVAL_MS = 100;
+
+  /** Fetches a fresh response for a cached query. */
+  @FunctionalInterface
+  interface Loader<V> {
+    V load(String key, List<String> queryList) throws Exception;
+  }
+
+  private final ResponseCache<V> cache;
+  private final Loader<V> loader;
+  private final int hotKeyMinHits;
+  private final ExecutorService refreshExecutor;
+  private final ScheduledExecutorService sweepExecutor;
+
+  /**
+   * Constructs the instance.
+   *
+   * @param cache The cache whose entries should be refreshed.
+   * @param loader The loader used to fetch replacement responses.
+   * @param refreshConcurrency The maximum number of refreshes that may run concurrently.
+   * @param refreshAhead Whether hot entries should be refreshed before they expire.
+   * @param hotKeyMinHits The number of hits within a TTL window after which an entry is hot.
+   */
+  RefreshScheduler(
+      ResponseCache<V> cache,
+      Loader<V> loader,
+      int refreshConcurrency,
+      boolean refreshAhead,
+      int hotKeyMinHits) {
+    this.cache = cache;
+    this.loader = loader;
+    this.hotKeyMinHits = hotKeyMinHits;
+    this.refreshExecutor =
+        Executors.newFixedThreadPool(
+            refreshConcurrency,
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("one-api-refresh-%d")
+                .build());
+
+    if (refreshAhead) {
+      long sweepIntervalMs =
+          Math.max(MIN_SWEEP_INTERVAL_MS, TimeUnit.NANOSECONDS.toMillis(cache.ttlNanos() / 10));
+
+      this.sweepExecutor =
+          Executors.newSingleThreadScheduledExecutor(
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("one-api-refresh-sweep-%d")
+                  .build());
+      this.sweepExecutor.scheduleWithFixedDelay(
+          this::sweep, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+    } else {
+      this.sweepExecutor = null;
+    }
+  }
+
+  /**
+   * Schedules a background refresh of the entry unless one is already in flight.
+   *
+   * @param entry The cached entry that should be refreshed.
+   */
+  void refresh(ResponseCache.Entry<V> entry) {
+    if (entry.queryList == null || !entry.refreshing.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      this.refreshExecutor.execute(
+          () -> {
+            try {
+              this.cache.refreshed(entry, this.loader.load(entry.key, entry.queryList));
+            } catch (Exception e) {
+              // Keep serving the existing entry; the next stale hit will try again.
+              logger.warn("Failed to refresh cached response: {}", entry.key, e);
+            } finally {
+              entry.refreshing.set(false);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      entry.refreshing.set(false);
+    }
+  }
+
+  /** Refreshes hot entries that are about to expire. */
+  void sweep() {
+    long refreshAfterNanos = (long) (this.cache.ttlNanos() * REFRESH_AHEAD_FACTOR);
+
+    for (ResponseCache.Entry<V> entry : this.cache.entries()) {
+      if (entry.hits.get() >= this.hotKeyMinHits && this.cache.age(entry) >= refreshAfterNanos) {
+        refresh(entry);
+      }
+    }
+  }
+
+  /** Stops the background refreshes. Refreshes that are in flight are interrupted. */
+  void close() {
+    this.refreshExecutor.shutdownNow();
+
+    if (this.sweepExecutor != null) {
+      this.sweepExecutor.shutdownNow();
+    }
+  }
+
+  /**
+   * Creates a refresh scheduler from the static and runtime configuration.
+   *
+   * @param config The Config instance produced from parsing the static configuration resource file.
+   * @param configOptions The ConfigOptions instance that contains additional configuration options
+   *     set at runtime.
+   * @param cache The cache whose entries should be refreshed, or null if caching is disabled.
+   * @param loader The loader used to fetch replacement responses.
+   * @return A new RefreshScheduler instance or null if neither stale-while-revalidate nor
+   *     refresh-ahead has been enabled.
+   */
+  static <V> RefreshScheduler<V> create(
+      Config config, ConfigOptions configOptions, ResponseCache<V> cache, Loader<V> loader) {
+    if (cache == null) {
+      return null;
+    }
+
+    Optional<Config.Caching> caching = Optional.ofNullable(config.getCaching());
+    boolean refreshAhead =
+        Optional.ofNullable(configOptions.getCacheRefreshAhead())
+            .orElseGet(() -> caching.map(Config.Caching::isRefreshAhead).orElse(false));
+
+    if (!cache.isStaleWhileRevalidate() && !refreshAhead) {
+      return null;
+    }
+
+    int refreshConcurrency =
+        Optional.ofNullable(configOptions.getCacheRefreshConcurrency())
+            .orElseGet(
+                () ->
+                    caching
+                        .map(Config.Caching::getRefreshConcurrency)
+                        .orElse(DEFAULT_REFRESH_CONCURRENCY));
+
+    if (refreshConcurrency <= 0) {
+      throw new OneApiException("Cache refresh concurrency must be a positive value.");
+    }
+
+    return new RefreshScheduler<>(
+        cache,
+        loader,
+        refreshConcurrency,
+        refreshAhead,
+        caching.map(Config.Caching::getHotKeyMinHits).orElse(DEFAULT_HOT_KEY_MIN_HITS));
+  }
+}
@@ -0,0 +1,289 @@
+package com.danielkyu.oneapi;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Coalesces identical in-flight requests so that they share a single upstream call.
+ *
+ * <p>The first caller for a key (the leader) issues the call. Every caller that asks for the same
+ * key before the leader's call completes waits on, and receives, the leader's response instead of
+ * issuing its own. Synchronous and asynchronous callers may be mixed freely.
+ *
+ * <p>Each asynchronous caller receives its own future. Cancelling it detaches only that caller; the
+ * shared call, along with any hedge sent for it, is cancelled once every caller waiting on it has
+ * cancelled.
+ *
+ * <p>When a callback executor is configured, the shared response is always handed to the waiting
+ * callers on it, so that the callbacks of asynchronous callers never run on the thread of a
+ * synchronous leader.
+ */
+final class RequestCoalescer<T> {
+  /** A shared call along with the callers waiting on it. */
+  private static final class InFlight<T> {
+    final CompletableFuture<Response<T>> response = new CompletableFuture<>();
+
+    // Guarded by this. The future of the upstream call, which cancels every copy of it, including
+    // hedges.
+    CompletableFuture<Response<T>> upstream;
+    int waiters;
+    boolean cancelled;
+  }
+
+  private final ConcurrentMap<String, InFlight<T>> inFlight = new ConcurrentHashMap<>();
+  private final LongAdder coalescedCount = new LongAdder();
+  private final Hedger hedger;
+  private final Executor callbackExecutor;
+
+  /** Constructs an instance that issues calls without hedging. */
+  RequestCoalescer() {
+    this(null, null);
+  }
+
+  /**
+   * Constructs the instance.
+   *
+   * @param hedger The hedger used to issue shared calls, or null if calls should not be hedged.
+   * @param callbackExecutor The executor on which waiting callers receive the response of a
+   *     synchronous leader, or null to hand it over on the leader's thread. Enqueued calls must
+   *     already complete on this executor.
+   */
+  RequestCoalescer(Hedger hedger, Executor callbackExecutor) {
+    this.hedger = hedger;
+    this.callbackExecutor = callbackExecutor;
+  }
+
+  /**
+   * Executes the call synchronously unless an identical call is already in flight.
+   *
+   * @param key The key that identifies the request.
+   * @param callFactory Creates the call to issue if this caller becomes the leader.
+   * @param onResponse Invoked once with the leader's response before it is handed to any caller.
+   * @return The response of the shared call.
+   * @throws IOException The shared call failed.
+   */
+  Response<T> execute(String key, Supplier<Call<T>> callFactory, Consumer<Response<T>> onResponse)
+      throws IOException {
+    while (true) {
+      InFlight<T> created = new InFlight<>();
+      InFlight<T> existing = this.inFlight.putIfAbsent(key, created);
+
+      if (existing == null) {
+        // Synchronous leaders cannot be cancelled, so register them as a permanent waiter.
+        join(created);
+        return executeAsLeader(key, created, callFactory.get(), onResponse);
+      } else if (join(existing)) {
+        this.coalescedCount.increment();
+        return await(existing.response);
+      }
+
+      this.inFlight.remove(key, existing);
+    }
+  }
+
+  /**
+   * Enqueues the call unless an identical call is already in flight.
+   *
+   * @param key The key that identifies the request.
+   * @param callFactory Creates the call to issue if this caller becomes the leader.
+   * @param onResponse Invoked once with the leader's response before it is handed to any caller.
+   * @return A future that completes with the response of the shared call. Cancelling the future
+   *     detaches this caller from the shared call.
+   */
+  CompletableFuture<Response<T>> enqueue(
+      String key, Supplier<Call<T>> callFactory, Consumer<Response<T>> onResponse) {
+    while (true) {
+      InFlight<T> created = new InFlight<>();
+      InFlight<T> existing = this.inFlight.putIfAbsent(key, created);
+
+      if (existing == null) {
+        join(created);
+
+        CompletableFuture<Response<T>> waiter = createWaiter(key, created);
+
+        enqueueAsLeader(key, created, callFactory, onResponse);
+        return waiter;
+      } else if (join(existing)) {
+        this.coalescedCount.increment();
+        return createWaiter(key, existing);
+      }
+
+      // The existing call was cancelled by all of its waiters; replace it.
+      this.inFlight.remove(key, existing);
+    }
+  }
+
+  /**
+   * Returns the number of requests that were served by another caller's in-flight call.
+   *
+   * @return The number of coalesced requests.
+   */
+  long coalescedCount() {
+    return this.coalescedCount.sum();
+  }
+
+  private Response<T> executeAsLeader(
+      String key, InFlight<T> created, Call<T> call, Consumer<Response<T>> onResponse)
+      throws IOException {
+    try {
+      Response<T> response =
+          this.hedger == null ? call.execute() : await(this.hedger.enqueue(call));
+
+      onResponse.accept(response);
+      handOff(created, response, null);
+      return response;
+    } catch (IOException | RuntimeException e) {
+      handOff(created, null, e);
+      throw e;
+    } finally {
+      this.inFlight.remove(key, created);
+    }
+  }
+
+  private void enqueueAsLeader(
+      String key,
+      InFlight<T> created,
+      Supplier<Call<T>> callFactory,
+      Consumer<Response<T>> onResponse) {
+    CompletableFuture<Response<T>> response;
+
+    try {
+      Call<T> call = callFactory.get();
+
+      response = this.hedger == null ? CallFutures.enqueue(call) : this.hedger.enqueue(call);
+    } catch (RuntimeException e) {
+      this.inFlight.remove(key, created);
+      complete(created, null, e);
+      return;
+    }
+
+    boolean isCancelled;
+
+    synchronized (created) {
+      created.upstream = response;
+      isCancelled = created.cancelled;
+    }
+
+    if (isCancelled) {
+      response.cancel(true);
+    }
+
+    response.whenComplete(
+        (result, error) -> {
+          try {
+            if (error == null) {
+              onResponse.accept(result);
+            }
+          } finally {
+            this.inFlight.remove(key, created);
+            complete(created, result, error);
+          }
+        });
+  }
+
+  /**
+   * Completes the shared response on the callback executor. Only synchronous leaders need this:
+   * enqueued calls already deliver their response on the callback executor.
+   */
+  private void handOff(InFlight<T> inFlight, Response<T> response, Throwable error) {
+    if (this.callbackExecutor == null) {
+      complete(inFlight, response, error);
+      return;
+    }
+
+    try {
+      this.callbackExecutor.execute(() -> complete(inFlight, response, error));
+    } catch (RejectedExecutionException e) {
+      // The executor has been shut down; the waiters must still be released.
+      complete(inFlight, response, error);
+    }
+  }
+
+  private static <T> void complete(InFlight<T> inFlight, Response<T> response, Throwable error) {
+    if (error == null) {
+      inFlight.response.complete(response);
+    } else {
+      inFlight.response.completeExceptionally(error);
+    }
+  }
+
+  private static <T> boolean join(InFlight<T> inFlight) {
+    synchronized (inFlight) {
+      if (inFlight.cancelled) {
+        return false;
+      }
+
+      inFlight.waiters++;
+      return true;
+    }
+  }
+
+  private CompletableFuture<Response<T>> createWaiter(String key, InFlight<T> inFlight) {
+    CompletableFuture<Response<T>> waiter = new CompletableFuture<>();
+
+    inFlight.response.whenComplete(
+        (response, error) -> {
+          if (error == null) {
+            waiter.complete(response);
+          } else {
+            waiter.completeExceptionally(error);
+          }
+        });
+    waiter.whenComplete(
+        (response, error) -> {
+          if (waiter.isCancelled()) {
+            leave(key, inFlight);
+          }
+        });
+
+    return waiter;
+  }
+
+  private void leave(String key, InFlight<T> inFlight) {
+    CompletableFuture<Response<T>> upstream;
+
+    synchronized (inFlight) {
+      if (--inFlight.waiters > 0 || inFlight.response.isDone()) {
+        return;
+      }
+
+      inFlight.cancelled = true;
+      upstream = inFlight.upstream;
+    }
+
+    this.inFlight.remove(key, inFlight);
+
+    if (upstream != null) {
+      upstream.cancel(true);
+    }
+  }
+
+  private static <T> Response<T> await(CompletableFuture<Response<T>> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for an in-flight request.", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+
+      throw new IOException(cause);
+    }
+  }
+}
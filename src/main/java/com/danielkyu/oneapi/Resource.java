@@ -0,0 +1,221 @@
+package com.danielkyu.oneapi;
+
+import com.danielkyu.oneapi.params.BookParams;
+import com.danielkyu.oneapi.params.ChapterParams;
+import com.danielkyu.oneapi.params.CharacterParams;
+import com.danielkyu.oneapi.params.MovieParams;
+import com.danielkyu.oneapi.params.QuoteParams;
+import com.danielkyu.oneapi.params.ResourceParams;
+import com.danielkyu.oneapi.responses.BookResponse;
+import com.danielkyu.oneapi.responses.ChapterResponse;
+import com.danielkyu.oneapi.responses.CharacterResponse;
+import com.danielkyu.oneapi.responses.MovieResponse;
+import com.danielkyu.oneapi.responses.PaginatedResponse;
+import com.danielkyu.oneapi.responses.QuoteResponse;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiFunction;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.apache.commons.lang3.Validate;
+import retrofit2.Call;
+
+/**
+ * A paginated OneApi endpoint, such as the list of books or the quotes of a single movie.
+ *
+ * <p>Every resource is fetched through the same pipeline (caching, request coalescing, hedging,
+ * parallel page fetches and incremental decoding), so the generic operations on {@link OneApi}
+ * accept any resource along with the matching parameters type.
+ *
+ * @param <T> The type of the documents returned by the resource.
+ * @param <R> The type of a page of documents.
+ * @param <P> The type of the parameters used to filter and paginate the documents.
+ */
+public final class Resource<T, R extends PaginatedResponse<T>, P extends ResourceParams<?, P>> {
+  /** Every movie. */
+  public static final Resource<MovieResponse.Movie, MovieResponse, MovieParams> MOVIE =
+      new Resource<>(
+          "movie",
+          "movie",
+          MovieResponse.Movie.class,
+          MovieResponse.class,
+          OneApiService::getMovies);
+
+  /** Every book. */
+  public static final Resource<BookResponse.Book, BookResponse, BookParams> BOOK =
+      new Resource<>(
+          "book", "book", BookResponse.Book.class, BookResponse.class, OneApiService::getBooks);
+
+  /** Every chapter of every book. */
+  public static final Resource<ChapterResponse.Chapter, ChapterResponse, ChapterParams> CHAPTER =
+      new Resource<>(
+          "chapter",
+          "chapter",
+          ChapterResponse.Chapter.class,
+          ChapterResponse.class,
+          OneApiService::getChapters);
+
+  /** Every character. */
+  public static final Resource<CharacterResponse.Character, CharacterResponse, CharacterParams>
+      CHARACTER =
+          new Resource<>(
+              "character",
+              "character",
+              CharacterResponse.Character.class,
+              CharacterResponse.class,
+              OneApiService::getCharacters);
+
+  /** Every quote from every movie. */
+  public static final Resource<QuoteResponse.Quote, QuoteResponse, QuoteParams> QUOTE =
+      new Resource<>(
+          "quote",
+          "quote",
+          QuoteResponse.Quote.class,
+          QuoteResponse.class,
+          OneApiService::getQuotes);
+
+  private static final List<Resource<?, ?, ?>> TOP_LEVEL_RESOURCES =
+      Arrays.asList(MOVIE, BOOK, CHAPTER, CHARACTER, QUOTE);
+
+  /** The name of the documents, used in error messages. */
+  @Getter(AccessLevel.PACKAGE)
+  private final String name;
+
+  /** The path of the endpoint relative to the base URL, e.g. movie/{id}/quote. */
+  @Getter private final String path;
+
+  @Getter(AccessLevel.PACKAGE)
+  private final Class<T> documentType;
+
+  @Getter(AccessLevel.PACKAGE)
+  private final Class<R> responseType;
+
+  private final BiFunction<OneApiService, List<String>, Call<R>> callFactory;
+
+  private Resource(
+      String name,
+      String path,
+      Class<T> documentType,
+      Class<R> responseType,
+      BiFunction<OneApiService, List<String>, Call<R>> callFactory) {
+    this.name = name;
+    this.path = path;
+    this.documentType = documentType;
+    this.responseType = responseType;
+    this.callFactory = callFactory;
+  }
+
+  /**
+   * Returns the chapters of a book.
+   *
+   * @param bookId The id of the book.
+   * @return The resource that lists the chapters of the book.
+   */
+  public static Resource<ChapterResponse.Chapter, ChapterResponse, ChapterParams> bookChapters(
+      String bookId) {
+    return new Resource<>(
+        CHAPTER.name,
+        toNestedPath(BOOK, bookId, CHAPTER),
+        CHAPTER.documentType,
+        CHAPTER.responseType,
+        (service, queryList) -> service.getBookChapters(bookId, queryList));
+  }
+
+  /**
+   * Returns the quotes from a movie.
+   *
+   * @param movieId The id of the movie.
+   * @return The resource that lists the quotes from the movie.
+   */
+  public static Resource<QuoteResponse.Quote, QuoteResponse, QuoteParams> movieQuotes(
+      String movieId) {
+    return new Resource<>(
+        QUOTE.name,
+        toNestedPath(MOVIE, movieId, QUOTE),
+        QUOTE.documentType,
+        QUOTE.responseType,
+        (service, queryList) -> service.getMovieQuotes(movieId, queryList));
+  }
+
+  /**
+   * Returns the quotes spoken by a character.
+   *
+   * @param characterId The id of the character.
+   * @return The resource that lists the quotes spoken by the character.
+   */
+  public static Resource<QuoteResponse.Quote, QuoteResponse, QuoteParams> characterQuotes(
+      String characterId) {
+    return new Resource<>(
+        QUOTE.name,
+        toNestedPath(CHARACTER, characterId, QUOTE),
+        QUOTE.documentType,
+        QUOTE.responseType,
+        (service, queryList) -> service.getCharacterQuotes(characterId, queryList));
+  }
+
+  /**
+   * Returns the resource served at a path.
+   *
+   * @param path A path returned by {@link #getPath()}.
+   * @return The resource, or null if no resource is served at the path.
+   */
+  static Resource<?, ?, ?> forPath(String path) {
+    String[] segments = path.split("/", -1);
+
+    if (segments.length == 1) {
+      for (Resource<?, ?, ?> resource : TOP_LEVEL_RESOURCES) {
+        if (resource.path.equals(path)) {
+          return resource;
+        }
+      }
+    } else if (segments.length == 3) {
+      String id = decode(segments[1]);
+
+      switch (segments[0] + "/" + segments[2]) {
+        case "book/chapter":
+          return bookChapters(id);
+        case "movie/quote":
+          return movieQuotes(id);
+        case "character/quote":
+          return characterQuotes(id);
+        default:
+          break;
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Creates the call that fetches a page of the resource.
+   *
+   * @param service The service that issues the call.
+   * @param queryList The query list, as produced by the resource parameters.
+   * @return A new Retrofit Call instance.
+   */
+  Call<R> createCall(OneApiService service, List<String> queryList) {
+    return this.callFactory.apply(service, queryList);
+  }
+
+  private static String toNestedPath(
+      Resource<?, ?, ?> parent, String id, Resource<?, ?, ?> child) {
+    Validate.notBlank(id, "Id must not be blank.");
+
+    try {
+      return parent.path + "/" + URLEncoder.encode(id, "UTF-8") + "/" + child.path;
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String decode(String segment) {
+    try {
+      return URLDecoder.decode(segment, "UTF-8");
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
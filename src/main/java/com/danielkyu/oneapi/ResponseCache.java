@@ -0,0 +1,378 @@
+package com.danielkyu.oneapi;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A bounded, in-memory cache of parsed service responses keyed on the request query.
+ *
+ * <p>Entries are evicted in least-recently-used order once the maximum number of entries is
+ * reached. An entry is fresh until it is older than the configured TTL. If a staleness bound is
+ * configured, expired entries are retained for that much longer so they can be served while a
+ * replacement is fetched in the background (see {@link RefreshScheduler}). Cached values are shared
+ * between callers and should be treated as read-only.
+ *
+ * <p>If a document indexer is configured, the documents of every cached response are also indexed
+ * by id as responses are cached and evicted, so that single documents can be looked up without
+ * scanning the cache. When several cached responses contain the same document, the index refers to
+ * the most recently cached one; once that response is evicted, the document is no longer found even
+ * if another cached response still contains it.
+ */
+final class ResponseCache<V> {
+  static final long DEFAULT_MAX_ENTRIES = 1000;
+  static final long DEFAULT_TTL_SECONDS = 300;
+
+  /** A cached response along with the bookkeeping required to refresh it. */
+  static final class Entry<V> {
+    final String key;
+    final List<String> queryList;
+    final V value;
+    final long fetchedAtNanos;
+    final AtomicInteger hits = new AtomicInteger();
+    final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private Entry(String key, List<String> queryList, V value, long fetchedAtNanos) {
+      this.key = key;
+      this.queryList = queryList;
+      this.value = value;
+      this.fetchedAtNanos = fetchedAtNanos;
+    }
+  }
+
+  /** A document of a cached response. */
+  private static final class IndexedDocument<V> {
+    final Entry<V> entry;
+    final Object document;
+
+    IndexedDocument(Entry<V> entry, Object document) {
+      this.entry = entry;
+      this.document = document;
+    }
+  }
+
+  private final Cache<String, Entry<V>> cache;
+  private final Function<? super V, Map<String, ?>> documentIndexer;
+  private final ConcurrentMap<String, IndexedDocument<V>> documents = new ConcurrentHashMap<>();
+  private final Ticker ticker;
+  private final long ttlNanos;
+  private final long maxStaleNanos;
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder staleHitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder refreshCount = new LongAdder();
+
+  /**
+   * Constructs the instance.
+   *
+   * @param maxEntries The maximum number of responses to hold in memory.
+   * @param ttl How long a response may be served from the cache after it was fetched.
+   */
+  ResponseCache(long maxEntries, Duration ttl) {
+    this(maxEntries, ttl, Duration.ZERO, Ticker.systemTicker(), null);
+  }
+
+  /**
+   * Constructs the instance.
+   *
+   * @param maxEntries The maximum number of responses to hold in memory.
+   * @param ttl How long a response may be served from the cache after it was fetched.
+   * @param maxStale How long past its TTL a response may still be served while it is refreshed.
+   * @param ticker The time source used to age entries.
+   */
+  ResponseCache(long maxEntries, Duration ttl, Duration maxStale, Ticker ticker) {
+    this(maxEntries, ttl, maxStale, ticker, null);
+  }
+
+  /**
+   * Constructs the instance.
+   *
+   * @param maxEntries The maximum number of responses to hold in memory.
+   * @param ttl How long a response may be served from the cache after it was fetched.
+   * @param maxStale How long past its TTL a response may still be served while it is refreshed.
+   * @param ticker The time source used to age entries.
+   * @param documentIndexer Returns the documents of a response keyed by id, or null if documents
+   *     should not be indexed.
+   */
+  ResponseCache(
+      long maxEntries,
+      Duration ttl,
+      Duration maxStale,
+      Ticker ticker,
+      Function<? super V, Map<String, ?>> documentIndexer) {
+    this.ticker = ticker;
+    this.ttlNanos = ttl.toNanos();
+    this.maxStaleNanos = maxStale.toNanos();
+    this.documentIndexer = documentIndexer;
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(this.ttlNanos + this.maxStaleNanos, TimeUnit.NANOSECONDS)
+            .ticker(ticker)
+            .recordStats()
+            .removalListener(
+                (RemovalListener<String, Entry<V>>)
+                    notification -> unindex(notification.getValue()))
+            .build();
+  }
+
+  /**
+   * Returns the fresh cached response for the query key.
+   *
+   * @param key The key that identifies the query.
+   * @return The cached response or null if there is no fresh entry for the key.
+   */
+  V get(String key) {
+    Entry<V> entry = getEntry(key);
+
+    return entry != null && isFresh(entry) ? entry.value : null;
+  }
+
+  /**
+   * Returns the cached entry for the query key, including entries that are past their TTL but
+   * still within the staleness bound.
+   *
+   * @param key The key that identifies the query.
+   * @return The cached entry or null if there is no usable entry for the key.
+   */
+  Entry<V> getEntry(String key) {
+    Entry<V> entry = this.cache.getIfPresent(key);
+    long ageNanos = entry == null ? Long.MAX_VALUE : this.ticker.read() - entry.fetchedAtNanos;
+
+    if (ageNanos < this.ttlNanos) {
+      this.hitCount.increment();
+    } else if (ageNanos < this.ttlNanos + this.maxStaleNanos) {
+      this.hitCount.increment();
+      this.staleHitCount.increment();
+    } else {
+      this.missCount.increment();
+      return null;
+    }
+
+    entry.hits.incrementAndGet();
+    return entry;
+  }
+
+  /**
+   * Caches the response for the query key, replacing any existing entry.
+   *
+   * @param key The key that identifies the query.
+   * @param value The response to cache.
+   */
+  void put(String key, V value) {
+    put(key, null, value);
+  }
+
+  /**
+   * Caches the response for the query key, replacing any existing entry.
+   *
+   * @param key The key that identifies the query.
+   * @param queryList The query that produced the response, used to refresh the entry.
+   * @param value The response to cache.
+   */
+  void put(String key, List<String> queryList, V value) {
+    Entry<V> entry = new Entry<>(key, queryList, value, this.ticker.read());
+
+    this.cache.put(key, entry);
+    index(entry);
+  }
+
+  /**
+   * Caches a response that was fetched earlier, e.g. by a previous process, replacing any existing
+   * entry.
+   *
+   * @param key The key that identifies the query.
+   * @param queryList The query that produced the response, used to refresh the entry.
+   * @param value The response to cache.
+   * @param ageNanos How long ago the response was fetched.
+   * @return The new entry.
+   */
+  Entry<V> restore(String key, List<String> queryList, V value, long ageNanos) {
+    Entry<V> entry = new Entry<>(key, queryList, value, this.ticker.read() - ageNanos);
+
+    this.cache.put(key, entry);
+    index(entry);
+    return entry;
+  }
+
+  /**
+   * Replaces an entry with a response fetched by a background refresh.
+   *
+   * @param entry The entry that was refreshed.
+   * @param value The newly fetched response.
+   */
+  void refreshed(Entry<V> entry, V value) {
+    this.refreshCount.increment();
+    put(entry.key, entry.queryList, value);
+  }
+
+  /**
+   * Returns a document of a fresh cached response.
+   *
+   * @param id The id of the document.
+   * @param type The type of the document.
+   * @return The document or null if it is not part of a fresh cached response.
+   */
+  <D> D getDocument(String id, Class<D> type) {
+    IndexedDocument<V> indexed = this.documents.get(id);
+
+    return indexed != null && type.isInstance(indexed.document) && isFresh(indexed.entry)
+        ? type.cast(indexed.document)
+        : null;
+  }
+
+  /**
+   * Returns whether the entry is still within its TTL.
+   *
+   * @param entry The cached entry.
+   * @return True if the entry is fresh, false if it is stale.
+   */
+  boolean isFresh(Entry<V> entry) {
+    return age(entry) < this.ttlNanos;
+  }
+
+  /**
+   * Returns how long ago the entry was fetched.
+   *
+   * @param entry The cached entry.
+   * @return The age of the entry in nanoseconds.
+   */
+  long age(Entry<V> entry) {
+    return this.ticker.read() - entry.fetchedAtNanos;
+  }
+
+  /**
+   * Returns the configured TTL.
+   *
+   * @return The TTL in nanoseconds.
+   */
+  long ttlNanos() {
+    return this.ttlNanos;
+  }
+
+  /**
+   * Returns whether expired entries may be served while they are refreshed.
+   *
+   * @return True if a staleness bound has been configured.
+   */
+  boolean isStaleWhileRevalidate() {
+    return this.maxStaleNanos > 0;
+  }
+
+  /**
+   * Returns a live view of the cached entries.
+   *
+   * @return The cached entries.
+   */
+  Collection<Entry<V>> entries() {
+    return this.cache.asMap().values();
+  }
+
+  /**
+   * Returns a snapshot of the cache counters.
+   *
+   * @return The current cache statistics.
+   */
+  CacheStats stats() {
+    return new CacheStats(
+        this.hitCount.sum(),
+        this.missCount.sum(),
+        this.cache.stats().evictionCount(),
+        this.cache.size(),
+        this.staleHitCount.sum(),
+        this.refreshCount.sum());
+  }
+
+  private void index(Entry<V> entry) {
+    if (this.documentIndexer != null) {
+      this.documentIndexer
+          .apply(entry.value)
+          .forEach(
+              (id, document) -> this.documents.put(id, new IndexedDocument<>(entry, document)));
+    }
+  }
+
+  private void unindex(Entry<V> entry) {
+    if (this.documentIndexer != null && entry != null) {
+      // Only drop the documents that still refer to the removed entry.
+      for (String id : this.documentIndexer.apply(entry.value).keySet()) {
+        this.documents.computeIfPresent(
+            id, (ignored, indexed) -> indexed.entry == entry ? null : indexed);
+      }
+    }
+  }
+
+  /**
+   * Creates a response cache from the static and runtime configuration.
+   *
+   * @param config The Config instance produced from parsing the static configuration resource file.
+   * @param configOptions The ConfigOptions instance that contains additional configuration options
+   *     set at runtime.
+   * @return A new ResponseCache instance or null if caching has not been enabled.
+   */
+  static <V> ResponseCache<V> create(Config config, ConfigOptions configOptions) {
+    return create(config, configOptions, null);
+  }
+
+  /**
+   * Creates a response cache from the static and runtime configuration.
+   *
+   * @param config The Config instance produced from parsing the static configuration resource file.
+   * @param configOptions The ConfigOptions instance that contains additional configuration options
+   *     set at runtime.
+   * @param documentIndexer Returns the documents of a response keyed by id, or null if documents
+   *     should not be indexed.
+   * @return A new ResponseCache instance or null if caching has not been enabled.
+   */
+  static <V> ResponseCache<V> create(
+      Config config,
+      ConfigOptions configOptions,
+      Function<? super V, Map<String, ?>> documentIndexer) {
+    Optional<Config.Caching> caching = Optional.ofNullable(config.getCaching());
+    boolean isEnabled =
+        Optional.ofNullable(configOptions.getCacheEnabled())
+            .orElseGet(() -> caching.map(Config.Caching::isEnabled).orElse(false));
+
+    if (!isEnabled) {
+      return null;
+    }
+
+    long maxEntries =
+        Optional.ofNullable(configOptions.getCacheMaxEntries())
+            .orElseGet(
+                () -> caching.map(Config.Caching::getMaxEntries).orElse(DEFAULT_MAX_ENTRIES));
+    Duration ttl =
+        Optional.ofNullable(configOptions.getCacheTtl())
+            .orElseGet(
+                () ->
+                    Duration.ofSeconds(
+                        caching.map(Config.Caching::getTtlSeconds).orElse(DEFAULT_TTL_SECONDS)));
+    Duration maxStale =
+        Optional.ofNullable(configOptions.getCacheMaxStale())
+            .orElseGet(
+                () -> Duration.ofSeconds(caching.map(Config.Caching::getStaleSeconds).orElse(0L)));
+
+    if (maxEntries <= 0 || ttl.isNegative() || ttl.isZero()) {
+      throw new OneApiException("Cache size and TTL must be positive values.");
+    }
+
+    if (maxStale.isNegative()) {
+      throw new OneApiException("Cache staleness bound must not be a negative value.");
+    }
+
+    return new ResponseCache<>(maxEntries, ttl, maxStale, Ticker.systemTicker(), documentIndexer);
+  }
+}
@@ -0,0 +1,358 @@
+package com.danielkyu.oneapi;
+
+import com.danielkyu.oneapi.responses.PaginatedResponse;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Persists the contents of a {@link ResponseCache} to a binary snapshot file so that a new process
+ * can serve cached responses before it has made a single network call.
+ *
+ * <p>The snapshot is written periodically in the background and loaded once at startup through a
+ * memory-mapped buffer. The file starts with a magic number and a format version and ends with a
+ * CRC-32 checksum of everything before it; a snapshot that is truncated, corrupt or written by an
+ * incompatible version is ignored. Each entry records when its response was fetched, so restored
+ * entries keep their age. Entries that have outlived their TTL are restored as stale and refreshed
+ * in the background if stale-while-revalidate is enabled, and dropped otherwise. Files are replaced
+ * atomically, so a reader never observes a partially written snapshot.
+ */
+final class ResponseSnapshot {
+  static final long DEFAULT_INTERVAL_SECONDS = 300;
+
+  /** The magic number at the start of every snapshot file: "OAPS". */
+  static final int MAGIC = 0x4F415053;
+
+  /** The version of the snapshot format, bumped whenever the layout changes. */
+  static final int VERSION = 1;
+
+  private static final Logger logger = LogManager.getLogger();
+  private static final ObjectMapper OBJECT_MAPPER =
+      new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+  private static final int HEADER_SIZE = Integer.BYTES * 3 + Long.BYTES;
+  private static final int CHECKSUM_SIZE = Long.BYTES;
+
+  private final Path path;
+  private final ResponseCache<PaginatedResponse<?>> cache;
+  private final RefreshScheduler<PaginatedResponse<?>> refresher;
+  private final ScheduledExecutorService saveExecutor;
+
+  /**
+   * Constructs the instance.
+   *
+   * @param path The snapshot file.
+   * @param cache The cache whose entries are persisted.
+   * @param refresher The scheduler used to refresh stale entries after they have been restored, or
+   *     null if stale-while-revalidate is not enabled.
+   * @param interval How often the snapshot is written, or null to only write it on demand.
+   */
+  ResponseSnapshot(
+      Path path,
+      ResponseCache<PaginatedResponse<?>> cache,
+      RefreshScheduler<PaginatedResponse<?>> refresher,
+      Duration interval) {
+    this.path = path;
+    this.cache = cache;
+    this.refresher = refresher;
+
+    if (interval != null) {
+      this.saveExecutor =
+          Executors.newSingleThreadScheduledExecutor(
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("one-api-snapshot-%d")
+                  .build());
+      this.saveExecutor.scheduleWithFixedDelay(
+          this::saveQuietly, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    } else {
+      this.saveExecutor = null;
+    }
+  }
+
+  /**
+   * Restores the cache entries recorded in the snapshot file.
+   *
+   * @return The number of entries restored. Zero if there is no snapshot or it cannot be used.
+   */
+  int load() {
+    long startNanos = System.nanoTime();
+
+    try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      List<ResponseCache.Entry<PaginatedResponse<?>>> stale = new ArrayList<>();
+      int count = restore(buffer, stale);
+
+      // Refresh only once every entry has been restored, so that callers are served immediately.
+      stale.forEach(entry -> this.refresher.refresh(entry));
+      logger.info(
+          "Restored {} cached responses from snapshot {} in {} ms ({} stale).",
+          count,
+          this.path,
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+          stale.size());
+      return count;
+    } catch (NoSuchFileException e) {
+      logger.info("No response snapshot found at {}.", this.path);
+      return 0;
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Ignoring unusable response snapshot: {}", this.path, e);
+      return 0;
+    }
+  }
+
+  /**
+   * Writes every usable cache entry to the snapshot file, replacing the previous snapshot. Saves
+   * are serialized, so periodic and on-demand writes never share the temporary file.
+   *
+   * @return The number of entries written.
+   * @throws OneApiException The snapshot could not be written.
+   */
+  synchronized int save() throws OneApiException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    int count = 0;
+
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      List<ResponseCache.Entry<PaginatedResponse<?>>> entries = new ArrayList<>();
+      long nowMillis = System.currentTimeMillis();
+
+      for (ResponseCache.Entry<PaginatedResponse<?>> entry : this.cache.entries()) {
+        // Entries without a query list cannot be refreshed, and so are not worth restoring.
+        if (entry.queryList != null) {
+          entries.add(entry);
+        }
+      }
+
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(nowMillis);
+      out.writeInt(entries.size());
+
+      for (ResponseCache.Entry<PaginatedResponse<?>> entry : entries) {
+        byte[] body = OBJECT_MAPPER.writeValueAsBytes(entry.value);
+
+        writeString(out, entry.key);
+        out.writeInt(entry.queryList.size());
+
+        for (String query : entry.queryList) {
+          writeString(out, query);
+        }
+
+        out.writeLong(nowMillis - TimeUnit.NANOSECONDS.toMillis(this.cache.age(entry)));
+        out.writeInt(body.length);
+        out.write(body);
+        count++;
+      }
+
+      CRC32 checksum = new CRC32();
+
+      out.flush();
+      checksum.update(bytes.toByteArray());
+      out.writeLong(checksum.getValue());
+    } catch (IOException e) {
+      throw new OneApiException("Failed to serialize response snapshot.", e);
+    }
+
+    Path tempPath = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+
+    try {
+      Files.write(tempPath, bytes.toByteArray());
+      Files.move(
+          tempPath, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new OneApiException("Failed to write response snapshot: " + this.path, e);
+    }
+
+    logger.info("Saved {} cached responses to snapshot {}.", count, this.path);
+    return count;
+  }
+
+  /**
+   * Stops the periodic writes and writes the snapshot one last time, so that the responses cached
+   * since the last periodic write are not lost.
+   *
+   * @return The number of entries written.
+   * @throws OneApiException The snapshot could not be written.
+   */
+  int close() throws OneApiException {
+    if (this.saveExecutor != null) {
+      this.saveExecutor.shutdown();
+    }
+
+    return save();
+  }
+
+  private void saveQuietly() {
+    try {
+      save();
+    } catch (OneApiException e) {
+      // Keep the previous snapshot; the next scheduled save will try again.
+      logger.warn("Failed to save response snapshot.", e);
+    }
+  }
+
+  private int restore(ByteBuffer buffer, List<ResponseCache.Entry<PaginatedResponse<?>>> stale)
+      throws IOException {
+    if (buffer.remaining() < HEADER_SIZE + CHECKSUM_SIZE) {
+      throw new IOException("Snapshot is truncated.");
+    }
+
+    ByteBuffer content = buffer.duplicate();
+    CRC32 checksum = new CRC32();
+
+    content.limit(buffer.limit() - CHECKSUM_SIZE);
+    checksum.update(content);
+
+    if (checksum.getValue() != buffer.getLong(buffer.limit() - CHECKSUM_SIZE)) {
+      throw new IOException("Snapshot checksum does not match.");
+    }
+
+    if (buffer.getInt() != MAGIC) {
+      throw new IOException("Not a response snapshot.");
+    }
+
+    int version = buffer.getInt();
+
+    if (version != VERSION) {
+      throw new IOException("Unsupported snapshot version: " + version);
+    }
+
+    buffer.getLong(); // When the snapshot was written, kept for diagnostics.
+
+    int entryCount = buffer.getInt();
+    long nowMillis = System.currentTimeMillis();
+    int restored = 0;
+
+    for (int i = 0; i < entryCount; i++) {
+      String key = readString(buffer);
+      int queryCount = buffer.getInt();
+      List<String> queryList = new ArrayList<>(queryCount);
+
+      for (int j = 0; j < queryCount; j++) {
+        queryList.add(readString(buffer));
+      }
+
+      long ageNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, nowMillis - buffer.getLong()));
+      ByteBuffer body = slice(buffer, buffer.getInt());
+      Resource<?, ?, ?> resource = Resource.forPath(key.substring(0, key.indexOf('?')));
+      boolean isFresh = ageNanos < this.cache.ttlNanos();
+
+      if (resource == null || (!isFresh && this.refresher == null)) {
+        continue;
+      }
+
+      PaginatedResponse<?> value;
+
+      try (InputStream in = new ByteBufferBackedInputStream(body)) {
+        value = OBJECT_MAPPER.readValue(in, resource.getResponseType());
+      }
+
+      // A stale entry is restored at the end of its TTL so that it is served, but only until the
+      // background refresh has replaced it.
+      ResponseCache.Entry<PaginatedResponse<?>> entry =
+          this.cache.restore(key, queryList, value, isFresh ? ageNanos : this.cache.ttlNanos());
+
+      if (!isFresh) {
+        stale.add(entry);
+      }
+
+      restored++;
+    }
+
+    return restored;
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    ByteBuffer bytes = slice(buffer, buffer.getInt());
+
+    return StandardCharsets.UTF_8.decode(bytes).toString();
+  }
+
+  private static ByteBuffer slice(ByteBuffer buffer, int length) {
+    ByteBuffer slice = buffer.duplicate();
+
+    slice.limit(slice.position() + length);
+    buffer.position(buffer.position() + length);
+    return slice;
+  }
+
+  /**
+   * Creates a response snapshot from the static and runtime configuration and restores the cache
+   * from the previous snapshot, if any.
+   *
+   * @param config The Config instance produced from parsing the static configuration resource file.
+   * @param configOptions The ConfigOptions instance that contains additional configuration options
+   *     set at runtime.
+   * @param cache The cache whose entries are persisted, or null if caching is disabled.
+   * @param refresher The scheduler used to refresh stale entries, or null if there is none.
+   * @return A new ResponseSnapshot instance or null if no snapshot path has been configured.
+   */
+  static ResponseSnapshot create(
+      Config config,
+      ConfigOptions configOptions,
+      ResponseCache<PaginatedResponse<?>> cache,
+      RefreshScheduler<PaginatedResponse<?>> refresher) {
+    Optional<Config.Snapshot> snapshot = Optional.ofNullable(config.getSnapshot());
+    Path path =
+        Optional.ofNullable(configOptions.getSnapshotPath())
+            .orElseGet(() -> snapshot.map(Config.Snapshot::getPath).map(Paths::get).orElse(null));
+
+    if (path == null) {
+      return null;
+    }
+
+    if (cache == null) {
+      throw new OneApiException("Response snapshots require caching to be enabled.");
+    }
+
+    Duration interval =
+        Optional.ofNullable(configOptions.getSnapshotInterval())
+            .orElseGet(
+                () ->
+                    Duration.ofSeconds(
+                        snapshot
+                            .map(Config.Snapshot::getIntervalSeconds)
+                            .orElse(DEFAULT_INTERVAL_SECONDS)));
+
+    if (interval.isNegative()) {
+      throw new OneApiException("Snapshot interval must not be a negative value.");
+    }
+
+    ResponseSnapshot responseSnapshot =
+        new ResponseSnapshot(path, cache, refresher, interval.isZero() ? null : interval);
+
+    responseSnapshot.load();
+    return responseSnapshot;
+  }
+}
@@ -0,0 +1,38 @@
+package com.danielkyu.oneapi.params;
+
+/** Parameters for filtering books. */
+public class BookParams extends ResourceParams<BookParams.BookAttribute, BookParams> {
+  /** The attributes that are associated with the book. */
+  public enum BookAttribute {
+    ID("_id"),
+    NAME("name");
+
+    private final String queryParam;
+
+    private BookAttribute(String queryParam) {
+      this.queryParam = queryParam;
+    }
+
+    @Override
+    public String toString() {
+      return this.queryParam;
+    }
+  }
+
+  /** Creates an instance with no filtering criteria and the default pagination settings. */
+  public BookParams() {}
+
+  /**
+   * Creates a copy of another instance.
+   *
+   * @param other The instance whose filtering criteria and pagination settings are copied.
+   */
+  public BookParams(BookParams other) {
+    super(other);
+  }
+
+  @Override
+  public BookParams copy() {
+    return new BookParams(this);
+  }
+}
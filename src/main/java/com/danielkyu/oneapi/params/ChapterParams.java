@@ -0,0 +1,39 @@
+package com.danielkyu.oneapi.params;
+
+/** Parameters for filtering chapters. */
+public class ChapterParams extends ResourceParams<ChapterParams.ChapterAttribute, ChapterParams> {
+  /** The attributes that are associated with the chapter. */
+  public enum ChapterAttribute {
+    ID("_id"),
+    CHAPTER_NAME("chapterName"),
+    BOOK("book");
+
+    private final String queryParam;
+
+    private ChapterAttribute(String queryParam) {
+      this.queryParam = queryParam;
+    }
+
+    @Override
+    public String toString() {
+      return this.queryParam;
+    }
+  }
+
+  /** Creates an instance with no filtering criteria and the default pagination settings. */
+  public ChapterParams() {}
+
+  /**
+   * Creates a copy of another instance.
+   *
+   * @param other The instance whose filtering criteria and pagination settings are copied.
+   */
+  public ChapterParams(ChapterParams other) {
+    super(other);
+  }
+
+  @Override
+  public ChapterParams copy() {
+    return new ChapterParams(this);
+  }
+}
@@ -0,0 +1,48 @@
+package com.danielkyu.oneapi.params;
+
+/** Parameters for filtering characters. */
+public class CharacterParams
+    extends ResourceParams<CharacterParams.CharacterAttribute, CharacterParams> {
+  /** The attributes that are associated with the character. */
+  public enum CharacterAttribute {
+    ID("_id"),
+    NAME("name"),
+    RACE("race"),
+    GENDER("gender"),
+    REALM("realm"),
+    HEIGHT("height"),
+    HAIR("hair"),
+    SPOUSE("spouse"),
+    BIRTH("birth"),
+    DEATH("death"),
+    WIKI_URL("wikiUrl");
+
+    private final String queryParam;
+
+    private CharacterAttribute(String queryParam) {
+      this.queryParam = queryParam;
+    }
+
+    @Override
+    public String toString() {
+      return this.queryParam;
+    }
+  }
+
+  /** Creates an instance with no filtering criteria and the default pagination settings. */
+  public CharacterParams() {}
+
+  /**
+   * Creates a copy of another instance.
+   *
+   * @param other The instance whose filtering criteria and pagination settings are copied.
+   */
+  public CharacterParams(CharacterParams other) {
+    super(other);
+  }
+
+  @Override
+  public CharacterParams copy() {
+    return new CharacterParams(this);
+  }
+}
@@ -1,11 +1,13 @@
 package com.danielkyu.oneapi.params;
 
-import java.util.ArrayList;
-import java.util.List;
-import org.apache.commons.lang3.Validate;
-
-/** Parameters for filtering movies. */
-public class MovieParams {
+/**
+ * Parameters for filtering movies.
+ *
+ * <p>The fluent methods are overridden here so that the class keeps the method signatures it had
+ * before it shared {@link ResourceParams}; applications compiled against those signatures continue
+ * to link.
+ */
+public class MovieParams extends ResourceParams<MovieParams.MovieAttribute, MovieParams> {
   /** The attributes that are associated with the movie. */
   public enum MovieAttribute {
     ID("_id"),
@@ -29,10 +31,22 @@ public class MovieParams {
     }
   }
 
-  private int page = 1;
-  private int offset = 0;
-  private int limit = 10;
-  private final List<String> queryParams = new ArrayList<>();
+  /** Creates an instance with no filtering criteria and the default pagination settings. */
+  public MovieParams() {}
+
+  /**
+   * Creates a copy of another instance.
+   *
+   * @param other The instance whose filtering criteria and pagination settings are copied.
+   */
+  public MovieParams(MovieParams other) {
+    super(other);
+  }
+
+  @Override
+  public MovieParams copy() {
+    return new MovieParams(this);
+  }
 
   /**
    * Adds a new attribute (=) filtering criteria.
@@ -41,8 +55,9 @@ public class MovieParams {
    * @param value The value associated with the criteria.
    * @return This instance.
    */
+  @Override
   public <T> MovieParams withAttributeEquals(MovieAttribute attribute, T value) {
-    return withAttribute(attribute, "=", value);
+    return super.withAttributeEquals(attribute, value);
   }
 
   /**
@@ -52,8 +67,9 @@ public class MovieParams {
    * @param value The value associated with the criteria.
    * @return This instance.
    */
+  @Override
   public <T> MovieParams withAttributeNotEquals(MovieAttribute attribute, T value) {
-    return withAttribute(attribute, "!=", value);
+    return super.withAttributeNotEquals(attribute, value);
   }
 
   /**
@@ -63,8 +79,9 @@ public class MovieParams {
    * @param value The value associated with the criteria.
    * @return This instance.
    */
+  @Override
   public <T> MovieParams withAttributeLessThan(MovieAttribute attribute, T value) {
-    return withAttribute(attribute, "<", value);
+    return super.withAttributeLessThan(attribute, value);
   }
 
   /**
@@ -74,8 +91,9 @@ public class MovieParams {
    * @param value The value associated with the criteria.
    * @return This instance.
    */
+  @Override
   public <T> MovieParams withAttributeLessThanOrEqualTo(MovieAttribute attribute, T value) {
-    return withAttribute(attribute, "<=", value);
+    return super.withAttributeLessThanOrEqualTo(attribute, value);
   }
 
   /**
@@ -85,8 +103,9 @@ public class MovieParams {
    * @param value The value associated with the criteria.
    * @return This instance.
    */
+  @Override
   public <T> MovieParams withAttributeGreaterThan(MovieAttribute attribute, T value) {
-    return withAttribute(attribute, ">", value);
+    return super.withAttributeGreaterThan(attribute, value);
   }
 
   /**
@@ -96,25 +115,9 @@ public class MovieParams {
    * @param value The value associated with the criteria.
    * @return This instance.
    */
+  @Override
   public <T> MovieParams withAttributeGreaterThanOrEqualTo(MovieAttribute attribute, T value) {
-    return withAttribute(attribute, ">=", value);
-  }
-
-  /**
-   * Adds a new attribute filtering criteria.
-   *
-   * @param attribute The attribute that is targetted by the criteria.
-   * @param conditional The condition that ties the attribute to the value.
-   * @param value The value associated with the criteria.
-   * @return This instance.
-   */
-  <T> MovieParams withAttribute(MovieAttribute attribute, String conditional, T value) {
-    Validate.notNull(attribute, "Attribute must not be null.");
-    Validate.notNull(conditional, "Conditional must not be null");
-    Validate.notNull(value, "Value must not be null");
-
-    this.queryParams.add(attribute.toString() + conditional + value.toString());
-    return this;
+    return super.withAttributeGreaterThanOrEqualTo(attribute, value);
   }
 
   /**
@@ -123,24 +126,20 @@ public class MovieParams {
    * @param limit The maximum number of movies to return in the response.
    * @return This instance.
    */
+  @Override
   public MovieParams withLimit(int limit) {
-    Validate.isTrue(limit >= 0, "Limit must not be a negative value.");
-
-    this.limit = limit;
-    return this;
+    return super.withLimit(limit);
   }
 
   /**
    * Sets the offset.
    *
-   * @param limit The offset from the start of movies to return.
+   * @param offset The offset from the start of movies to return.
    * @return This instance.
    */
+  @Override
   public MovieParams withOffset(int offset) {
-    Validate.isTrue(offset >= 0, "Offset must not be a negative value.");
-
-    this.offset = offset;
-    return this;
+    return super.withOffset(offset);
   }
 
   /**
@@ -149,28 +148,8 @@ public class MovieParams {
    * @param page The page number from which the movies should be accessed.
    * @return This instance.
    */
+  @Override
   public MovieParams withPage(int page) {
-    Validate.isTrue(page > 0, "Page must be a positive value.");
-
-    this.page = page;
-    return this;
-  }
-
-  /**
-   * Returns a list of query parameters that represent the filtering criteria represented by this
-   * object.
-   *
-   * @return The list of query parameters.
-   */
-  public List<String> toQueryList() {
-    // Create a shallow copy of the query parameters list so as not to expose the member list to
-    // external modification.
-    List<String> queryParams = new ArrayList<>(this.queryParams);
-
-    queryParams.add(String.format("page=%d", this.page));
-    queryParams.add(String.format("offset=%d", this.offset));
-    queryParams.add(String.format("limit=%d", this.limit));
-
-    return queryParams;
+    return super.withPage(page);
   }
 }
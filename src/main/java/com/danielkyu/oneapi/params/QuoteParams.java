@@ -0,0 +1,40 @@
+package com.danielkyu.oneapi.params;
+
+/** Parameters for filtering quotes. */
+public class QuoteParams extends ResourceParams<QuoteParams.QuoteAttribute, QuoteParams> {
+  /** The attributes that are associated with the quote. */
+  public enum QuoteAttribute {
+    ID("_id"),
+    DIALOG("dialog"),
+    MOVIE("movie"),
+    CHARACTER("character");
+
+    private final String queryParam;
+
+    private QuoteAttribute(String queryParam) {
+      this.queryParam = queryParam;
+    }
+
+    @Override
+    public String toString() {
+      return this.queryParam;
+    }
+  }
+
+  /** Creates an instance with no filtering criteria and the default pagination settings. */
+  public QuoteParams() {}
+
+  /**
+   * Creates a copy of another instance.
+   *
+   * @param other The instance whose filtering criteria and pagination settings are copied.
+   */
+  public QuoteParams(QuoteParams other) {
+    super(other);
+  }
+
+  @Override
+  public QuoteParams copy() {
+    return new QuoteParams(this);
+  }
+}
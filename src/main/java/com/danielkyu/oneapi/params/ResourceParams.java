@@ -0,0 +1,231 @@
+package com.danielkyu.oneapi.params;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Parameters shared by every resource for filtering and paginating documents.
+ *
+ * @param <A> The type of the attributes that can be filtered on. The string form of an attribute is
+ *     its query parameter name.
+ * @param <P> The concrete parameters type, returned by the fluent setters.
+ */
+public abstract class ResourceParams<A, P extends ResourceParams<A, P>> {
+  private int page = 1;
+  private int offset = 0;
+  private int limit = 10;
+  private final List<String> queryParams = new ArrayList<>();
+
+  /** Creates an instance with no filtering criteria and the default pagination settings. */
+  protected ResourceParams() {}
+
+  /**
+   * Creates a copy of another instance.
+   *
+   * @param other The instance whose filtering criteria and pagination settings are copied.
+   */
+  protected ResourceParams(ResourceParams<A, P> other) {
+    Validate.notNull(other, "Params must not be null.");
+
+    this.page = other.page;
+    this.offset = other.offset;
+    this.limit = other.limit;
+    this.queryParams.addAll(other.queryParams);
+  }
+
+  /**
+   * Creates a copy of this instance.
+   *
+   * @return A new instance with the same filtering criteria and pagination settings.
+   */
+  public abstract P copy();
+
+  /**
+   * Adds a new attribute (=) filtering criteria.
+   *
+   * @param attribute The attribute that is targetted by the criteria.
+   * @param value The value associated with the criteria.
+   * @return This instance.
+   */
+  public <T> P withAttributeEquals(A attribute, T value) {
+    return withAttribute(attribute, "=", value);
+  }
+
+  /**
+   * Adds a new attribute (!=) filtering criteria.
+   *
+   * @param attribute The attribute that is targetted by the criteria.
+   * @param value The value associated with the criteria.
+   * @return This instance.
+   */
+  public <T> P withAttributeNotEquals(A attribute, T value) {
+    return withAttribute(attribute, "!=", value);
+  }
+
+  /**
+   * Adds a new attribute (<) filtering criteria.
+   *
+   * @param attribute The attribute that is targetted by the criteria.
+   * @param value The value associated with the criteria.
+   * @return This instance.
+   */
+  public <T> P withAttributeLessThan(A attribute, T value) {
+    return withAttribute(attribute, "<", value);
+  }
+
+  /**
+   * Adds a new attribute (<=) filtering criteria.
+   *
+   * @param attribute The attribute that is targetted by the criteria.
+   * @param value The value associated with the criteria.
+   * @return This instance.
+   */
+  public <T> P withAttributeLessThanOrEqualTo(A attribute, T value) {
+    return withAttribute(attribute, "<=", value);
+  }
+
+  /**
+   * Adds a new attribute (>) filtering criteria.
+   *
+   * @param attribute The attribute that is targetted by the criteria.
+   * @param value The value associated with the criteria.
+   * @return This instance.
+   */
+  public <T> P withAttributeGreaterThan(A attribute, T value) {
+    return withAttribute(attribute, ">", value);
+  }
+
+  /**
+   * Adds a new attribute (>=) filtering criteria.
+   *
+   * @param attribute The attribute that is targetted by the criteria.
+   * @param value The value associated with the criteria.
+   * @return This instance.
+   */
+  public <T> P withAttributeGreaterThanOrEqualTo(A attribute, T value) {
+    return withAttribute(attribute, ">=", value);
+  }
+
+  /**
+   * Adds a new attribute filtering criteria.
+   *
+   * @param attribute The attribute that is targetted by the criteria.
+   * @param conditional The condition that ties the attribute to the value.
+   * @param value The value associated with the criteria.
+   * @return This instance.
+   */
+  <T> P withAttribute(A attribute, String conditional, T value) {
+    Validate.notNull(attribute, "Attribute must not be null.");
+    Validate.notNull(conditional, "Conditional must not be null");
+    Validate.notNull(value, "Value must not be null");
+
+    this.queryParams.add(attribute.toString() + conditional + toQueryValue(value));
+    return self();
+  }
+
+  /**
+   * Sets the limit.
+   *
+   * @param limit The maximum number of documents to return in the response.
+   * @return This instance.
+   */
+  public P withLimit(int limit) {
+    Validate.isTrue(limit >= 0, "Limit must not be a negative value.");
+
+    this.limit = limit;
+    return self();
+  }
+
+  /**
+   * Sets the offset.
+   *
+   * @param limit The offset from the start of documents to return.
+   * @return This instance.
+   */
+  public P withOffset(int offset) {
+    Validate.isTrue(offset >= 0, "Offset must not be a negative value.");
+
+    this.offset = offset;
+    return self();
+  }
+
+  /**
+   * Sets the page.
+   *
+   * @param page The page number from which the documents should be accessed.
+   * @return This instance.
+   */
+  public P withPage(int page) {
+    Validate.isTrue(page > 0, "Page must be a positive value.");
+
+    this.page = page;
+    return self();
+  }
+
+  /**
+   * Returns the page.
+   *
+   * @return The page number from which the documents should be accessed.
+   */
+  public int getPage() {
+    return this.page;
+  }
+
+  /**
+   * Returns a list of query parameters that represent the filtering criteria represented by this
+   * object.
+   *
+   * @return The list of query parameters.
+   */
+  public List<String> toQueryList() {
+    // Create a shallow copy of the query parameters list so as not to expose the member list to
+    // external modification.
+    List<String> queryParams = new ArrayList<>(this.queryParams.size() + 3);
+
+    queryParams.addAll(this.queryParams);
+    queryParams.add("page=" + this.page);
+    queryParams.add("offset=" + this.offset);
+    queryParams.add("limit=" + this.limit);
+
+    return queryParams;
+  }
+
+  /**
+   * Compiles the filtering criteria and pagination settings into an immutable query.
+   *
+   * <p>The query is canonical: parameters that hold the same filters in any order compile to equal
+   * queries. Later changes to this instance do not affect the query. Compile parameters that are
+   * used repeatedly once and reuse the query.
+   *
+   * @return The compiled query.
+   */
+  public ResourceQuery<P> build() {
+    return ResourceQuery.compile(this.queryParams, this.page, this.offset, this.limit);
+  }
+
+  /**
+   * Returns the query form of a filter value. Numbers are written in their shortest plain form, so
+   * that e.g. 100, 100.0 and 1E2 produce the same filter.
+   *
+   * @param value The value associated with the criteria.
+   * @return The value as it appears in the query.
+   */
+  private static String toQueryValue(Object value) {
+    if (value instanceof Number) {
+      try {
+        return new BigDecimal(value.toString()).stripTrailingZeros().toPlainString();
+      } catch (NumberFormatException e) {
+        // NaN and infinities have no decimal form and are sent as they are.
+      }
+    }
+
+    return value.toString();
+  }
+
+  @SuppressWarnings("unchecked")
+  private P self() {
+    return (P) this;
+  }
+}
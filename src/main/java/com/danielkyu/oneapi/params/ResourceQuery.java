@@ -0,0 +1,147 @@
+package com.danielkyu.oneapi.params;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * An immutable, canonical form of resource parameters, compiled once by {@link
+ * ResourceParams#build()} and reusable for any number of requests.
+ *
+ * <p>Filters are sorted and duplicates removed, so parameters that hold the same filters in a
+ * different order compile to equal queries and share cached and in-flight responses. The query
+ * list, the encoded query string and the hash code are computed when the query is compiled, so
+ * issuing a request with a compiled query does not allocate for the query itself. Instances are
+ * safe to share across threads.
+ *
+ * @param <P> The type of the parameters that the query was compiled from.
+ */
+public final class ResourceQuery<P extends ResourceParams<?, P>> {
+  private final List<String> filters;
+  private final int page;
+  private final int offset;
+  private final int limit;
+  private final List<String> queryList;
+  private final String queryString;
+  private final int hashCode;
+
+  private ResourceQuery(List<String> filters, int page, int offset, int limit) {
+    List<String> queryList = new ArrayList<>(filters.size() + 3);
+
+    queryList.addAll(filters);
+    queryList.add("page=" + page);
+    queryList.add("offset=" + offset);
+    queryList.add("limit=" + limit);
+
+    this.filters = Collections.unmodifiableList(filters);
+    this.page = page;
+    this.offset = offset;
+    this.limit = limit;
+    this.queryList = Collections.unmodifiableList(queryList);
+    this.queryString = String.join("&", queryList);
+    this.hashCode = this.queryString.hashCode();
+  }
+
+  /**
+   * Compiles a query.
+   *
+   * @param filters The filtering criteria, in any order.
+   * @param page The page number from which the documents should be accessed.
+   * @param offset The offset from the start of documents to return.
+   * @param limit The maximum number of documents to return in the response.
+   * @return The query, with the filtering criteria sorted and duplicates removed.
+   */
+  static <P extends ResourceParams<?, P>> ResourceQuery<P> compile(
+      Collection<String> filters, int page, int offset, int limit) {
+    return new ResourceQuery<>(new ArrayList<>(new TreeSet<>(filters)), page, offset, limit);
+  }
+
+  /**
+   * Returns a copy of this query for another page.
+   *
+   * @param page The page number from which the documents should be accessed.
+   * @return A query with the same filtering criteria, offset and limit.
+   */
+  public ResourceQuery<P> withPage(int page) {
+    Validate.isTrue(page > 0, "Page must be a positive value.");
+
+    return new ResourceQuery<>(this.filters, page, this.offset, this.limit);
+  }
+
+  /**
+   * Returns the page.
+   *
+   * @return The page number from which the documents should be accessed.
+   */
+  public int getPage() {
+    return this.page;
+  }
+
+  /**
+   * Returns the offset.
+   *
+   * @return The offset from the start of documents to return.
+   */
+  public int getOffset() {
+    return this.offset;
+  }
+
+  /**
+   * Returns the limit.
+   *
+   * @return The maximum number of documents to return in the response.
+   */
+  public int getLimit() {
+    return this.limit;
+  }
+
+  /**
+   * Returns the filtering criteria.
+   *
+   * @return The unmodifiable, sorted list of filtering criteria, e.g. {@code name=/ring/i}.
+   */
+  public List<String> getFilters() {
+    return this.filters;
+  }
+
+  /**
+   * Returns the query parameters: the sorted filtering criteria followed by the page, offset and
+   * limit.
+   *
+   * @return The unmodifiable list of query parameters, shared by every caller.
+   */
+  public List<String> toQueryList() {
+    return this.queryList;
+  }
+
+  /**
+   * Returns the query parameters joined with '&amp;', e.g. {@code
+   * name=/ring/i&page=1&offset=0&limit=10}.
+   *
+   * @return The query string.
+   */
+  public String getQueryString() {
+    return this.queryString;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return obj == this
+        || (obj instanceof ResourceQuery
+            && this.hashCode == obj.hashCode()
+            && this.queryString.equals(((ResourceQuery<?>) obj).queryString));
+  }
+
+  @Override
+  public int hashCode() {
+    return this.hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return this.queryString;
+  }
+}
@@ -0,0 +1,21 @@
+package com.danielkyu.oneapi.responses;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/** The book API response from OneApi. */
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class BookResponse extends PaginatedResponse<BookResponse.Book> {
+  @Data
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public static class Book {
+    @JsonProperty("_id")
+    private String id;
+
+    private String name;
+  }
+}
@@ -0,0 +1,24 @@
+package com.danielkyu.oneapi.responses;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/** The chapter API response from OneApi. */
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class ChapterResponse extends PaginatedResponse<ChapterResponse.Chapter> {
+  @Data
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public static class Chapter {
+    @JsonProperty("_id")
+    private String id;
+
+    private String chapterName;
+
+    /** The id of the book the chapter belongs to. */
+    private String book;
+  }
+}
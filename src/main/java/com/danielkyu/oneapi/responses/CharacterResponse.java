@@ -0,0 +1,30 @@
+package com.danielkyu.oneapi.responses;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/** The character API response from OneApi. */
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class CharacterResponse extends PaginatedResponse<CharacterResponse.Character> {
+  @Data
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public static class Character {
+    @JsonProperty("_id")
+    private String id;
+
+    private String name;
+    private String race;
+    private String gender;
+    private String realm;
+    private String height;
+    private String hair;
+    private String spouse;
+    private String birth;
+    private String death;
+    private String wikiUrl;
+  }
+}
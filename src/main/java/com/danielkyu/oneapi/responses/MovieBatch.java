@@ -0,0 +1,319 @@
+package com.danielkyu.oneapi.responses;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A compact, column-oriented page of movies.
+ *
+ * <p>Each attribute is stored in its own array rather than in one object per movie: the numeric
+ * attributes as {@code int} columns, 24-character hexadecimal ObjectIds packed into a {@code long}
+ * and an {@code int}, and names as indexes into a table of distinct names. This takes a fraction
+ * of the heap used by the equivalent list of {@link MovieResponse.Movie} objects and allows a
+ * single attribute to be scanned sequentially. Instances are immutable.
+ */
+public final class MovieBatch {
+  private static final int OBJECT_ID_LENGTH = 24;
+  private static final int OBJECT_ID_HIGH_LENGTH = 16;
+
+  /** The pagination fields of the response the batch was decoded from. */
+  @Getter private final Pagination pagination;
+
+  private final int size;
+  private final long[] idHighs;
+  private final int[] idLows;
+  // Ids that are not ObjectIds (and so could not be packed); null when every id was packed.
+  private final String[] otherIds;
+  // The positions of movies without an id; null when every movie has one.
+  private final BitSet missingIds;
+  private final int[] nameIndexes;
+  private final String[] names;
+  private final int[] runtimeInMinutes;
+  private final int[] budgetInMillions;
+  private final int[] boxOfficeRevenueInMillions;
+  private final int[] academyAwardNominations;
+  private final int[] academyAwardWins;
+  private final int[] rottenTomatoesScores;
+
+  private MovieBatch(Builder builder, Pagination pagination) {
+    this.pagination = pagination;
+    this.size = builder.size;
+    this.idHighs = Arrays.copyOf(builder.idHighs, builder.size);
+    this.idLows = Arrays.copyOf(builder.idLows, builder.size);
+    this.otherIds =
+        builder.otherIds == null ? null : Arrays.copyOf(builder.otherIds, builder.size);
+    this.missingIds = builder.missingIds.isEmpty() ? null : (BitSet) builder.missingIds.clone();
+    this.nameIndexes = Arrays.copyOf(builder.nameIndexes, builder.size);
+    this.names = builder.names.toArray(new String[0]);
+    this.runtimeInMinutes = Arrays.copyOf(builder.runtimeInMinutes, builder.size);
+    this.budgetInMillions = Arrays.copyOf(builder.budgetInMillions, builder.size);
+    this.boxOfficeRevenueInMillions =
+        Arrays.copyOf(builder.boxOfficeRevenueInMillions, builder.size);
+    this.academyAwardNominations = Arrays.copyOf(builder.academyAwardNominations, builder.size);
+    this.academyAwardWins = Arrays.copyOf(builder.academyAwardWins, builder.size);
+    this.rottenTomatoesScores = Arrays.copyOf(builder.rottenTomatoesScores, builder.size);
+  }
+
+  /**
+   * Creates a builder that accumulates movies into a batch.
+   *
+   * @return A new, empty builder.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns the number of movies in the batch.
+   *
+   * @return The number of movies.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Returns the id of a movie.
+   *
+   * @param index The zero-based position of the movie in the batch.
+   * @return The id of the movie, or null if the movie has no id.
+   */
+  public String getId(int index) {
+    if (this.missingIds != null && this.missingIds.get(index)) {
+      return null;
+    }
+
+    if (this.otherIds != null && this.otherIds[index] != null) {
+      return this.otherIds[index];
+    }
+
+    return toHex(this.idHighs[index], OBJECT_ID_HIGH_LENGTH)
+        + toHex(
+            Integer.toUnsignedLong(this.idLows[index]), OBJECT_ID_LENGTH - OBJECT_ID_HIGH_LENGTH);
+  }
+
+  /**
+   * Returns the name of a movie.
+   *
+   * @param index The zero-based position of the movie in the batch.
+   * @return The name of the movie, or null if the movie has no name.
+   */
+  public String getName(int index) {
+    return this.names[this.nameIndexes[index]];
+  }
+
+  /**
+   * Returns the runtime of a movie.
+   *
+   * @param index The zero-based position of the movie in the batch.
+   * @return The runtime of the movie in minutes.
+   */
+  public int getRuntimeInMinutes(int index) {
+    return this.runtimeInMinutes[index];
+  }
+
+  /**
+   * Returns the budget of a movie.
+   *
+   * @param index The zero-based position of the movie in the batch.
+   * @return The budget of the movie in millions.
+   */
+  public int getBudgetInMillions(int index) {
+    return this.budgetInMillions[index];
+  }
+
+  /**
+   * Returns the box office revenue of a movie.
+   *
+   * @param index The zero-based position of the movie in the batch.
+   * @return The box office revenue of the movie in millions.
+   */
+  public int getBoxOfficeRevenueInMillions(int index) {
+    return this.boxOfficeRevenueInMillions[index];
+  }
+
+  /**
+   * Returns the number of Academy Award nominations of a movie.
+   *
+   * @param index The zero-based position of the movie in the batch.
+   * @return The number of Academy Award nominations.
+   */
+  public int getAcademyAwardNominations(int index) {
+    return this.academyAwardNominations[index];
+  }
+
+  /**
+   * Returns the number of Academy Awards won by a movie.
+   *
+   * @param index The zero-based position of the movie in the batch.
+   * @return The number of Academy Awards won.
+   */
+  public int getAcademyAwardWins(int index) {
+    return this.academyAwardWins[index];
+  }
+
+  /**
+   * Returns the Rotten Tomatoes score of a movie.
+   *
+   * @param index The zero-based position of the movie in the batch.
+   * @return The Rotten Tomatoes score.
+   */
+  public int getRottenTomatoesScore(int index) {
+    return this.rottenTomatoesScores[index];
+  }
+
+  /**
+   * Materializes a single movie as an object.
+   *
+   * @param index The zero-based position of the movie in the batch.
+   * @return A new Movie instance holding the attributes of the movie.
+   */
+  public MovieResponse.Movie getMovie(int index) {
+    MovieResponse.Movie movie = new MovieResponse.Movie();
+
+    movie.setId(getId(index));
+    movie.setName(getName(index));
+    movie.setRuntimeInMinutes(this.runtimeInMinutes[index]);
+    movie.setBudgetInMillions(this.budgetInMillions[index]);
+    movie.setBoxOfficeRevenueInMillions(this.boxOfficeRevenueInMillions[index]);
+    movie.setAcademyAwardNominations(this.academyAwardNominations[index]);
+    movie.setAcademyAwardWins(this.academyAwardWins[index]);
+    movie.setRottenTomatoesScore(this.rottenTomatoesScores[index]);
+    return movie;
+  }
+
+  /**
+   * Materializes every movie in the batch as objects.
+   *
+   * @return A new list of Movie instances in batch order.
+   */
+  public List<MovieResponse.Movie> toMovies() {
+    List<MovieResponse.Movie> movies = new ArrayList<>(this.size);
+
+    for (int index = 0; index < this.size; index++) {
+      movies.add(getMovie(index));
+    }
+
+    return movies;
+  }
+
+  private static String toHex(long value, int length) {
+    String hex = Long.toHexString(value);
+
+    return hex.length() == length ? hex : String.format("%" + length + "s", hex).replace(' ', '0');
+  }
+
+  private static boolean isObjectId(String id) {
+    if (id == null || id.length() != OBJECT_ID_LENGTH) {
+      return false;
+    }
+
+    for (int i = 0; i < OBJECT_ID_LENGTH; i++) {
+      char c = id.charAt(i);
+
+      // Only lower-case ObjectIds are packed so that they round-trip exactly.
+      if (!(c >= '0' && c <= '9') && !(c >= 'a' && c <= 'f')) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /** Accumulates movies into the columns of a batch. Instances are not thread-safe. */
+  public static final class Builder {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size;
+    private long[] idHighs = new long[INITIAL_CAPACITY];
+    private int[] idLows = new int[INITIAL_CAPACITY];
+    private String[] otherIds;
+    private final BitSet missingIds = new BitSet();
+    private int[] nameIndexes = new int[INITIAL_CAPACITY];
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> nameTable = new HashMap<>();
+    private int[] runtimeInMinutes = new int[INITIAL_CAPACITY];
+    private int[] budgetInMillions = new int[INITIAL_CAPACITY];
+    private int[] boxOfficeRevenueInMillions = new int[INITIAL_CAPACITY];
+    private int[] academyAwardNominations = new int[INITIAL_CAPACITY];
+    private int[] academyAwardWins = new int[INITIAL_CAPACITY];
+    private int[] rottenTomatoesScores = new int[INITIAL_CAPACITY];
+
+    private Builder() {}
+
+    /**
+     * Appends a movie to the batch.
+     *
+     * @param movie The movie to append.
+     * @return This instance.
+     */
+    public Builder add(MovieResponse.Movie movie) {
+      Validate.notNull(movie, "Movie must not be null.");
+
+      if (this.size == this.idLows.length) {
+        grow(this.size * 2);
+      }
+
+      String id = movie.getId();
+
+      if (id == null) {
+        this.missingIds.set(this.size);
+      } else if (isObjectId(id)) {
+        this.idHighs[this.size] =
+            Long.parseUnsignedLong(id.substring(0, OBJECT_ID_HIGH_LENGTH), 16);
+        this.idLows[this.size] = (int) Long.parseLong(id.substring(OBJECT_ID_HIGH_LENGTH), 16);
+      } else {
+        if (this.otherIds == null) {
+          this.otherIds = new String[this.idLows.length];
+        }
+
+        this.otherIds[this.size] = id;
+      }
+
+      this.nameIndexes[this.size] =
+          this.nameTable.computeIfAbsent(
+              movie.getName(),
+              name -> {
+                this.names.add(name);
+                return this.names.size() - 1;
+              });
+      this.runtimeInMinutes[this.size] = movie.getRuntimeInMinutes();
+      this.budgetInMillions[this.size] = movie.getBudgetInMillions();
+      this.boxOfficeRevenueInMillions[this.size] = movie.getBoxOfficeRevenueInMillions();
+      this.academyAwardNominations[this.size] = movie.getAcademyAwardNominations();
+      this.academyAwardWins[this.size] = movie.getAcademyAwardWins();
+      this.rottenTomatoesScores[this.size] = movie.getRottenTomatoesScore();
+      this.size++;
+      return this;
+    }
+
+    /**
+     * Creates the batch from the movies appended so far.
+     *
+     * @param pagination The pagination fields of the response the movies were decoded from.
+     * @return The immutable batch. The arrays are trimmed to the number of movies.
+     */
+    public MovieBatch build(Pagination pagination) {
+      return new MovieBatch(this, pagination);
+    }
+
+    private void grow(int capacity) {
+      this.idHighs = Arrays.copyOf(this.idHighs, capacity);
+      this.idLows = Arrays.copyOf(this.idLows, capacity);
+      this.otherIds = this.otherIds == null ? null : Arrays.copyOf(this.otherIds, capacity);
+      this.nameIndexes = Arrays.copyOf(this.nameIndexes, capacity);
+      this.runtimeInMinutes = Arrays.copyOf(this.runtimeInMinutes, capacity);
+      this.budgetInMillions = Arrays.copyOf(this.budgetInMillions, capacity);
+      this.boxOfficeRevenueInMillions = Arrays.copyOf(this.boxOfficeRevenueInMillions, capacity);
+      this.academyAwardNominations = Arrays.copyOf(this.academyAwardNominations, capacity);
+      this.academyAwardWins = Arrays.copyOf(this.academyAwardWins, capacity);
+      this.rottenTomatoesScores = Arrays.copyOf(this.rottenTomatoesScores, capacity);
+    }
+  }
+}
@@ -1,12 +1,16 @@
 package com.danielkyu.oneapi.responses;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.List;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 /** The movie API response from OneApi. */
-@Data
-public class MovieResponse {
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class MovieResponse extends PaginatedResponse<MovieResponse.Movie> {
   @Data
   public static class Movie {
     @JsonProperty("_id")
@@ -21,12 +25,23 @@ public class MovieResponse {
     private int rottenTomatoesScore;
   }
 
-  private int total;
-  private int limit;
-  private int offset;
-  private int page;
-  private int pages;
+  /**
+   * Returns the movies in the page.
+   *
+   * @return The movies, in the order returned by the service.
+   */
+  @JsonIgnore
+  public List<Movie> getMovies() {
+    return getDocs();
+  }
 
-  @JsonProperty("docs")
-  private List<Movie> movies;
+  /**
+   * Sets the movies in the page.
+   *
+   * @param movies The movies.
+   */
+  @JsonIgnore
+  public void setMovies(List<Movie> movies) {
+    setDocs(movies);
+  }
 }
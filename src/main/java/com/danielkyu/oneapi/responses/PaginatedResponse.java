@@ -0,0 +1,20 @@
+package com.danielkyu.oneapi.responses;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * A page of documents returned by a OneApi endpoint, together with its pagination fields.
+ *
+ * @param <T> The type of the documents.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class PaginatedResponse<T> extends Pagination {
+  @JsonProperty("docs")
+  private List<T> docs;
+}
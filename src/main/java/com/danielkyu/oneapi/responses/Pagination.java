@@ -0,0 +1,13 @@
+package com.danielkyu.oneapi.responses;
+
+import lombok.Data;
+
+/** The pagination fields of a OneApi response, reported separately from the documents. */
+@Data
+public class Pagination {
+  private int total;
+  private int limit;
+  private int offset;
+  private int page;
+  private int pages;
+}
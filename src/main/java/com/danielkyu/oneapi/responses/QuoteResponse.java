@@ -0,0 +1,27 @@
+package com.danielkyu.oneapi.responses;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/** The quote API response from OneApi. */
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class QuoteResponse extends PaginatedResponse<QuoteResponse.Quote> {
+  @Data
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public static class Quote {
+    @JsonProperty("_id")
+    private String id;
+
+    private String dialog;
+
+    /** The id of the movie the quote is from. */
+    private String movie;
+
+    /** The id of the character who speaks the quote. */
+    private String character;
+  }
+}
@@ -1,16 +1,46 @@
 package com.danielkyu.oneapi.utils;
 
 import com.danielkyu.oneapi.Config;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import okhttp3.Cache;
 import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.logging.HttpLoggingInterceptor;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 /** Utility methods for common networking related operations. */
 public final class NetworkingUtils {
-  static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
-  static final long DEFAULT_KEEP_ALIVE_DURATION_MS = 60 * 1000;
+  public static final long DEFAULT_CACHE_SIZE_BYTES = 10 * 1024 * 1024;
+  public static final int DEFAULT_MAX_REQUESTS = 64;
+  public static final int DEFAULT_MAX_REQUESTS_PER_HOST = 5;
+  public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+  public static final long DEFAULT_KEEP_ALIVE_DURATION_MS = 60 * 1000;
+  public static final long DEFAULT_CONNECT_TIMEOUT_MS = 10 * 1000;
+  public static final long DEFAULT_READ_TIMEOUT_MS = 10 * 1000;
+
+  /**
+   * HTTP/2 where the server negotiates it over TLS (ALPN), so that concurrent calls are multiplexed
+   * on a single connection, falling back to HTTP/1.1 otherwise.
+   */
+  public static final String DEFAULT_PROTOCOLS = "h2,http/1.1";
+
+  static final String DISPATCHER_THREAD_NAME = "one-api-dispatcher";
+
+  private static final Logger logger = LogManager.getLogger();
 
   private NetworkingUtils() {
     // Prevent instantiation as this is a utility class.
@@ -25,10 +55,17 @@ public final class NetworkingUtils {
    */
   public static OkHttpClient.Builder createOkHttpClientBuilder(Config config) {
     OkHttpClient.Builder okHttpClientBuilder = new OkHttpClient.Builder();
-    boolean isLoggingEnabled =
-        Optional.ofNullable(config.getNetworking())
-            .map(Config.Networking::isLogTraffic)
-            .orElse(false);
+    Optional<Config.Networking> networking = Optional.ofNullable(config.getNetworking());
+    boolean isLoggingEnabled = networking.map(Config.Networking::isLogTraffic).orElse(false);
+    String cacheDirectory = networking.map(Config.Networking::getCacheDirectory).orElse(null);
+
+    okHttpClientBuilder.dispatcher(
+        createDispatcher(
+            networking.map(Config.Networking::getMaxRequests).orElse(DEFAULT_MAX_REQUESTS),
+            networking
+                .map(Config.Networking::getMaxRequestsPerHost)
+                .orElse(DEFAULT_MAX_REQUESTS_PER_HOST),
+            networking.map(Config.Networking::isVirtualThreads).orElse(false)));
 
     if (isLoggingEnabled) {
       // Log networking traffic to the console--useful for development/debug purposes.
@@ -39,8 +76,126 @@ public final class NetworkingUtils {
       okHttpClientBuilder.addInterceptor(loggingInterceptor);
     }
 
-    return okHttpClientBuilder.connectionPool(
-        new ConnectionPool(
-            DEFAULT_MAX_IDLE_CONNECTIONS, DEFAULT_KEEP_ALIVE_DURATION_MS, TimeUnit.MILLISECONDS));
+    if (StringUtils.isNotBlank(cacheDirectory)) {
+      // Persist responses to disk so they survive restarts. OkHttp stores the ETag/Last-Modified
+      // validators alongside each response and revalidates stale entries with If-None-Match and
+      // If-Modified-Since, turning unchanged pages into 304 responses without a body.
+
+      okHttpClientBuilder.cache(
+          new Cache(
+              new File(cacheDirectory),
+              networking.map(Config.Networking::getCacheSizeBytes).get()));
+    }
+
+    int maxIdleConnections =
+        networking
+            .map(Config.Networking::getMaxIdleConnections)
+            .orElse(DEFAULT_MAX_IDLE_CONNECTIONS);
+    long keepAliveMs =
+        networking
+            .map(Config.Networking::getKeepAliveMillis)
+            .orElse(DEFAULT_KEEP_ALIVE_DURATION_MS);
+    long connectTimeoutMs =
+        networking
+            .map(Config.Networking::getConnectTimeoutMillis)
+            .orElse(DEFAULT_CONNECT_TIMEOUT_MS);
+    long readTimeoutMs =
+        networking.map(Config.Networking::getReadTimeoutMillis).orElse(DEFAULT_READ_TIMEOUT_MS);
+    long callTimeoutMs = networking.map(Config.Networking::getCallTimeoutMillis).orElse(0L);
+
+    Validate.isTrue(maxIdleConnections >= 0, "Max idle connections must not be a negative value.");
+    Validate.isTrue(keepAliveMs > 0, "Keep-alive duration must be a positive value.");
+    Validate.isTrue(
+        connectTimeoutMs >= 0 && readTimeoutMs >= 0 && callTimeoutMs >= 0,
+        "Timeouts must not be negative values.");
+
+    return okHttpClientBuilder
+        .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveMs, TimeUnit.MILLISECONDS))
+        .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+        .readTimeout(readTimeoutMs, TimeUnit.MILLISECONDS)
+        .callTimeout(callTimeoutMs, TimeUnit.MILLISECONDS)
+        .protocols(
+            parseProtocols(
+                networking.map(Config.Networking::getProtocols).orElse(DEFAULT_PROTOCOLS)));
+  }
+
+  /**
+   * Parses a comma-separated list of protocols in order of preference, e.g. "h2,http/1.1".
+   *
+   * <p>The identifiers are those of OkHttp's {@link Protocol}: "http/1.1", "h2" (HTTP/2 negotiated
+   * over TLS) and "h2_prior_knowledge" (cleartext HTTP/2, which must be the only protocol).
+   *
+   * @param protocols The comma-separated protocol identifiers.
+   * @return The protocols, in order of preference.
+   */
+  public static List<Protocol> parseProtocols(String protocols) {
+    List<Protocol> result = new ArrayList<>();
+
+    for (String protocol : StringUtils.split(protocols, ',')) {
+      try {
+        result.add(Protocol.get(protocol.trim()));
+      } catch (IOException e) {
+        throw new IllegalArgumentException("Unsupported protocol: " + protocol, e);
+      }
+    }
+
+    Validate.isTrue(
+        result.contains(Protocol.HTTP_1_1)
+            || (result.size() == 1 && result.contains(Protocol.H2_PRIOR_KNOWLEDGE)),
+        "Protocols must include http/1.1, unless h2_prior_knowledge is the only protocol.");
+    return result;
+  }
+
+  /**
+   * Creates a new OkHttp Dispatcher that runs asynchronous calls on SDK-owned threads.
+   *
+   * <p>Unlike OkHttp's default dispatcher, the platform threads created here are daemon threads, so
+   * idle dispatcher threads do not keep the VM alive after the application terminates.
+   *
+   * @param maxRequests The maximum number of asynchronous calls to execute concurrently.
+   * @param maxRequestsPerHost The maximum number of asynchronous calls to execute concurrently per
+   *     host.
+   * @param useVirtualThreads Whether calls should run on virtual threads. Ignored with a warning if
+   *     the runtime does not support virtual threads.
+   * @return Dispatcher instance for an OkHttpClient.
+   */
+  public static Dispatcher createDispatcher(
+      int maxRequests, int maxRequestsPerHost, boolean useVirtualThreads) {
+    Validate.isTrue(maxRequests > 0, "Max requests must be a positive value.");
+    Validate.isTrue(maxRequestsPerHost > 0, "Max requests per host must be a positive value.");
+
+    Optional<ExecutorService> virtualThreadExecutor =
+        useVirtualThreads
+            ? VirtualThreads.newThreadPerTaskExecutor(DISPATCHER_THREAD_NAME)
+            : Optional.empty();
+    ExecutorService executorService;
+
+    if (virtualThreadExecutor.isPresent()) {
+      executorService = virtualThreadExecutor.get();
+    } else {
+      if (useVirtualThreads) {
+        logger.warn("Virtual threads require Java 21 or later; using platform threads instead.");
+      }
+
+      // Mirrors OkHttp's default executor (unbounded, with idle threads reaped after a minute); the
+      // number of threads in use is bounded by maxRequests.
+      executorService =
+          new ThreadPoolExecutor(
+              0,
+              Integer.MAX_VALUE,
+              DEFAULT_KEEP_ALIVE_DURATION_MS,
+              TimeUnit.MILLISECONDS,
+              new SynchronousQueue<>(),
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat(DISPATCHER_THREAD_NAME + "-%d")
+                  .build());
+    }
+
+    Dispatcher dispatcher = new Dispatcher(executorService);
+
+    dispatcher.setMaxRequests(maxRequests);
+    dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+    return dispatcher;
   }
 }
@@ -0,0 +1,35 @@
+package com.danielkyu.oneapi.utils;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Utility methods for running work on virtual threads.
+ *
+ * <p>Virtual threads require Java 21 or later. This is the baseline implementation used on older
+ * runtimes; the SDK ships as a multi-release JAR that replaces this class on Java 21+.
+ */
+public final class VirtualThreads {
+  private VirtualThreads() {
+    // Prevent instantiation as this is a utility class.
+  }
+
+  /**
+   * Returns whether the current runtime supports virtual threads.
+   *
+   * @return True on Java 21 or later.
+   */
+  public static boolean isSupported() {
+    return false;
+  }
+
+  /**
+   * Creates an executor that starts a new virtual thread for every task.
+   *
+   * @param name The name prefix of the created threads.
+   * @return The executor, or empty as the current runtime does not support virtual threads.
+   */
+  public static Optional<ExecutorService> newThreadPerTaskExecutor(String name) {
+    return Optional.empty();
+  }
+}
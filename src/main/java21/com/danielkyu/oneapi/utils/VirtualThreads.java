@@ -0,0 +1,37 @@
+package com.danielkyu.oneapi.utils;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Utility methods for running work on virtual threads.
+ *
+ * <p>This is the Java 21+ implementation packaged under META-INF/versions/21 of the multi-release
+ * JAR.
+ */
+public final class VirtualThreads {
+  private VirtualThreads() {
+    // Prevent instantiation as this is a utility class.
+  }
+
+  /**
+   * Returns whether the current runtime supports virtual threads.
+   *
+   * @return True on Java 21 or later.
+   */
+  public static boolean isSupported() {
+    return true;
+  }
+
+  /**
+   * Creates an executor that starts a new virtual thread for every task.
+   *
+   * @param name The name prefix of the created threads.
+   * @return The executor.
+   */
+  public static Optional<ExecutorService> newThreadPerTaskExecutor(String name) {
+    return Optional.of(
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory()));
+  }
+}
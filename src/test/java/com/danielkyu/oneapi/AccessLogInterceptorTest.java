@@ -0,0 +1,48 @@
+package com.danielkyu.oneapi;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class AccessLogInterceptorTest {
+  private static final long FAST_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+  private static final long SLOW_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+  @Test
+  void logsSampledSlowAndFailedCalls() {
+    AccessLogInterceptor interceptor = new AccessLogInterceptor(3, Duration.ofSeconds(1), true);
+    int sampled = 0;
+
+    for (int call = 0; call < 9; call++) {
+      sampled += interceptor.shouldLog(false, FAST_NANOS) ? 1 : 0;
+    }
+
+    Assertions.assertEquals(3, sampled);
+    Assertions.assertTrue(interceptor.shouldLog(false, SLOW_NANOS));
+    Assertions.assertTrue(interceptor.shouldLog(true, FAST_NANOS));
+  }
+
+  @Test
+  void logsNothingWhenSamplingAndThresholdsAreOff() {
+    AccessLogInterceptor interceptor = new AccessLogInterceptor(0, Duration.ZERO, false);
+
+    Assertions.assertFalse(interceptor.shouldLog(false, SLOW_NANOS));
+    Assertions.assertFalse(interceptor.shouldLog(true, SLOW_NANOS));
+  }
+
+  @Test
+  void createsInterceptorOnlyWhenEnabled() {
+    Config config = new Config();
+    ConfigOptions enabled = ConfigOptions.builder().accessLogEnabled(true).build();
+
+    Assertions.assertNull(AccessLogInterceptor.create(config, ConfigOptions.builder().build()));
+    Assertions.assertNotNull(AccessLogInterceptor.create(config, enabled));
+    Assertions.assertThrows(
+        OneApiException.class,
+        () ->
+            AccessLogInterceptor.create(
+                config,
+                ConfigOptions.builder().accessLogEnabled(true).accessLogSampleRate(-1).build()));
+  }
+}
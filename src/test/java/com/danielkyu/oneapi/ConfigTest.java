@@ -0,0 +1,47 @@
+package com.danielkyu.oneapi;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ConfigTest {
+  @Test
+  void loadsConfigFromEnvironment() {
+    Properties properties = new Properties();
+    Map<String, String> environment = new HashMap<>();
+
+    properties.setProperty("one-api.api-key", "from-property");
+    properties.setProperty("one-api.caching.ttl-seconds", "60");
+    environment.put("ONE_API_API_KEY", "from-environment");
+    environment.put("ONE_API_CACHING_ENABLED", "true");
+    environment.put("ONE_API_RATE_LIMIT_PERIOD_SECONDS", "600");
+    environment.put("ONE_API_HEDGING_PERCENTILE", "99.5");
+
+    Config config = Config.loadConfigFromEnvironment(properties, environment);
+
+    Assertions.assertEquals("from-property", config.getApiKey());
+    Assertions.assertTrue(config.getCaching().isEnabled());
+    Assertions.assertEquals(60, config.getCaching().getTtlSeconds());
+    Assertions.assertEquals(ResponseCache.DEFAULT_MAX_ENTRIES, config.getCaching().getMaxEntries());
+    Assertions.assertEquals(600, config.getRateLimit().getPeriodSeconds());
+    Assertions.assertEquals(99.5, config.getHedging().getPercentile());
+    Assertions.assertNull(config.getNetworking());
+  }
+
+  @Test
+  void rejectsInvalidEnvironmentValues() {
+    OneApiException exception =
+        Assertions.assertThrows(
+            OneApiException.class,
+            () ->
+                Config.loadConfigFromEnvironment(
+                    new Properties(),
+                    Collections.singletonMap("ONE_API_OFFLINE_ENABLED", "yes")));
+
+    Assertions.assertEquals(
+        "Invalid value for configuration key offline.enabled: yes", exception.getMessage());
+  }
+}
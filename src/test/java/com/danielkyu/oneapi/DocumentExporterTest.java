@@ -0,0 +1,148 @@
+package com.danielkyu.oneapi;
+
+import com.danielkyu.oneapi.params.CharacterParams;
+import com.danielkyu.oneapi.params.MovieParams;
+import com.danielkyu.oneapi.responses.CharacterResponse;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DocumentExporterTest {
+  private static final String PAGE_1 =
+      "{\"docs\":[{\"_id\":\"1\",\"name\":\"Frodo\"},{\"_id\":\"2\",\"name\":\"Sam\"}],"
+          + "\"total\":3,\"limit\":2,\"page\":1,\"pages\":2}";
+  private static final String PAGE_2 =
+      "{\"docs\":[{\"_id\":\"3\",\"name\":\"Gollum\"}],"
+          + "\"total\":3,\"limit\":2,\"page\":2,\"pages\":2}";
+
+  private MockWebServer server;
+  private OneApi oneApi;
+
+  @TempDir Path directory;
+
+  @BeforeEach
+  void beforeEach() throws IOException {
+    this.server = new MockWebServer();
+    this.server.start();
+    this.oneApi =
+        new OneApi(ConfigOptions.builder().baseUrl(this.server.url("/").url().toString()).build());
+  }
+
+  @AfterEach
+  void afterEach() throws IOException {
+    this.server.shutdown();
+  }
+
+  @Test
+  void exportWritesEveryPageAsNdjson() throws Exception {
+    this.server.enqueue(new MockResponse().setResponseCode(200).setBody(PAGE_1));
+    this.server.enqueue(new MockResponse().setResponseCode(200).setBody(PAGE_2));
+
+    Path path = this.directory.resolve("characters.ndjson");
+    ExportStats stats =
+        this.oneApi.export(
+            Resource.CHARACTER, new CharacterParams().withLimit(2), path, ExportFormat.NDJSON);
+
+    Assertions.assertEquals(
+        Arrays.asList(
+            "{\"_id\":\"1\",\"name\":\"Frodo\"}",
+            "{\"_id\":\"2\",\"name\":\"Sam\"}",
+            "{\"_id\":\"3\",\"name\":\"Gollum\"}"),
+        Files.readAllLines(path, StandardCharsets.UTF_8));
+    Assertions.assertEquals(2, stats.getPageCount());
+    Assertions.assertEquals(3, stats.getRecordCount());
+    Assertions.assertEquals(Files.size(path), stats.getByteCount());
+    Assertions.assertEquals(
+        "/character?page%3D1&offset%3D0&limit%3D2", this.server.takeRequest().getPath());
+    Assertions.assertEquals(
+        "/character?page%3D2&offset%3D0&limit%3D2", this.server.takeRequest().getPath());
+    Assertions.assertFalse(Files.exists(this.directory.resolve("characters.ndjson.progress")));
+  }
+
+  @Test
+  void exportWritesSmileDocuments() throws Exception {
+    this.server.enqueue(new MockResponse().setResponseCode(200).setBody(PAGE_1));
+    this.server.enqueue(new MockResponse().setResponseCode(200).setBody(PAGE_2));
+
+    Path path = this.directory.resolve("characters.smile");
+
+    this.oneApi.export(
+        Resource.CHARACTER, new CharacterParams().withLimit(2), path, ExportFormat.SMILE);
+
+    List<CharacterResponse.Character> characters = readSmile(path);
+
+    Assertions.assertEquals(3, characters.size());
+    Assertions.assertEquals("Gollum", characters.get(2).getName());
+  }
+
+  @Test
+  void exportResumesFromLastWrittenPage() throws Exception {
+    this.server.enqueue(new MockResponse().setResponseCode(200).setBody(PAGE_1));
+    this.server.enqueue(new MockResponse().setResponseCode(503));
+
+    Path path = this.directory.resolve("characters.smile");
+    CharacterParams params = new CharacterParams().withLimit(2);
+
+    Assertions.assertThrows(
+        OneApiException.class,
+        () -> this.oneApi.export(Resource.CHARACTER, params, path, ExportFormat.SMILE));
+    Assertions.assertTrue(Files.exists(this.directory.resolve("characters.smile.progress")));
+
+    this.server.enqueue(new MockResponse().setResponseCode(200).setBody(PAGE_2));
+
+    ExportStats stats = this.oneApi.export(Resource.CHARACTER, params, path, ExportFormat.SMILE);
+    List<CharacterResponse.Character> characters = readSmile(path);
+
+    Assertions.assertEquals(1, stats.getPageCount());
+    Assertions.assertEquals(3, characters.size());
+    Assertions.assertEquals("Frodo", characters.get(0).getName());
+    Assertions.assertEquals("Gollum", characters.get(2).getName());
+    Assertions.assertEquals(3, this.server.getRequestCount());
+  }
+
+  @Test
+  void exportStartsOverForDifferentQuery() throws Exception {
+    this.server.enqueue(new MockResponse().setResponseCode(200).setBody(PAGE_1));
+    this.server.enqueue(new MockResponse().setResponseCode(503));
+
+    Path path = this.directory.resolve("movies.ndjson");
+
+    Assertions.assertThrows(
+        OneApiException.class,
+        () -> this.oneApi.exportMovies(new MovieParams().withLimit(2), path, ExportFormat.NDJSON));
+
+    this.server.enqueue(
+        new MockResponse()
+            .setResponseCode(200)
+            .setBody("{\"docs\":[{\"_id\":\"9\"}],\"total\":1,\"limit\":5,\"pages\":1}"));
+
+    ExportStats stats =
+        this.oneApi.exportMovies(new MovieParams().withLimit(5), path, ExportFormat.NDJSON);
+
+    Assertions.assertEquals(1, stats.getRecordCount());
+    Assertions.assertEquals(
+        Arrays.asList("{\"_id\":\"9\"}"), Files.readAllLines(path, StandardCharsets.UTF_8));
+  }
+
+  private static List<CharacterResponse.Character> readSmile(Path path) throws IOException {
+    ObjectMapper mapper = new ObjectMapper(new SmileFactory());
+
+    try (MappingIterator<CharacterResponse.Character> iterator =
+        mapper.readerFor(CharacterResponse.Character.class).readValues(path.toFile())) {
+      return iterator.readAll();
+    }
+  }
+}
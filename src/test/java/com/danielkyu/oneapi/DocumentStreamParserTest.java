@@ -0,0 +1,87 @@
+package com.danielkyu.oneapi;
+
+import com.danielkyu.oneapi.responses.MovieResponse;
+import com.danielkyu.oneapi.responses.Pagination;
+import com.danielkyu.oneapi.responses.QuoteResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DocumentStreamParserTest {
+  @Test
+  void parseVisitsEachMovieAndReportsPagination() throws IOException {
+    List<MovieResponse.Movie> movies = new ArrayList<>();
+    Pagination pagination =
+        DocumentStreamParser.parse(
+            toStream(
+                "{\"total\": 8, \"docs\": [{\"_id\": \"100\", \"name\": \"The Two Towers\","
+                    + " \"academyAwardWins\": 2}, {\"_id\": \"200\", \"name\": \"The Return of"
+                    + " the King\"}], \"limit\": 2, \"offset\": 0, \"page\": 1, \"pages\": 4,"
+                    + " \"extra\": {\"ignored\": [1, 2]}}"),
+            MovieResponse.Movie.class,
+            movies::add);
+
+    Assertions.assertEquals(8, pagination.getTotal());
+    Assertions.assertEquals(2, pagination.getLimit());
+    Assertions.assertEquals(0, pagination.getOffset());
+    Assertions.assertEquals(1, pagination.getPage());
+    Assertions.assertEquals(4, pagination.getPages());
+    Assertions.assertEquals(2, movies.size());
+    Assertions.assertEquals("100", movies.get(0).getId());
+    Assertions.assertEquals("The Two Towers", movies.get(0).getName());
+    Assertions.assertEquals(2, movies.get(0).getAcademyAwardWins());
+    Assertions.assertEquals("The Return of the King", movies.get(1).getName());
+  }
+
+  @Test
+  void parseDeliversMoviesBeforeTheRestOfTheBodyIsRead() {
+    List<MovieResponse.Movie> movies = new ArrayList<>();
+
+    // The body is truncated after the first document; it must still reach the visitor.
+    Assertions.assertThrows(
+        IOException.class,
+        () ->
+            DocumentStreamParser.parse(
+                toStream("{\"docs\": [{\"_id\": \"100\", \"name\": \"The Two Towers\"}, {\"_id"),
+                MovieResponse.Movie.class,
+                movies::add));
+    Assertions.assertEquals(1, movies.size());
+  }
+
+  @Test
+  void parseDecodesAnyDocumentType() throws IOException {
+    List<QuoteResponse.Quote> quotes = new ArrayList<>();
+
+    DocumentStreamParser.parse(
+        toStream(
+            "{\"docs\": [{\"_id\": \"1\", \"dialog\": \"Deagol!\", \"movie\": \"2\","
+                + " \"character\": \"3\", \"id\": \"1\"}], \"total\": 1}"),
+        QuoteResponse.Quote.class,
+        quotes::add);
+
+    Assertions.assertEquals(1, quotes.size());
+    Assertions.assertEquals("Deagol!", quotes.get(0).getDialog());
+    Assertions.assertEquals("3", quotes.get(0).getCharacter());
+  }
+
+  @Test
+  void parseRejectsMalformedResponse() {
+    Assertions.assertThrows(
+        IOException.class,
+        () -> DocumentStreamParser.parse(toStream("[]"), MovieResponse.Movie.class, movie -> {}));
+    Assertions.assertThrows(
+        IOException.class,
+        () ->
+            DocumentStreamParser.parse(
+                toStream("{\"docs\": {}}"), MovieResponse.Movie.class, movie -> {}));
+  }
+
+  private static InputStream toStream(String json) {
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,143 @@
+package com.danielkyu.oneapi;
+
+import java.io.IOException;
+import okhttp3.Request;
+import okio.Timeout;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+public class HedgerTest {
+  /** A call that either responds as soon as it is enqueued or never responds on its own. */
+  private static class ScriptedCall implements Call<String> {
+    private final String body;
+    private final ScriptedCall clone;
+    private Callback<String> callback;
+    private boolean canceled;
+
+    ScriptedCall(String body, ScriptedCall clone) {
+      this.body = body;
+      this.clone = clone;
+    }
+
+    @Override
+    public Response<String> execute() throws IOException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void enqueue(Callback<String> callback) {
+      this.callback = callback;
+
+      if (this.body != null) {
+        callback.onResponse(this, Response.success(this.body));
+      }
+    }
+
+    @Override
+    public boolean isExecuted() {
+      return this.callback != null;
+    }
+
+    @Override
+    public void cancel() {
+      this.canceled = true;
+      this.callback.onFailure(this, new IOException("Canceled"));
+    }
+
+    @Override
+    public boolean isCanceled() {
+      return this.canceled;
+    }
+
+    @Override
+    public Call<String> clone() {
+      return this.clone;
+    }
+
+    @Override
+    public Request request() {
+      return new Request.Builder().url("http://localhost/").build();
+    }
+
+    @Override
+    public Timeout timeout() {
+      return Timeout.NONE;
+    }
+  }
+
+  /** A call that responds a few milliseconds after it is enqueued. */
+  private static final class DelayedCall extends ScriptedCall {
+    DelayedCall() {
+      super("delayed", null);
+    }
+
+    @Override
+    public void enqueue(Callback<String> callback) {
+      try {
+        Thread.sleep(5);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+
+      super.enqueue(callback);
+    }
+  }
+
+  @Test
+  void hedgesSlowRequestsAndCancelsTheLoser() throws Exception {
+    Hedger hedger = new Hedger(95, 100, 10);
+
+    for (int i = 0; i < 20; i++) {
+      Assertions.assertEquals("fast", hedger.enqueue(new ScriptedCall("fast", null)).get().body());
+    }
+
+    ScriptedCall slow = new ScriptedCall(null, new ScriptedCall("hedge", null));
+
+    Assertions.assertEquals("hedge", hedger.enqueue(slow).get().body());
+    Assertions.assertTrue(slow.isCanceled());
+    Assertions.assertEquals(1, hedger.stats().getHedgeCount());
+    Assertions.assertEquals(1, hedger.stats().getHedgeWinCount());
+  }
+
+  @Test
+  void doesNotHedgeBeyondBudget() throws Exception {
+    Hedger hedger = new Hedger(95, 5, 10);
+
+    for (int i = 0; i < 20; i++) {
+      hedger.enqueue(new ScriptedCall("fast", null)).get();
+    }
+
+    ScriptedCall first = new ScriptedCall(null, new ScriptedCall(null, null));
+    ScriptedCall second = new ScriptedCall(null, new ScriptedCall("hedge", null));
+
+    hedger.enqueue(first);
+    Thread.sleep(100);
+    hedger.enqueue(second);
+    Thread.sleep(100);
+
+    // 22 requests at a 5% budget allow a single hedge.
+    Assertions.assertEquals(1, hedger.stats().getHedgeCount());
+    Assertions.assertFalse(second.isCanceled());
+  }
+
+  @Test
+  void timesWinningHedgesFromTheirOwnStart() throws Exception {
+    Hedger hedger = new Hedger(1, 100, 0);
+
+    for (int i = 0; i < 63; i++) {
+      hedger.enqueue(new DelayedCall()).get();
+    }
+
+    Assertions.assertTrue(hedger.stats().getCurrentDelayMillis() >= 5);
+
+    ScriptedCall slow = new ScriptedCall(null, new ScriptedCall("hedge", null));
+
+    Assertions.assertEquals("hedge", hedger.enqueue(slow).get().body());
+
+    // The 64th sample is the hedge's own latency, not the hedge delay plus that latency.
+    Assertions.assertTrue(hedger.stats().getCurrentDelayMillis() < 5);
+  }
+}
@@ -0,0 +1,40 @@
+package com.danielkyu.oneapi;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+  @Test
+  void mapsValuesToBucketsWithBoundedError() {
+    for (long value = 0; value < 1_000_000; value += 7) {
+      long upperBound = LatencyHistogram.getUpperBound(LatencyHistogram.toIndex(value));
+
+      Assertions.assertTrue(upperBound >= value);
+      Assertions.assertTrue(upperBound - value <= value / 16, "value " + value);
+    }
+
+    Assertions.assertEquals(
+        LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.toIndex((1L << 41) - 1));
+  }
+
+  @Test
+  void reportsPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    Assertions.assertEquals(LatencyStats.EMPTY, histogram.stats());
+
+    for (int micros = 1; micros <= 1000; micros++) {
+      histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+    }
+
+    LatencyStats stats = histogram.stats();
+
+    Assertions.assertEquals(1000, stats.getCount());
+    Assertions.assertEquals(500, stats.getMeanMicros());
+    Assertions.assertEquals(500, stats.getP50Micros(), 500 / 16);
+    Assertions.assertEquals(900, stats.getP90Micros(), 900 / 16);
+    Assertions.assertEquals(990, stats.getP99Micros(), 990 / 16);
+    Assertions.assertEquals(1000, stats.getMaxMicros());
+  }
+}
@@ -0,0 +1,129 @@
+package com.danielkyu.oneapi;
+
+import com.danielkyu.oneapi.params.MovieParams;
+import com.danielkyu.oneapi.params.MovieParams.MovieAttribute;
+import com.danielkyu.oneapi.responses.MovieResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MovieIndexTest {
+  private static final MovieIndex INDEX =
+      new MovieIndex(
+          Arrays.asList(
+              createMovie("1", "The Lord of the Rings Series", 558, 281),
+              createMovie("2", "The Hobbit Series", 462, 675),
+              createMovie("3", "The Unexpected Journey", 169, 200),
+              createMovie("4", "The Desolation of Smaug", 161, 217),
+              createMovie("5", "The Battle of the Five Armies", 144, 250),
+              createMovie("6", "The Two Towers", 179, 94),
+              createMovie("7", "The Fellowship of the Ring", 178, 93),
+              createMovie("8", "The Return of the King", 201, 94)));
+
+  @Test
+  void queryEvaluatesNumericFilters() {
+    Assertions.assertEquals(
+        Arrays.asList("1", "2", "8"),
+        query(new MovieParams().withAttributeGreaterThan(MovieAttribute.RUNTIME_IN_MINUTES, 179)));
+    Assertions.assertEquals(
+        Arrays.asList("1", "2", "6", "8"),
+        query(
+            new MovieParams()
+                .withAttributeGreaterThanOrEqualTo(MovieAttribute.RUNTIME_IN_MINUTES, 179)));
+    Assertions.assertEquals(
+        Arrays.asList("4", "5"),
+        query(new MovieParams().withAttributeLessThan(MovieAttribute.RUNTIME_IN_MINUTES, 169)));
+    Assertions.assertEquals(
+        Arrays.asList("3", "4", "5"),
+        query(
+            new MovieParams()
+                .withAttributeLessThanOrEqualTo(MovieAttribute.RUNTIME_IN_MINUTES, 169)));
+    Assertions.assertEquals(
+        Arrays.asList("6", "8"),
+        query(new MovieParams().withAttributeEquals(MovieAttribute.BUDGET_IN_MILLIONS, 94)));
+    Assertions.assertEquals(
+        Arrays.asList("1", "2", "3", "4", "5", "7"),
+        query(new MovieParams().withAttributeNotEquals(MovieAttribute.BUDGET_IN_MILLIONS, 94)));
+    Assertions.assertEquals(
+        Arrays.asList("6", "7", "8"),
+        query(new MovieParams().withAttributeEquals(MovieAttribute.BUDGET_IN_MILLIONS, "93,94")));
+    Assertions.assertEquals(
+        Arrays.asList("6", "8"),
+        query(
+            new MovieParams()
+                .withAttributeGreaterThan(MovieAttribute.RUNTIME_IN_MINUTES, 170)
+                .withAttributeLessThan(MovieAttribute.BUDGET_IN_MILLIONS, 200)
+                .withAttributeNotEquals(MovieAttribute.ID, "7")));
+  }
+
+  @Test
+  void queryEvaluatesTextFilters() {
+    Assertions.assertEquals(
+        Arrays.asList("3"),
+        query(new MovieParams().withAttributeEquals(MovieAttribute.ID, "3")));
+    Assertions.assertEquals(
+        Arrays.asList("6"),
+        query(new MovieParams().withAttributeEquals(MovieAttribute.NAME, "The Two Towers")));
+    Assertions.assertEquals(
+        Arrays.asList("7", "8"),
+        query(new MovieParams().withAttributeEquals(MovieAttribute.NAME, "/(ring|king)$/i")));
+    Assertions.assertEquals(
+        Arrays.asList("1", "2", "3", "4", "5", "6"),
+        query(new MovieParams().withAttributeNotEquals(MovieAttribute.NAME, "/(ring|king)$/i")));
+    Assertions.assertEquals(
+        Arrays.asList(),
+        query(new MovieParams().withAttributeEquals(MovieAttribute.NAME, "/ring$/")));
+  }
+
+  @Test
+  void queryPaginatesLikeTheServer() {
+    MovieResponse response = INDEX.query(new MovieParams().withLimit(3).withPage(3).toQueryList());
+
+    Assertions.assertEquals(8, response.getTotal());
+    Assertions.assertEquals(3, response.getLimit());
+    Assertions.assertEquals(6, response.getOffset());
+    Assertions.assertEquals(3, response.getPage());
+    Assertions.assertEquals(3, response.getPages());
+    Assertions.assertEquals(2, response.getMovies().size());
+
+    // A non-zero offset takes precedence over the page.
+    response = INDEX.query(new MovieParams().withLimit(3).withPage(3).withOffset(1).toQueryList());
+
+    Assertions.assertEquals(1, response.getOffset());
+    Assertions.assertEquals(1, response.getPage());
+    Assertions.assertEquals("2", response.getMovies().get(0).getId());
+  }
+
+  @Test
+  void queryRejectsUnsupportedFilters() {
+    Assertions.assertThrows(
+        OneApiException.class,
+        () -> query(new MovieParams().withAttributeGreaterThan(MovieAttribute.NAME, "A")));
+    Assertions.assertThrows(
+        OneApiException.class,
+        () ->
+            query(new MovieParams().withAttributeEquals(MovieAttribute.RUNTIME_IN_MINUTES, "x")));
+    Assertions.assertThrows(
+        OneApiException.class,
+        () -> query(new MovieParams().withAttributeEquals(MovieAttribute.NAME, "/(/i")));
+  }
+
+  private static List<String> query(MovieParams movieParams) {
+    return INDEX.query(movieParams.withLimit(100).toQueryList()).getMovies().stream()
+        .map(MovieResponse.Movie::getId)
+        .collect(Collectors.toList());
+  }
+
+  private static MovieResponse.Movie createMovie(
+      String id, String name, int runtimeInMinutes, int budgetInMillions) {
+    MovieResponse.Movie movie = new MovieResponse.Movie();
+
+    movie.setId(id);
+    movie.setName(name);
+    movie.setRuntimeInMinutes(runtimeInMinutes);
+    movie.setBudgetInMillions(budgetInMillions);
+    return movie;
+  }
+}
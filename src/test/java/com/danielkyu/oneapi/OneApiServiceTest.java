@@ -1,14 +1,28 @@
 package com.danielkyu.oneapi;
 
+import com.google.common.base.Ticker;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Cache;
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
+import okhttp3.Response;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class OneApiServiceTest {
   private MockWebServer server;
@@ -40,4 +54,166 @@ public class OneApiServiceTest {
 
     Assertions.assertEquals("Bearer api-key", this.server.takeRequest().getHeader("Authorization"));
   }
+
+  @Test
+  void retriesThrottledRequestsAfterRetryAfter() throws IOException {
+    RateLimiter rateLimiter =
+        new RateLimiter(100, Duration.ofSeconds(1), 10, 3, Ticker.systemTicker());
+
+    this.server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "0"));
+    this.server.enqueue(new MockResponse().setBody("body"));
+
+    OkHttpClient okHttpClient =
+        new OkHttpClient.Builder()
+            .addInterceptor(new OneApiService.RateLimitingInterceptor(rateLimiter))
+            .build();
+
+    try (Response response =
+        okHttpClient
+            .newCall(new Request.Builder().url(this.server.url("/")).get().build())
+            .execute()) {
+      Assertions.assertEquals(200, response.code());
+    }
+
+    Assertions.assertEquals(2, this.server.getRequestCount());
+    Assertions.assertEquals(1, rateLimiter.stats().getThrottledCount());
+    Assertions.assertEquals(1, rateLimiter.stats().getRetryCount());
+  }
+
+  @Test
+  void doesNotPaceResponsesServedFromTheHttpCache(@TempDir Path directory) throws IOException {
+    RateLimiter rateLimiter =
+        new RateLimiter(1, Duration.ofMinutes(1), 1, 0, Ticker.systemTicker());
+
+    this.server.enqueue(new MockResponse().setHeader("Cache-Control", "max-age=60").setBody("a"));
+
+    OkHttpClient okHttpClient =
+        new OkHttpClient.Builder()
+            .cache(new Cache(directory.toFile(), 1024 * 1024))
+            .addNetworkInterceptor(new OneApiService.PacingInterceptor(rateLimiter))
+            .build();
+    Request request = new Request.Builder().url(this.server.url("/")).get().build();
+
+    for (int i = 0; i < 3; i++) {
+      try (Response response = okHttpClient.newCall(request).execute()) {
+        Assertions.assertEquals("a", response.body().string());
+      }
+    }
+
+    Assertions.assertEquals(1, this.server.getRequestCount());
+    Assertions.assertEquals(0, rateLimiter.stats().getDelayedCount());
+  }
+
+  @Test
+  void delaysAsynchronousCallsWithoutHoldingDispatcherThreads() throws Exception {
+    RateLimiter rateLimiter =
+        new RateLimiter(1, Duration.ofMillis(500), 1, 0, Ticker.systemTicker());
+
+    this.server.enqueue(new MockResponse().setBody("a"));
+    this.server.enqueue(new MockResponse().setBody("b"));
+
+    OkHttpClient okHttpClient =
+        new OkHttpClient.Builder()
+            .addNetworkInterceptor(new OneApiService.PacingInterceptor(rateLimiter))
+            .build();
+    RateLimitedCallFactory callFactory = new RateLimitedCallFactory(okHttpClient, rateLimiter);
+    CompletableFuture<String> first = enqueue(callFactory);
+    CompletableFuture<String> second = enqueue(callFactory);
+
+    // The second call waits for its permit outside of the dispatcher.
+    Assertions.assertEquals(1, rateLimiter.stats().getQueueDepth());
+    Assertions.assertTrue(okHttpClient.dispatcher().runningCallsCount() <= 1);
+    Assertions.assertEquals("a", first.get(5, TimeUnit.SECONDS));
+    Assertions.assertEquals("b", second.get(5, TimeUnit.SECONDS));
+    Assertions.assertEquals(1, rateLimiter.stats().getDelayedCount());
+    rateLimiter.close();
+  }
+
+  private CompletableFuture<String> enqueue(Call.Factory callFactory) {
+    CompletableFuture<String> body = new CompletableFuture<>();
+
+    callFactory
+        .newCall(new Request.Builder().url(this.server.url("/")).get().build())
+        .enqueue(
+            new Callback() {
+              @Override
+              public void onResponse(Call call, Response response) throws IOException {
+                try (Response closeable = response) {
+                  body.complete(closeable.body().string());
+                }
+              }
+
+              @Override
+              public void onFailure(Call call, IOException e) {
+                body.completeExceptionally(e);
+              }
+            });
+
+    return body;
+  }
+
+  @Test
+  void parsesRetryAfterDelay() {
+    Response response =
+        new Response.Builder()
+            .request(new Request.Builder().url(this.server.url("/")).build())
+            .protocol(Protocol.HTTP_1_1)
+            .code(429)
+            .message("Too Many Requests")
+            .header("Retry-After", "7")
+            .build();
+
+    Assertions.assertEquals(
+        Duration.ofSeconds(7), OneApiService.RateLimitingInterceptor.getRetryDelay(response, 0));
+    Assertions.assertEquals(
+        Duration.ofSeconds(4),
+        OneApiService.RateLimitingInterceptor.getRetryDelay(
+            response.newBuilder().removeHeader("Retry-After").build(), 2));
+  }
+
+  @Test
+  void prewarmsConnectionsWithoutCredentials() throws Exception {
+    this.server.enqueue(new MockResponse());
+    this.server.enqueue(new MockResponse());
+
+    List<AutoCloseable> closeables = new ArrayList<>();
+
+    OneApiService.create(
+        new Config(),
+        ConfigOptions.builder()
+            .apiKey("api-key")
+            .baseUrl(this.server.url("/v2/").toString())
+            .prewarmConnections(2)
+            .build(),
+        null,
+        null,
+        closeables::add);
+
+    for (int i = 0; i < 2; i++) {
+      RecordedRequest request = this.server.takeRequest(5, TimeUnit.SECONDS);
+
+      Assertions.assertEquals("HEAD", request.getMethod());
+      Assertions.assertEquals("/v2/", request.getPath());
+      Assertions.assertNull(request.getHeader("Authorization"));
+    }
+
+    for (AutoCloseable closeable : closeables) {
+      closeable.close();
+    }
+  }
+
+  @Test
+  void stopsWarmingConnectionsOnceClosed() throws Exception {
+    ConnectionWarmer warmer =
+        ConnectionWarmer.start(new OkHttpClient(), this.server.url("/"), 1, 20);
+
+    this.server.takeRequest(5, TimeUnit.SECONDS);
+    warmer.close();
+    Thread.sleep(100);
+
+    int requestCount = this.server.getRequestCount();
+
+    Thread.sleep(100);
+    Assertions.assertEquals(requestCount, this.server.getRequestCount());
+  }
 }
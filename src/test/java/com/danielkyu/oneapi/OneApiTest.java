@@ -1,15 +1,51 @@
 package com.danielkyu.oneapi;
 
+import com.danielkyu.oneapi.params.BookParams;
+import com.danielkyu.oneapi.params.CharacterParams;
 import com.danielkyu.oneapi.params.MovieParams;
+import com.danielkyu.oneapi.params.QuoteParams;
+import com.danielkyu.oneapi.params.ResourceQuery;
+import com.danielkyu.oneapi.responses.BookResponse;
+import com.danielkyu.oneapi.responses.CharacterResponse;
+import com.danielkyu.oneapi.responses.MovieBatch;
 import com.danielkyu.oneapi.responses.MovieResponse;
+import com.danielkyu.oneapi.responses.Pagination;
+import com.danielkyu.oneapi.responses.QuoteResponse;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 
 public class OneApiTest {
   private static final String TEST_MOVIE_RESPONSE =
@@ -74,6 +110,466 @@ public class OneApiTest {
     Assertions.assertEquals("Failed to get movie data.", exception.getMessage());
   }
 
+  @Test
+  void visitMoviesStreamsEachMovie() {
+    this.server.enqueue(new MockResponse().setResponseCode(200).setBody(TEST_MOVIE_RESPONSE));
+
+    OneApi oneApi =
+        new OneApi(ConfigOptions.builder().baseUrl(this.server.url("/").url().toString()).build());
+    List<MovieResponse.Movie> movies = new ArrayList<>();
+    Pagination pagination = oneApi.visitMovies(new MovieParams(), movies::add);
+
+    Assertions.assertEquals(3, pagination.getTotal());
+    Assertions.assertEquals(10, pagination.getLimit());
+    Assertions.assertEquals(1, pagination.getPage());
+    Assertions.assertEquals(
+        Arrays.asList("100", "200", "300"),
+        movies.stream().map(MovieResponse.Movie::getId).collect(Collectors.toList()));
+  }
+
+  @Test
+  void getMovieBatchDecodesColumns() {
+    this.server.enqueue(new MockResponse().setResponseCode(200).setBody(TEST_MOVIE_RESPONSE));
+
+    OneApi oneApi =
+        new OneApi(ConfigOptions.builder().baseUrl(this.server.url("/").url().toString()).build());
+    MovieBatch batch = oneApi.getMovieBatch(new MovieParams());
+
+    Assertions.assertEquals(3, batch.size());
+    Assertions.assertEquals(3, batch.getPagination().getTotal());
+    Assertions.assertEquals("200", batch.getId(1));
+    Assertions.assertEquals("The Hobbit Series", batch.getName(1));
+  }
+
+  @Test
+  void visitMoviesFailure() {
+    this.server.enqueue(new MockResponse().setResponseCode(500).setBody("{}"));
+
+    OneApi oneApi =
+        new OneApi(ConfigOptions.builder().baseUrl(this.server.url("/").url().toString()).build());
+    OneApiException exception =
+        Assertions.assertThrows(
+            OneApiException.class, () -> oneApi.visitMovies(new MovieParams(), movie -> {}));
+
+    Assertions.assertEquals(
+        "Failed to get movie data: Server returned 500", exception.getMessage());
+  }
+
+  @Test
+  void syncMoviesAnswersQueriesLocally() throws Exception {
+    this.server.enqueue(new MockResponse().setResponseCode(200).setBody(TEST_MOVIE_RESPONSE));
+
+    OneApi oneApi =
+        new OneApi(ConfigOptions.builder().baseUrl(this.server.url("/").url().toString()).build());
+
+    Assertions.assertEquals(3, oneApi.syncMovies());
+    Assertions.assertEquals(
+        "movie?page%3D1&offset%3D0&limit%3D1000", this.server.takeRequest().getPath().substring(1));
+
+    MovieResponse response =
+        oneApi.getMovies(
+            new MovieParams().withAttributeEquals(MovieParams.MovieAttribute.NAME, "/series/i"));
+
+    Assertions.assertEquals(2, response.getTotal());
+    Assertions.assertEquals("200", response.getMovies().get(1).getId());
+    Assertions.assertEquals(
+        "The Unexpected Journey",
+        oneApi
+            .getMoviesAsync(
+                new MovieParams().withAttributeEquals(MovieParams.MovieAttribute.ID, "300"))
+            .get()
+            .getMovies()
+            .get(0)
+            .getName());
+    Assertions.assertEquals(1, this.server.getRequestCount());
+  }
+
+  @Test
+  void offlineModeSyncsOnFirstQuery() throws Exception {
+    this.server.enqueue(new MockResponse().setResponseCode(500).setBody("{}"));
+    this.server.enqueue(new MockResponse().setResponseCode(200).setBody(TEST_MOVIE_RESPONSE));
+
+    OneApi oneApi =
+        new OneApi(
+            ConfigOptions.builder()
+                .baseUrl(this.server.url("/").url().toString())
+                .offlineEnabled(true)
+                .build());
+    ExecutionException exception =
+        Assertions.assertThrows(
+            ExecutionException.class, () -> oneApi.getMoviesAsync(new MovieParams()).get());
+
+    Assertions.assertEquals(
+        "Failed to get movie data: Server returned 500", exception.getCause().getMessage());
+    Assertions.assertEquals(3, oneApi.getMovies(new MovieParams().withLimit(1)).getPages());
+    Assertions.assertEquals(3, oneApi.getMovies(new MovieParams()).getTotal());
+    Assertions.assertEquals(2, this.server.getRequestCount());
+  }
+
+  @Test
+  void snapshotServesCachedResponsesAfterRestart(@TempDir Path directory) {
+    this.server.enqueue(new MockResponse().setResponseCode(200).setBody(TEST_MOVIE_RESPONSE));
+
+    ConfigOptions configOptions =
+        ConfigOptions.builder()
+            .baseUrl(this.server.url("/").url().toString())
+            .cacheEnabled(true)
+            .snapshotPath(directory.resolve("snapshot.bin"))
+            .snapshotInterval(Duration.ZERO)
+            .build();
+    OneApi oneApi = new OneApi(configOptions);
+    MovieResponse response = oneApi.getMovies(new MovieParams());
+
+    Assertions.assertEquals(1, oneApi.saveSnapshot());
+
+    // A new instance restores the cache from the snapshot and serves it without a network call.
+    OneApi restarted = new OneApi(configOptions);
+
+    Assertions.assertEquals(1, restarted.getCacheStats().getSize());
+    Assertions.assertEquals(response, restarted.getMovies(new MovieParams()));
+    Assertions.assertEquals(1, this.server.getRequestCount());
+  }
+
+  @Test
+  void closeWritesFinalSnapshot(@TempDir Path directory) {
+    this.server.enqueue(new MockResponse().setResponseCode(200).setBody(TEST_MOVIE_RESPONSE));
+
+    ConfigOptions configOptions =
+        ConfigOptions.builder()
+            .baseUrl(this.server.url("/").url().toString())
+            .cacheEnabled(true)
+            .hedgingEnabled(true)
+            .snapshotPath(directory.resolve("snapshot.bin"))
+            .snapshotInterval(Duration.ofHours(1))
+            .build();
+
+    try (OneApi oneApi = new OneApi(configOptions)) {
+      oneApi.getMovies(new MovieParams());
+    }
+
+    // Nothing was written by the periodic save, so the restored entry comes from closing.
+    try (OneApi restarted = new OneApi(configOptions)) {
+      Assertions.assertEquals(1, restarted.getCacheStats().getSize());
+    }
+  }
+
+  @Test
+  void fastStartBuildsClientOnFirstCall() throws Exception {
+    this.server.enqueue(new MockResponse().setResponseCode(200).setBody(TEST_MOVIE_RESPONSE));
+
+    ConfigOptions.ConfigOptionsBuilder builder =
+        ConfigOptions.builder().baseUrl(this.server.url("/").url().toString()).fastStart(true);
+
+    // Without the configuration file there is no API key, which is only noticed on first use.
+    OneApi unconfigured = new OneApi(builder.build());
+
+    OneApiException exception =
+        Assertions.assertThrows(
+            OneApiException.class, () -> unconfigured.getMovies(new MovieParams()));
+
+    Assertions.assertEquals("No API key was provided.", exception.getMessage());
+
+    OneApi oneApi = new OneApi(builder.apiKey("api-key").build());
+
+    oneApi.warmUp().get();
+    Assertions.assertEquals(3, oneApi.getMovies(new MovieParams()).getTotal());
+    Assertions.assertEquals("Bearer api-key", this.server.takeRequest().getHeader("Authorization"));
+  }
+
+  @Test
+  void getMoviesServesRepeatedQueriesFromCache() throws Exception {
+    this.server.enqueue(new MockResponse().setResponseCode(200).setBody(TEST_MOVIE_RESPONSE));
+
+    OneApi oneApi =
+        new OneApi(
+            ConfigOptions.builder()
+                .baseUrl(this.server.url("/").url().toString())
+                .cacheEnabled(true)
+                .build());
+    MovieResponse first = oneApi.getMovies(new MovieParams());
+    CompletableFuture<MovieResponse> second = new CompletableFuture<>();
+
+    oneApi.getMovies(
+        new MovieParams(),
+        new Callback<MovieResponse>() {
+          @Override
+          public void onSuccess(int status, MovieResponse response) {
+            second.complete(response);
+          }
+        });
+
+    Assertions.assertSame(first, second.get());
+    Assertions.assertEquals(1, this.server.getRequestCount());
+    Assertions.assertEquals(1, oneApi.getCacheStats().getHitCount());
+    Assertions.assertEquals(1, oneApi.getCacheStats().getMissCount());
+  }
+
+  @Test
+  void getMoviesCoalescesIdenticalInFlightRequests() throws Exception {
+    this.server.enqueue(
+        new MockResponse()
+            .setResponseCode(200)
+            .setBody(TEST_MOVIE_RESPONSE)
+            .setHeadersDelay(500, TimeUnit.MILLISECONDS));
+
+    OneApi oneApi =
+        new OneApi(ConfigOptions.builder().baseUrl(this.server.url("/").url().toString()).build());
+    CompletableFuture<MovieResponse> leader = new CompletableFuture<>();
+    CompletableFuture<MovieResponse> follower = new CompletableFuture<>();
+
+    oneApi.getMovies(
+        new MovieParams(),
+        new Callback<MovieResponse>() {
+          @Override
+          public void onSuccess(int status, MovieResponse response) {
+            leader.complete(response);
+          }
+        });
+    oneApi.getMovies(
+        new MovieParams(),
+        new Callback<MovieResponse>() {
+          @Override
+          public void onSuccess(int status, MovieResponse response) {
+            follower.complete(response);
+          }
+        });
+
+    MovieResponse response = oneApi.getMovies(new MovieParams());
+
+    Assertions.assertSame(response, leader.get());
+    Assertions.assertSame(response, follower.get());
+    Assertions.assertEquals(1, this.server.getRequestCount());
+    Assertions.assertEquals(2, oneApi.getCoalescedRequestCount());
+  }
+
+  @Test
+  void getMoviesAsyncSuccess() throws Exception {
+    this.server.enqueue(new MockResponse().setResponseCode(200).setBody(TEST_MOVIE_RESPONSE));
+
+    OneApi oneApi =
+        new OneApi(ConfigOptions.builder().baseUrl(this.server.url("/").url().toString()).build());
+    MovieResponse response = oneApi.getMoviesAsync(new MovieParams()).get();
+
+    Assertions.assertEquals(3, response.getTotal());
+    Assertions.assertEquals("100", response.getMovies().get(0).getId());
+  }
+
+  @Test
+  void getMoviesAsyncFailsOnceDeadlineElapses() {
+    this.server.enqueue(
+        new MockResponse()
+            .setResponseCode(200)
+            .setBody(TEST_MOVIE_RESPONSE)
+            .setHeadersDelay(2, TimeUnit.SECONDS));
+
+    OneApi oneApi =
+        new OneApi(ConfigOptions.builder().baseUrl(this.server.url("/").url().toString()).build());
+    CompletableFuture<MovieResponse> result =
+        oneApi.getMoviesAsync(
+            new MovieParams(), CallOptions.builder().timeout(Duration.ofMillis(100)).build());
+    ExecutionException exception = Assertions.assertThrows(ExecutionException.class, result::get);
+
+    Assertions.assertTrue(exception.getCause() instanceof OneApiException);
+    Assertions.assertEquals("Failed to get movie data.", exception.getCause().getMessage());
+  }
+
+  @Test
+  void getMoviesAsyncDeliversResultsOnCallbackExecutor() throws Exception {
+    this.server.enqueue(new MockResponse().setResponseCode(200).setBody(TEST_MOVIE_RESPONSE));
+
+    ExecutorService callbackExecutor =
+        Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "callback-thread"));
+    OneApi oneApi =
+        new OneApi(
+            ConfigOptions.builder()
+                .baseUrl(this.server.url("/").url().toString())
+                .callbackExecutor(callbackExecutor)
+                .maxRequestsPerHost(1)
+                .build());
+
+    try {
+      String thread =
+          oneApi
+              .getMoviesAsync(new MovieParams())
+              .thenApply(response -> Thread.currentThread().getName())
+              .get();
+
+      Assertions.assertEquals("callback-thread", thread);
+    } finally {
+      callbackExecutor.shutdown();
+    }
+  }
+
+  @Test
+  void streamMoviesFetchesEveryPage() {
+    this.server.setDispatcher(createPagedDispatcher(3));
+
+    OneApi oneApi =
+        new OneApi(
+            ConfigOptions.builder()
+                .baseUrl(this.server.url("/").url().toString())
+                .prefetchDepth(2)
+                .build());
+    List<String> ids;
+
+    try (Stream<MovieResponse.Movie> movies = oneApi.streamMovies(new MovieParams().withLimit(1))) {
+      ids = movies.map(MovieResponse.Movie::getId).collect(Collectors.toList());
+    }
+
+    Assertions.assertEquals(Arrays.asList("1", "2", "3"), ids);
+    Assertions.assertEquals(3, this.server.getRequestCount());
+  }
+
+  @Test
+  void streamMoviesWithoutPrefetchFetchesPagesOnDemand() throws Exception {
+    this.server.setDispatcher(createPagedDispatcher(3));
+
+    OneApi oneApi =
+        new OneApi(
+            ConfigOptions.builder()
+                .baseUrl(this.server.url("/").url().toString())
+                .prefetchDepth(0)
+                .build());
+
+    try (Stream<MovieResponse.Movie> movies = oneApi.streamMovies(new MovieParams().withLimit(1))) {
+      Iterator<MovieResponse.Movie> iterator = movies.iterator();
+
+      Assertions.assertEquals("1", iterator.next().getId());
+      Thread.sleep(100);
+      Assertions.assertEquals(1, this.server.getRequestCount());
+      Assertions.assertEquals("2", iterator.next().getId());
+      Assertions.assertEquals(2, this.server.getRequestCount());
+    }
+  }
+
+  @Test
+  void publishMoviesFetchesPagesOnDemand() throws Exception {
+    this.server.setDispatcher(createPagedDispatcher(5));
+
+    OneApi oneApi =
+        new OneApi(ConfigOptions.builder().baseUrl(this.server.url("/").url().toString()).build());
+    BlockingQueue<String> ids = new LinkedBlockingQueue<>();
+    CountDownLatch completed = new CountDownLatch(1);
+    AtomicReference<Subscription> subscription = new AtomicReference<>();
+    Subscriber<MovieResponse.Movie> subscriber =
+        new Subscriber<MovieResponse.Movie>() {
+          @Override
+          public void onSubscribe(Subscription s) {
+            subscription.set(s);
+          }
+
+          @Override
+          public void onNext(MovieResponse.Movie movie) {
+            ids.add(movie.getId());
+          }
+
+          @Override
+          public void onError(Throwable error) {
+            ids.add(error.toString());
+          }
+
+          @Override
+          public void onComplete() {
+            completed.countDown();
+          }
+        };
+
+    oneApi.publishMovies(new MovieParams().withLimit(1)).subscribe(subscriber);
+    Assertions.assertEquals(0, this.server.getRequestCount());
+
+    subscription.get().request(1);
+    Assertions.assertEquals("1", ids.poll(5, TimeUnit.SECONDS));
+
+    subscription.get().request(2);
+    Assertions.assertEquals("2", ids.poll(5, TimeUnit.SECONDS));
+    Assertions.assertEquals("3", ids.poll(5, TimeUnit.SECONDS));
+
+    // Without further demand no further pages are requested, and cancelling ends the stream.
+    subscription.get().cancel();
+    Assertions.assertNull(ids.poll(200, TimeUnit.MILLISECONDS));
+    Assertions.assertEquals(3, this.server.getRequestCount());
+    Assertions.assertEquals(1, completed.getCount());
+
+    // Every subscriber walks the result set on its own.
+    oneApi.publishMovies(new MovieParams().withLimit(1)).subscribe(subscriber);
+    subscription.get().request(Long.MAX_VALUE);
+
+    Assertions.assertTrue(completed.await(5, TimeUnit.SECONDS));
+    Assertions.assertEquals(Arrays.asList("1", "2", "3", "4", "5"), new ArrayList<>(ids));
+  }
+
+  @Test
+  void getAllMoviesMergesPagesInOrder() {
+    this.server.setDispatcher(createPagedDispatcher(5));
+
+    OneApi oneApi =
+        new OneApi(ConfigOptions.builder().baseUrl(this.server.url("/").url().toString()).build());
+    List<String> ids =
+        oneApi.getAllMovies(new MovieParams().withLimit(1), 3).stream()
+            .map(MovieResponse.Movie::getId)
+            .collect(Collectors.toList());
+
+    Assertions.assertEquals(Arrays.asList("1", "2", "3", "4", "5"), ids);
+    Assertions.assertEquals(5, this.server.getRequestCount());
+  }
+
+  @Test
+  void getFetchesNestedResources() throws Exception {
+    this.server.enqueue(
+        new MockResponse()
+            .setResponseCode(200)
+            .setBody(
+                "{\"docs\":[{\"_id\": \"1\", \"dialog\": \"My precious.\", \"movie\":"
+                    + " \"100\", \"character\": \"7\", \"id\": \"1\"}], \"total\": 1,"
+                    + " \"limit\": 10, \"offset\": 0, \"page\": 1, \"pages\": 1}"));
+
+    OneApi oneApi =
+        new OneApi(
+            ConfigOptions.builder()
+                .baseUrl(this.server.url("/").url().toString())
+                .cacheEnabled(true)
+                .build());
+    QuoteResponse first = oneApi.get(Resource.movieQuotes("100"), new QuoteParams());
+    QuoteResponse second = oneApi.getAsync(Resource.movieQuotes("100"), new QuoteParams()).get();
+
+    Assertions.assertEquals(
+        "/movie/100/quote?page%3D1&offset%3D0&limit%3D10", this.server.takeRequest().getPath());
+    Assertions.assertEquals("My precious.", first.getDocs().get(0).getDialog());
+    Assertions.assertSame(first, second);
+    Assertions.assertEquals(1, this.server.getRequestCount());
+  }
+
+  @Test
+  void getAllMergesPagesOfAnyResource() throws Exception {
+    this.server.setDispatcher(createPagedDispatcher(4));
+
+    OneApi oneApi =
+        new OneApi(ConfigOptions.builder().baseUrl(this.server.url("/").url().toString()).build());
+    List<String> ids =
+        oneApi.getAll(Resource.CHARACTER, new CharacterParams().withLimit(1), 2).stream()
+            .map(CharacterResponse.Character::getId)
+            .collect(Collectors.toList());
+
+    Assertions.assertEquals(Arrays.asList("1", "2", "3", "4"), ids);
+    Assertions.assertTrue(this.server.takeRequest().getPath().startsWith("/character?"));
+  }
+
+  @Test
+  void visitStreamsAnyResource() {
+    this.server.enqueue(
+        new MockResponse()
+            .setResponseCode(200)
+            .setBody("{\"docs\":[{\"_id\": \"1\", \"name\": \"The Two Towers\"}], \"total\": 1}"));
+
+    OneApi oneApi =
+        new OneApi(ConfigOptions.builder().baseUrl(this.server.url("/").url().toString()).build());
+    List<BookResponse.Book> books = new ArrayList<>();
+    Pagination pagination = oneApi.visit(Resource.BOOK, new BookParams(), books::add);
+
+    Assertions.assertEquals(1, pagination.getTotal());
+    Assertions.assertEquals("The Two Towers", books.get(0).getName());
+  }
+
   @Test
   void getMoviesAsynchronousSuccess() throws Exception {
     this.server.enqueue(new MockResponse().setResponseCode(200).setBody(TEST_MOVIE_RESPONSE));
@@ -192,4 +688,297 @@ public class OneApiTest {
 
     result.get();
   }
+
+  /**
+   * Creates a dispatcher that serves a result set of one movie per page. Later pages respond faster
+   * than earlier ones so that concurrently fetched pages complete out of order.
+   */
+  private static Dispatcher createPagedDispatcher(int pages) {
+    return new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) {
+        for (int page = 1; page <= pages; page++) {
+          if (request.getPath().contains("page%3D" + page + "&")) {
+            return new MockResponse()
+                .setResponseCode(200)
+                .setHeadersDelay((pages - page) * 20, TimeUnit.MILLISECONDS)
+                .setBody(
+                    String.format(
+                        "{\"docs\":[{\"_id\": \"%d\"}], \"total\": %d, \"limit\": 1,"
+                            + " \"page\": %d, \"pages\": %d}",
+                        page, pages, page, pages));
+          }
+        }
+
+        return new MockResponse().setResponseCode(404);
+      }
+    };
+  }
+
+  @Test
+  void recordsMetricsPerEndpoint() {
+    this.server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "0"));
+    this.server.enqueue(new MockResponse().setResponseCode(200).setBody(TEST_MOVIE_RESPONSE));
+    this.server.enqueue(new MockResponse().setResponseCode(404));
+
+    InMemoryMetricsSink metricsSink = new InMemoryMetricsSink();
+    OneApi oneApi =
+        new OneApi(
+            ConfigOptions.builder()
+                .baseUrl(this.server.url("/").url().toString())
+                .cacheEnabled(true)
+                .rateLimitRequests(100)
+                .metricsSink(metricsSink)
+                .build());
+
+    oneApi.getMovies(new MovieParams());
+    oneApi.getMovies(new MovieParams());
+    Assertions.assertThrows(
+        OneApiException.class, () -> oneApi.get(Resource.movieQuotes("100"), new QuoteParams()));
+
+    MetricsSnapshot.EndpointMetrics movies = metricsSink.snapshot().getEndpoints().get("movie");
+    MetricsSnapshot.EndpointMetrics quotes =
+        metricsSink.snapshot().getEndpoints().get("movie/{id}/quote");
+
+    Assertions.assertEquals(0, movies.getInFlightCount());
+    Assertions.assertEquals(1, movies.getCacheHitCount());
+    Assertions.assertEquals(1, movies.getRetryCount());
+    Assertions.assertEquals(Collections.singletonMap(200, 1L), movies.getStatusCounts());
+    Assertions.assertEquals(1, movies.getLatency().getCount());
+    Assertions.assertEquals(1, movies.getPhases().get(MetricsSink.Phase.CONNECT).getCount());
+    Assertions.assertEquals(
+        2, movies.getPhases().get(MetricsSink.Phase.TIME_TO_FIRST_BYTE).getCount());
+    Assertions.assertEquals(1, movies.getPhases().get(MetricsSink.Phase.DECODE).getCount());
+    Assertions.assertEquals(Collections.singletonMap(404, 1L), quotes.getStatusCounts());
+    Assertions.assertEquals(0, quotes.getInFlightCount());
+  }
+
+  @Test
+  void recordsMetricsAlongsideApplicationEventListeners() {
+    this.server.enqueue(new MockResponse().setResponseCode(200).setBody(TEST_MOVIE_RESPONSE));
+
+    AtomicInteger applicationCallEnds = new AtomicInteger();
+    OkHttpClient okHttpClient =
+        new OkHttpClient.Builder()
+            .eventListener(
+                new EventListener() {
+                  @Override
+                  public void callEnd(Call call) {
+                    applicationCallEnds.incrementAndGet();
+                  }
+                })
+            .build();
+    InMemoryMetricsSink metricsSink = new InMemoryMetricsSink();
+    OneApi oneApi =
+        new OneApi(
+            ConfigOptions.builder()
+                .baseUrl(this.server.url("/").url().toString())
+                .okHttpClient(okHttpClient)
+                .metricsSink(metricsSink)
+                .build());
+
+    oneApi.getMovies(new MovieParams());
+
+    Assertions.assertEquals(1, applicationCallEnds.get());
+    Assertions.assertEquals(
+        Collections.singletonMap(200, 1L),
+        metricsSink.snapshot().getEndpoints().get("movie").getStatusCounts());
+  }
+
+  @Test
+  void equivalentQueriesShareCachedResponses() throws Exception {
+    this.server.enqueue(new MockResponse().setResponseCode(200).setBody(TEST_MOVIE_RESPONSE));
+
+    OneApi oneApi =
+        new OneApi(
+            ConfigOptions.builder()
+                .baseUrl(this.server.url("/").url().toString())
+                .cacheEnabled(true)
+                .build());
+    ResourceQuery<MovieParams> query =
+        new MovieParams()
+            .withAttributeEquals(MovieParams.MovieAttribute.NAME, "/ring/i")
+            .withAttributeLessThan(MovieParams.MovieAttribute.RUNTIME_IN_MINUTES, 200)
+            .build();
+    MovieResponse response = oneApi.getMovies(query);
+
+    Assertions.assertSame(
+        response,
+        oneApi.getMovies(
+            new MovieParams()
+                .withAttributeLessThan(MovieParams.MovieAttribute.RUNTIME_IN_MINUTES, 200.0)
+                .withAttributeEquals(MovieParams.MovieAttribute.NAME, "/ring/i")));
+    Assertions.assertSame(response, oneApi.getMoviesAsync(query).get());
+    Assertions.assertEquals(
+        "/movie?name%3D%2Fring%2Fi&runtimeInMinutes%3C200&page%3D1&offset%3D0&limit%3D10",
+        this.server.takeRequest().getPath());
+    Assertions.assertEquals(1, this.server.getRequestCount());
+  }
+
+  @Test
+  void getsMoviesByIdsInFewRequests() {
+    this.server.setDispatcher(new MovieByIdDispatcher());
+
+    OneApi oneApi =
+        new OneApi(
+            ConfigOptions.builder()
+                .baseUrl(this.server.url("/").url().toString())
+                .cacheEnabled(true)
+                .build());
+    List<String> ids = new ArrayList<>();
+
+    for (int i = 200; i > 0; i--) {
+      ids.add(String.format("5cd95395de30eff6ebcc%04x", i));
+    }
+
+    ids.add("missing");
+    ids.add(ids.get(0));
+
+    Map<String, MovieResponse.Movie> movies = oneApi.getMoviesByIds(ids);
+
+    Assertions.assertEquals(ids.subList(0, 200), new ArrayList<>(movies.keySet()));
+    Assertions.assertEquals("Movie " + ids.get(7), movies.get(ids.get(7)).getName());
+    Assertions.assertEquals(3, this.server.getRequestCount());
+
+    // Movies held by cached responses are served without a request.
+    List<String> cachedIds = Arrays.asList(ids.get(3), "5cd95395de30eff6ebcc9999", ids.get(1));
+
+    movies = oneApi.getMoviesByIds(cachedIds);
+
+    Assertions.assertEquals(cachedIds, new ArrayList<>(movies.keySet()));
+    Assertions.assertEquals(4, this.server.getRequestCount());
+
+    for (List<String> chunk : OneApi.toIdChunks(ids)) {
+      Assertions.assertTrue(String.join("%2C", chunk).length() <= OneApi.ID_FILTER_MAX_LENGTH);
+    }
+  }
+
+  @Test
+  void cancelsRequestsWhenGetMoviesByIdsIsInterrupted() throws Exception {
+    this.server.enqueue(
+        new MockResponse()
+            .setResponseCode(200)
+            .setBody(TEST_MOVIE_RESPONSE)
+            .setHeadersDelay(2, TimeUnit.SECONDS));
+
+    CountDownLatch canceled = new CountDownLatch(1);
+    OkHttpClient okHttpClient =
+        new OkHttpClient.Builder()
+            .eventListener(
+                new EventListener() {
+                  @Override
+                  public void canceled(Call call) {
+                    canceled.countDown();
+                  }
+                })
+            .build();
+    OneApi oneApi =
+        new OneApi(
+            ConfigOptions.builder()
+                .baseUrl(this.server.url("/").url().toString())
+                .okHttpClient(okHttpClient)
+                .build());
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread caller =
+        new Thread(
+            () -> {
+              try {
+                oneApi.getMoviesByIds(Arrays.asList("100", "200"));
+              } catch (OneApiException e) {
+                failure.set(e);
+              }
+            });
+
+    caller.start();
+    Assertions.assertNotNull(this.server.takeRequest(5, TimeUnit.SECONDS));
+    caller.interrupt();
+    caller.join(5000);
+
+    Assertions.assertTrue(failure.get() instanceof OneApiException);
+    Assertions.assertTrue(canceled.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void batchesSingleIdLookups() throws Exception {
+    this.server.setDispatcher(new MovieByIdDispatcher());
+
+    ConfigOptions.ConfigOptionsBuilder builder =
+        ConfigOptions.builder()
+            .baseUrl(this.server.url("/").url().toString())
+            .batchingEnabled(true)
+            .batchWindow(Duration.ofMillis(200));
+    OneApi oneApi = new OneApi(builder.build());
+    List<CompletableFuture<MovieResponse>> responses = new ArrayList<>();
+
+    for (String id : Arrays.asList("100", "200", "missing", "100")) {
+      responses.add(
+          oneApi.getMoviesAsync(
+              new MovieParams().withAttributeEquals(MovieParams.MovieAttribute.ID, id)));
+    }
+
+    Assertions.assertEquals("Movie 100", responses.get(0).get().getMovies().get(0).getName());
+    Assertions.assertEquals("Movie 200", responses.get(1).get().getMovies().get(0).getName());
+    Assertions.assertEquals(0, responses.get(2).get().getTotal());
+    Assertions.assertEquals(1, responses.get(3).get().getTotal());
+    Assertions.assertEquals(1, this.server.getRequestCount());
+    Assertions.assertEquals(
+        "/movie?_id%3D100%2C200%2Cmissing&page%3D1&offset%3D0&limit%3D3",
+        this.server.takeRequest().getPath());
+
+    // A full batch is sent without waiting for the window to close.
+    OneApi full = new OneApi(builder.batchWindow(Duration.ofMinutes(1)).batchMaxSize(2).build());
+    CompletableFuture<MovieResponse> first =
+        full.getMoviesAsync(
+            new MovieParams().withAttributeEquals(MovieParams.MovieAttribute.ID, "300"));
+
+    Assertions.assertEquals(
+        "Movie 400",
+        full.getMovies(new MovieParams().withAttributeEquals(MovieParams.MovieAttribute.ID, "400"))
+            .getMovies()
+            .get(0)
+            .getName());
+    Assertions.assertEquals(1, first.get(5, TimeUnit.SECONDS).getTotal());
+    Assertions.assertEquals(2, this.server.getRequestCount());
+  }
+
+  @Test
+  void closeLoadsTheOpenBatch() throws Exception {
+    this.server.setDispatcher(new MovieByIdDispatcher());
+
+    OneApi oneApi =
+        new OneApi(
+            ConfigOptions.builder()
+                .baseUrl(this.server.url("/").url().toString())
+                .batchingEnabled(true)
+                .batchWindow(Duration.ofMinutes(1))
+                .build());
+    CompletableFuture<MovieResponse> response =
+        oneApi.getMoviesAsync(
+            new MovieParams().withAttributeEquals(MovieParams.MovieAttribute.ID, "100"));
+
+    oneApi.close();
+
+    Assertions.assertEquals(
+        "Movie 100", response.get(5, TimeUnit.SECONDS).getMovies().get(0).getName());
+  }
+
+  /** Serves the movies whose ids are listed in the _id filter, except for the id "missing". */
+  private static final class MovieByIdDispatcher extends Dispatcher {
+    @Override
+    public MockResponse dispatch(RecordedRequest request) {
+      String ids =
+          request.getRequestUrl().queryParameterNames().stream()
+              .filter(name -> name.startsWith("_id="))
+              .findFirst()
+              .get()
+              .substring("_id=".length());
+      String docs =
+          Arrays.stream(ids.split(","))
+              .filter(id -> !id.equals("missing"))
+              .map(id -> "{\"_id\": \"" + id + "\", \"name\": \"Movie " + id + "\"}")
+              .collect(Collectors.joining(","));
+
+      return new MockResponse().setResponseCode(200).setBody("{\"docs\":[" + docs + "]}");
+    }
+  }
 }
@@ -0,0 +1,76 @@
+package com.danielkyu.oneapi;
+
+import com.google.common.base.Ticker;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RateLimiterTest {
+  private final AtomicLong nanos = new AtomicLong();
+  private final Ticker ticker =
+      new Ticker() {
+        @Override
+        public long read() {
+          return nanos.get();
+        }
+      };
+
+  @Test
+  void queuesRequestsBeyondBurstAtSustainedRate() {
+    RateLimiter rateLimiter = new RateLimiter(10, Duration.ofSeconds(1), 2, 0, this.ticker);
+
+    Assertions.assertEquals(0, rateLimiter.reserve());
+    Assertions.assertEquals(0, rateLimiter.reserve());
+    Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(100), rateLimiter.reserve());
+    Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(200), rateLimiter.reserve());
+    Assertions.assertEquals(200, rateLimiter.stats().getCurrentWaitMillis());
+  }
+
+  @Test
+  void refillsUpToBurstWhileIdle() {
+    RateLimiter rateLimiter = new RateLimiter(10, Duration.ofSeconds(1), 2, 0, this.ticker);
+
+    rateLimiter.reserve();
+    rateLimiter.reserve();
+    this.nanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+    Assertions.assertEquals(0, rateLimiter.reserve());
+    Assertions.assertEquals(0, rateLimiter.reserve());
+    Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(100), rateLimiter.reserve());
+  }
+
+  @Test
+  void pauseHoldsBackEveryCaller() {
+    RateLimiter rateLimiter = new RateLimiter(10, Duration.ofSeconds(1), 5, 0, this.ticker);
+
+    rateLimiter.pause(Duration.ofSeconds(2));
+
+    Assertions.assertEquals(TimeUnit.SECONDS.toNanos(2), rateLimiter.reserve());
+    Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(2100), rateLimiter.reserve());
+    Assertions.assertEquals(1, rateLimiter.stats().getThrottledCount());
+  }
+
+  @Test
+  void closeReleasesCallsThatAreWaitingForAPermit() {
+    RateLimiter rateLimiter = new RateLimiter(1, Duration.ofMinutes(1), 1, 0, this.ticker);
+    OkHttpClient okHttpClient = new OkHttpClient();
+    Request request = new Request.Builder().url("http://localhost/").build();
+    AtomicInteger enqueued = new AtomicInteger();
+
+    rateLimiter.acquireAsync(okHttpClient.newCall(request), enqueued::incrementAndGet);
+    rateLimiter.acquireAsync(okHttpClient.newCall(request), enqueued::incrementAndGet);
+
+    Assertions.assertEquals(1, enqueued.get());
+    Assertions.assertEquals(1, rateLimiter.stats().getQueueDepth());
+
+    rateLimiter.close();
+
+    Assertions.assertEquals(2, enqueued.get());
+    Assertions.assertEquals(0, rateLimiter.stats().getQueueDepth());
+  }
+}
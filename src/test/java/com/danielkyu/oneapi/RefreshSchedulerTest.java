@@ -0,0 +1,70 @@
+package com.danielkyu.oneapi;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RefreshSchedulerTest {
+  @Test
+  void refreshesEachEntryOnceAtATime() throws Exception {
+    ResponseCache<String> cache = new ResponseCache<>(10, Duration.ofMinutes(1));
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger loads = new AtomicInteger();
+    RefreshScheduler<String> scheduler =
+        new RefreshScheduler<>(
+            cache,
+            (key, queryList) -> {
+              loads.incrementAndGet();
+              release.await();
+              return "refreshed";
+            },
+            2,
+            false,
+            RefreshScheduler.DEFAULT_HOT_KEY_MIN_HITS);
+
+    cache.put("a", Collections.singletonList("limit=10"), "value");
+
+    ResponseCache.Entry<String> entry = cache.getEntry("a");
+
+    scheduler.refresh(entry);
+    scheduler.refresh(entry);
+    release.countDown();
+
+    waitFor(() -> "refreshed".equals(cache.get("a")));
+    Assertions.assertEquals(1, loads.get());
+    Assertions.assertEquals(1, cache.stats().getRefreshCount());
+  }
+
+  @Test
+  void sweepRefreshesHotEntriesBeforeExpiry() throws Exception {
+    ResponseCache<String> cache = new ResponseCache<>(10, Duration.ofMillis(500));
+    RefreshScheduler<String> scheduler =
+        new RefreshScheduler<>(cache, (key, queryList) -> "refreshed", 1, false, 2);
+
+    cache.put("hot", Collections.singletonList("page=1"), "value");
+    cache.put("cold", Collections.singletonList("page=2"), "value");
+    cache.getEntry("hot");
+    cache.getEntry("hot");
+    Thread.sleep(450);
+
+    scheduler.sweep();
+
+    waitFor(() -> cache.stats().getRefreshCount() == 1);
+    Assertions.assertEquals("refreshed", cache.get("hot"));
+    Assertions.assertEquals("value", cache.get("cold"));
+  }
+
+  private static void waitFor(BooleanSupplier condition) throws Exception {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+    while (!condition.getAsBoolean()) {
+      Assertions.assertTrue(System.nanoTime() < deadline, "Timed out waiting for condition.");
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,192 @@
+package com.danielkyu.oneapi;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import okhttp3.Request;
+import okio.Timeout;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+public class RequestCoalescerTest {
+  /** A call that never completes on its own and records whether it was cancelled. */
+  private static class PendingCall implements Call<String> {
+    private volatile Callback<String> callback;
+    private volatile boolean canceled;
+
+    @Override
+    public Response<String> execute() throws IOException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void enqueue(Callback<String> callback) {
+      this.callback = callback;
+    }
+
+    @Override
+    public boolean isExecuted() {
+      return this.callback != null;
+    }
+
+    @Override
+    public void cancel() {
+      this.canceled = true;
+      this.callback.onFailure(this, new IOException("Canceled"));
+    }
+
+    @Override
+    public boolean isCanceled() {
+      return this.canceled;
+    }
+
+    @Override
+    public Call<String> clone() {
+      return new PendingCall();
+    }
+
+    @Override
+    public Request request() {
+      return new Request.Builder().url("http://localhost/").build();
+    }
+
+    @Override
+    public Timeout timeout() {
+      return Timeout.NONE;
+    }
+
+    void respond(String body) {
+      this.callback.onResponse(this, Response.success(body));
+    }
+  }
+
+  @Test
+  void sharesOneCallBetweenIdenticalRequests() throws Exception {
+    RequestCoalescer<String> coalescer = new RequestCoalescer<>();
+    PendingCall call = new PendingCall();
+    CompletableFuture<Response<String>> first = coalescer.enqueue("key", () -> call, r -> {});
+    CompletableFuture<Response<String>> second =
+        coalescer.enqueue("key", PendingCall::new, r -> {});
+
+    call.respond("body");
+
+    Assertions.assertEquals("body", first.get().body());
+    Assertions.assertEquals("body", second.get().body());
+    Assertions.assertEquals(1, coalescer.coalescedCount());
+  }
+
+  @Test
+  void cancelsSharedCallOnceEveryWaiterHasCancelled() {
+    RequestCoalescer<String> coalescer = new RequestCoalescer<>();
+    PendingCall call = new PendingCall();
+    CompletableFuture<Response<String>> first = coalescer.enqueue("key", () -> call, r -> {});
+    CompletableFuture<Response<String>> second =
+        coalescer.enqueue("key", PendingCall::new, r -> {});
+
+    first.cancel(true);
+    Assertions.assertFalse(call.isCanceled());
+
+    second.cancel(true);
+    Assertions.assertTrue(call.isCanceled());
+
+    // Subsequent requests must not join the cancelled call.
+    PendingCall replacement = new PendingCall();
+
+    coalescer.enqueue("key", () -> replacement, r -> {});
+    Assertions.assertTrue(replacement.isExecuted());
+  }
+
+  @Test
+  void handsSynchronousLeaderResponseToWaitersOnCallbackExecutor() throws Exception {
+    ExecutorService callbackExecutor =
+        Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "callback-thread"));
+    ExecutorService leaderExecutor = Executors.newSingleThreadExecutor();
+    RequestCoalescer<String> coalescer = new RequestCoalescer<>(null, callbackExecutor);
+    CountDownLatch executing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    PendingCall call =
+        new PendingCall() {
+          @Override
+          public Response<String> execute() throws IOException {
+            executing.countDown();
+
+            try {
+              release.await();
+            } catch (InterruptedException e) {
+              throw new IOException(e);
+            }
+
+            return Response.success("body");
+          }
+        };
+
+    try {
+      Future<Response<String>> leader =
+          leaderExecutor.submit(() -> coalescer.execute("key", () -> call, r -> {}));
+
+      executing.await();
+
+      CompletableFuture<String> waiterThread =
+          coalescer
+              .enqueue("key", PendingCall::new, r -> {})
+              .thenApply(response -> Thread.currentThread().getName());
+
+      release.countDown();
+
+      Assertions.assertEquals("body", leader.get().body());
+      Assertions.assertEquals("callback-thread", waiterThread.get());
+    } finally {
+      leaderExecutor.shutdown();
+      callbackExecutor.shutdown();
+    }
+  }
+
+  @Test
+  void cancelsPrimaryAndHedgeOnceEveryWaiterHasCancelled() throws Exception {
+    Hedger hedger = new Hedger(95, 100, 10);
+
+    // Fast responses teach the hedger to hedge after its minimum delay.
+    for (int i = 0; i < 20; i++) {
+      PendingCall fast = new PendingCall();
+      CompletableFuture<Response<String>> response = hedger.enqueue(fast);
+
+      fast.respond("fast");
+      response.get();
+    }
+
+    RequestCoalescer<String> coalescer = new RequestCoalescer<>(hedger, null);
+    PendingCall hedge = new PendingCall();
+    PendingCall primary =
+        new PendingCall() {
+          @Override
+          public Call<String> clone() {
+            return hedge;
+          }
+        };
+    CompletableFuture<Response<String>> first = coalescer.enqueue("key", () -> primary, r -> {});
+    CompletableFuture<Response<String>> second =
+        coalescer.enqueue("key", PendingCall::new, r -> {});
+
+    try {
+      for (int i = 0; i < 100 && !hedge.isExecuted(); i++) {
+        Thread.sleep(10);
+      }
+
+      Assertions.assertTrue(hedge.isExecuted());
+
+      first.cancel(true);
+      second.cancel(true);
+
+      Assertions.assertTrue(primary.isCanceled());
+      Assertions.assertTrue(hedge.isCanceled());
+    } finally {
+      hedger.close();
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package com.danielkyu.oneapi;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ResourceTest {
+  @Test
+  void nestedResourcesHaveNestedPaths() {
+    Assertions.assertEquals("movie/5cd95395/quote", Resource.movieQuotes("5cd95395").getPath());
+    Assertions.assertEquals("book/a%2Fb/chapter", Resource.bookChapters("a/b").getPath());
+    Assertions.assertEquals("character/7/quote", Resource.characterQuotes("7").getPath());
+    Assertions.assertThrows(IllegalArgumentException.class, () -> Resource.movieQuotes(" "));
+  }
+
+  @Test
+  void forPathResolvesEveryResource() {
+    Assertions.assertSame(Resource.MOVIE, Resource.forPath("movie"));
+    Assertions.assertSame(Resource.QUOTE, Resource.forPath("quote"));
+    Assertions.assertEquals("book/a%2Fb/chapter", Resource.forPath("book/a%2Fb/chapter").getPath());
+    Assertions.assertEquals("movie/1/quote", Resource.forPath("movie/1/quote").getPath());
+    Assertions.assertNull(Resource.forPath("movie/1/chapter"));
+    Assertions.assertNull(Resource.forPath("song"));
+  }
+}
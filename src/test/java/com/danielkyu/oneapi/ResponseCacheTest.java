@@ -0,0 +1,106 @@
+package com.danielkyu.oneapi;
+
+import com.google.common.base.Ticker;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ResponseCacheTest {
+  @Test
+  void countsHitsAndMisses() {
+    ResponseCache<String> cache = new ResponseCache<>(10, Duration.ofMinutes(1));
+
+    cache.put("a", "value");
+
+    Assertions.assertEquals("value", cache.get("a"));
+    Assertions.assertNull(cache.get("b"));
+
+    CacheStats stats = cache.stats();
+
+    Assertions.assertEquals(1, stats.getHitCount());
+    Assertions.assertEquals(1, stats.getMissCount());
+    Assertions.assertEquals(1, stats.getSize());
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedEntries() {
+    ResponseCache<String> cache = new ResponseCache<>(2, Duration.ofMinutes(1));
+
+    cache.put("a", "1");
+    cache.put("b", "2");
+    cache.get("a");
+    cache.put("c", "3");
+
+    Assertions.assertEquals("1", cache.get("a"));
+    Assertions.assertNull(cache.get("b"));
+    Assertions.assertEquals("3", cache.get("c"));
+    Assertions.assertEquals(1, cache.stats().getEvictionCount());
+  }
+
+  @Test
+  void indexesDocumentsUntilTheirResponseIsEvicted() {
+    // Each value is a comma-separated list of documents that are their own ids.
+    ResponseCache<String> cache =
+        new ResponseCache<>(
+            2,
+            Duration.ofMinutes(1),
+            Duration.ZERO,
+            Ticker.systemTicker(),
+            value ->
+                Arrays.stream(value.split(","))
+                    .collect(Collectors.toMap(Function.identity(), Function.identity())));
+
+    cache.put("a", "1,2");
+    cache.put("b", "3");
+    cache.put("a", "1");
+
+    Assertions.assertEquals("1", cache.getDocument("1", String.class));
+    Assertions.assertNull(cache.getDocument("2", String.class));
+    Assertions.assertNull(cache.getDocument("1", Integer.class));
+
+    cache.put("c", "4");
+    cache.put("d", "5");
+
+    Assertions.assertNull(cache.getDocument("1", String.class));
+    Assertions.assertNull(cache.getDocument("3", String.class));
+    Assertions.assertEquals("5", cache.getDocument("5", String.class));
+  }
+
+  @Test
+  void servesStaleEntriesWithinStalenessBound() {
+    AtomicLong nanos = new AtomicLong();
+    Ticker ticker =
+        new Ticker() {
+          @Override
+          public long read() {
+            return nanos.get();
+          }
+        };
+    ResponseCache<String> cache =
+        new ResponseCache<>(10, Duration.ofSeconds(10), Duration.ofSeconds(5), ticker);
+
+    cache.put("a", "value");
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(12));
+
+    ResponseCache.Entry<String> entry = cache.getEntry("a");
+
+    Assertions.assertEquals("value", entry.value);
+    Assertions.assertFalse(cache.isFresh(entry));
+    Assertions.assertNull(cache.get("a"));
+    Assertions.assertEquals(2, cache.stats().getStaleHitCount());
+
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(5));
+
+    Assertions.assertNull(cache.getEntry("a"));
+  }
+
+  @Test
+  void createIsDisabledByDefault() {
+    Assertions.assertNull(ResponseCache.create(new Config(), ConfigOptions.builder().build()));
+  }
+}
@@ -0,0 +1,127 @@
+package com.danielkyu.oneapi;
+
+import com.danielkyu.oneapi.responses.MovieResponse;
+import com.danielkyu.oneapi.responses.PaginatedResponse;
+import com.danielkyu.oneapi.responses.QuoteResponse;
+import com.google.common.base.Ticker;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ResponseSnapshotTest {
+  private static final List<String> QUERY = Arrays.asList("page=1", "offset=0", "limit=10");
+
+  @TempDir Path directory;
+
+  @Test
+  void restoresEveryResource() {
+    ResponseCache<PaginatedResponse<?>> cache = new ResponseCache<>(10, Duration.ofMinutes(1));
+    MovieResponse movies = movieResponse("The Two Towers");
+    QuoteResponse quotes = new QuoteResponse();
+    QuoteResponse.Quote quote = new QuoteResponse.Quote();
+    Path path = this.directory.resolve("snapshot.bin");
+
+    quote.setId("1");
+    quote.setDialog("Deagol!");
+    quotes.setDocs(Collections.singletonList(quote));
+    quotes.setTotal(1);
+    cache.put(toKey("movie"), QUERY, movies);
+    cache.put(toKey("movie/100/quote"), QUERY, quotes);
+
+    Assertions.assertEquals(2, new ResponseSnapshot(path, cache, null, null).save());
+
+    ResponseCache<PaginatedResponse<?>> restored = new ResponseCache<>(10, Duration.ofMinutes(1));
+
+    Assertions.assertEquals(2, new ResponseSnapshot(path, restored, null, null).load());
+    Assertions.assertEquals(movies, restored.get(toKey("movie")));
+    Assertions.assertEquals(quotes, restored.get(toKey("movie/100/quote")));
+    Assertions.assertEquals(QUERY, restored.getEntry(toKey("movie")).queryList);
+  }
+
+  @Test
+  void refreshesStaleEntriesInBackground() throws Exception {
+    AtomicLong nanos = new AtomicLong();
+    Ticker ticker =
+        new Ticker() {
+          @Override
+          public long read() {
+            return nanos.get();
+          }
+        };
+    ResponseCache<PaginatedResponse<?>> cache =
+        new ResponseCache<>(10, Duration.ofMinutes(1), Duration.ofMinutes(1), ticker);
+    Path path = this.directory.resolve("snapshot.bin");
+
+    cache.put(toKey("movie"), QUERY, movieResponse("The Two Towers"));
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(90));
+    new ResponseSnapshot(path, cache, null, null).save();
+
+    ResponseCache<PaginatedResponse<?>> expiring = new ResponseCache<>(10, Duration.ofMinutes(1));
+    ResponseCache<PaginatedResponse<?>> restored =
+        new ResponseCache<>(
+            10, Duration.ofMinutes(1), Duration.ofMinutes(1), Ticker.systemTicker());
+    MovieResponse refreshed = movieResponse("The Return of the King");
+    RefreshScheduler<PaginatedResponse<?>> refresher =
+        new RefreshScheduler<>(restored, (key, queryList) -> refreshed, 1, false, 2);
+
+    // Without a refresher, entries past their TTL could never be replaced, so they are dropped.
+    Assertions.assertEquals(0, new ResponseSnapshot(path, expiring, null, null).load());
+    Assertions.assertEquals(1, new ResponseSnapshot(path, restored, refresher, null).load());
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+    while (restored.get(toKey("movie")) == null && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+
+    Assertions.assertEquals(refreshed, restored.get(toKey("movie")));
+  }
+
+  @Test
+  void ignoresCorruptSnapshots() throws Exception {
+    ResponseCache<PaginatedResponse<?>> cache = new ResponseCache<>(10, Duration.ofMinutes(1));
+    Path path = this.directory.resolve("snapshot.bin");
+
+    Assertions.assertEquals(0, new ResponseSnapshot(path, cache, null, null).load());
+
+    cache.put(toKey("movie"), QUERY, movieResponse("The Two Towers"));
+    new ResponseSnapshot(path, cache, null, null).save();
+
+    byte[] bytes = Files.readAllBytes(path);
+
+    bytes[bytes.length / 2] ^= 1;
+    Files.write(path, bytes);
+
+    ResponseCache<PaginatedResponse<?>> restored = new ResponseCache<>(10, Duration.ofMinutes(1));
+
+    Assertions.assertEquals(0, new ResponseSnapshot(path, restored, null, null).load());
+    Assertions.assertEquals(0, restored.stats().getSize());
+  }
+
+  private static MovieResponse movieResponse(String name) {
+    MovieResponse response = new MovieResponse();
+    MovieResponse.Movie movie = new MovieResponse.Movie();
+
+    movie.setId("5cd95395de30eff6ebccde5b");
+    movie.setName(name);
+    movie.setRuntimeInMinutes(179);
+    response.setMovies(Collections.singletonList(movie));
+    response.setTotal(1);
+    response.setLimit(10);
+    response.setPage(1);
+    response.setPages(1);
+    return response;
+  }
+
+  private static String toKey(String path) {
+    return path + "?" + String.join("&", QUERY);
+  }
+}
@@ -1,6 +1,7 @@
 package com.danielkyu.oneapi.params;
 
 import com.danielkyu.oneapi.params.MovieParams.MovieAttribute;
+import java.util.Arrays;
 import java.util.List;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -50,4 +51,60 @@ public class MovieParamsTest {
     Assertions.assertEquals("offset=10", queryList.get(10));
     Assertions.assertEquals("limit=100", queryList.get(11));
   }
+
+  @Test
+  void testBuildCanonicalizesFilters() {
+    ResourceQuery<MovieParams> query =
+        new MovieParams()
+            .withAttributeEquals(MovieAttribute.NAME, "/ring/i")
+            .withAttributeGreaterThan(MovieAttribute.BUDGET_IN_MILLIONS, 100.0)
+            .withPage(2)
+            .build();
+    MovieParams reordered =
+        new MovieParams()
+            .withAttributeGreaterThan(MovieAttribute.BUDGET_IN_MILLIONS, 100)
+            .withAttributeEquals(MovieAttribute.NAME, "/ring/i")
+            .withAttributeEquals(MovieAttribute.NAME, "/ring/i")
+            .withPage(2);
+
+    Assertions.assertEquals(query, reordered.build());
+    Assertions.assertEquals(query.hashCode(), reordered.build().hashCode());
+    Assertions.assertEquals(
+        "budgetInMillions>100&name=/ring/i&page=2&offset=0&limit=10", query.getQueryString());
+    Assertions.assertEquals(
+        Arrays.asList("budgetInMillions>100", "name=/ring/i", "page=2", "offset=0", "limit=10"),
+        query.toQueryList());
+    Assertions.assertThrows(UnsupportedOperationException.class, () -> query.toQueryList().clear());
+
+    // The query is a snapshot of the parameters and can be paged independently.
+    reordered.withLimit(5);
+    Assertions.assertEquals(query, reordered.withLimit(10).build());
+    Assertions.assertEquals(
+        "budgetInMillions>100&name=/ring/i&page=3&offset=0&limit=10",
+        query.withPage(3).getQueryString());
+  }
+
+  @Test
+  void testKeepsPublishedMethodSignatures() throws NoSuchMethodException {
+    // Applications compiled against earlier releases link against these exact descriptors.
+    for (String name :
+        Arrays.asList(
+            "withAttributeEquals",
+            "withAttributeNotEquals",
+            "withAttributeLessThan",
+            "withAttributeLessThanOrEqualTo",
+            "withAttributeGreaterThan",
+            "withAttributeGreaterThanOrEqualTo")) {
+      Assertions.assertEquals(
+          MovieParams.class,
+          MovieParams.class
+              .getDeclaredMethod(name, MovieAttribute.class, Object.class)
+              .getReturnType());
+    }
+
+    for (String name : Arrays.asList("withLimit", "withOffset", "withPage")) {
+      Assertions.assertEquals(
+          MovieParams.class, MovieParams.class.getDeclaredMethod(name, int.class).getReturnType());
+    }
+  }
 }
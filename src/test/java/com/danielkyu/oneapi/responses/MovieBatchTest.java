@@ -0,0 +1,76 @@
+package com.danielkyu.oneapi.responses;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MovieBatchTest {
+  @Test
+  void buildPacksColumnsAndRoundTripsMovies() {
+    MovieBatch.Builder builder = MovieBatch.builder();
+
+    for (int i = 0; i < 40; i++) {
+      builder.add(
+          createMovie(
+              String.format("5cd95395de30eff6ebccde%02x", i), i % 2 == 0 ? "Even" : "Odd", i));
+    }
+
+    Pagination pagination = new Pagination();
+
+    pagination.setTotal(40);
+
+    MovieBatch batch = builder.build(pagination);
+
+    Assertions.assertEquals(40, batch.size());
+    Assertions.assertSame(pagination, batch.getPagination());
+    Assertions.assertEquals("5cd95395de30eff6ebccde00", batch.getId(0));
+    Assertions.assertEquals("5cd95395de30eff6ebccde27", batch.getId(39));
+    Assertions.assertEquals("Odd", batch.getName(39));
+    Assertions.assertSame(batch.getName(1), batch.getName(3));
+    Assertions.assertEquals(39, batch.getRuntimeInMinutes(39));
+    Assertions.assertEquals(createMovie("5cd95395de30eff6ebccde11", "Odd", 17), batch.getMovie(17));
+    Assertions.assertEquals(40, batch.toMovies().size());
+  }
+
+  @Test
+  void buildKeepsIdsThatAreNotObjectIds() {
+    MovieBatch batch =
+        MovieBatch.builder()
+            .add(createMovie("100", null, 1))
+            .add(createMovie("00000000000000000000000A", "Upper", 2))
+            .add(createMovie("ffffffffffffffffffffffff", "Max", 3))
+            .build(new Pagination());
+
+    Assertions.assertEquals("100", batch.getId(0));
+    Assertions.assertNull(batch.getName(0));
+    Assertions.assertEquals("00000000000000000000000A", batch.getId(1));
+    Assertions.assertEquals("ffffffffffffffffffffffff", batch.getId(2));
+  }
+
+  @Test
+  void buildRoundTripsMoviesWithoutIds() {
+    MovieResponse.Movie withoutId = createMovie(null, "Unknown", 1);
+    MovieBatch batch =
+        MovieBatch.builder()
+            .add(withoutId)
+            .add(createMovie("5cd95395de30eff6ebccde5b", "Packed", 2))
+            .build(new Pagination());
+
+    Assertions.assertNull(batch.getId(0));
+    Assertions.assertEquals(withoutId, batch.getMovie(0));
+    Assertions.assertEquals("5cd95395de30eff6ebccde5b", batch.getId(1));
+  }
+
+  private static MovieResponse.Movie createMovie(String id, String name, int value) {
+    MovieResponse.Movie movie = new MovieResponse.Movie();
+
+    movie.setId(id);
+    movie.setName(name);
+    movie.setRuntimeInMinutes(value);
+    movie.setBudgetInMillions(value + 1);
+    movie.setBoxOfficeRevenueInMillions(value + 2);
+    movie.setAcademyAwardNominations(value + 3);
+    movie.setAcademyAwardWins(value + 4);
+    movie.setRottenTomatoesScore(value + 5);
+    return movie;
+  }
+}
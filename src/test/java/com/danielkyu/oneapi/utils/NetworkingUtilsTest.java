@@ -0,0 +1,137 @@
+package com.danielkyu.oneapi.utils;
+
+import com.danielkyu.oneapi.Config;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class NetworkingUtilsTest {
+  private MockWebServer server;
+
+  @BeforeEach
+  void beforeEach() throws IOException {
+    this.server = new MockWebServer();
+    this.server.start();
+  }
+
+  @AfterEach
+  void afterEach() throws IOException {
+    this.server.shutdown();
+    this.server = null;
+  }
+
+  @Test
+  void createsDispatcherWithLimitsAndDaemonThreads() throws Exception {
+    Dispatcher dispatcher = NetworkingUtils.createDispatcher(16, 4, false);
+
+    Assertions.assertEquals(16, dispatcher.getMaxRequests());
+    Assertions.assertEquals(4, dispatcher.getMaxRequestsPerHost());
+    Assertions.assertTrue(
+        dispatcher.executorService().submit(() -> Thread.currentThread().isDaemon()).get());
+  }
+
+  @Test
+  void revalidatesCachedResponsesWithETag(@TempDir Path cacheDirectory) throws Exception {
+    Config config = new Config();
+
+    config.networking = new Config.Networking();
+    config.networking.cacheDirectory = cacheDirectory.toString();
+
+    this.server.enqueue(new MockResponse().setHeader("ETag", "\"v1\"").setBody("body"));
+    this.server.enqueue(new MockResponse().setResponseCode(304));
+
+    OkHttpClient okHttpClient = NetworkingUtils.createOkHttpClientBuilder(config).build();
+    Request request = new Request.Builder().url(this.server.url("/movie?limit=10")).build();
+
+    try (Response response = okHttpClient.newCall(request).execute()) {
+      Assertions.assertEquals("body", response.body().string());
+    }
+
+    try (Response response = okHttpClient.newCall(request).execute()) {
+      Assertions.assertEquals("body", response.body().string());
+      Assertions.assertEquals(304, response.networkResponse().code());
+    }
+
+    this.server.takeRequest();
+
+    RecordedRequest revalidation = this.server.takeRequest();
+
+    Assertions.assertEquals("\"v1\"", revalidation.getHeader("If-None-Match"));
+    okHttpClient.cache().close();
+  }
+
+  @Test
+  void appliesPoolTimeoutsAndProtocols() {
+    Config config = new Config();
+
+    config.networking = new Config.Networking();
+    config.networking.connectTimeoutMillis = 1000;
+    config.networking.readTimeoutMillis = 2000;
+    config.networking.callTimeoutMillis = 3000;
+    config.networking.protocols = "http/1.1";
+
+    OkHttpClient okHttpClient = NetworkingUtils.createOkHttpClientBuilder(config).build();
+
+    Assertions.assertEquals(1000, okHttpClient.connectTimeoutMillis());
+    Assertions.assertEquals(2000, okHttpClient.readTimeoutMillis());
+    Assertions.assertEquals(3000, okHttpClient.callTimeoutMillis());
+    Assertions.assertEquals(Collections.singletonList(Protocol.HTTP_1_1), okHttpClient.protocols());
+    Assertions.assertEquals(
+        Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1),
+        NetworkingUtils.createOkHttpClientBuilder(new Config()).build().protocols());
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> NetworkingUtils.parseProtocols("h2"));
+  }
+
+  @Test
+  void multiplexesConcurrentCallsOverHttp2() throws Exception {
+    Config config = new Config();
+
+    config.networking = new Config.Networking();
+    config.networking.protocols = "h2_prior_knowledge";
+    this.server.setProtocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+
+    OkHttpClient okHttpClient = NetworkingUtils.createOkHttpClientBuilder(config).build();
+    List<Future<Integer>> responses = new ArrayList<>();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    for (int i = 0; i < 4; i++) {
+      this.server.enqueue(new MockResponse().setBody("body"));
+      responses.add(
+          executor.submit(
+              () -> {
+                Request request = new Request.Builder().url(this.server.url("/movie")).build();
+
+                try (Response response = okHttpClient.newCall(request).execute()) {
+                  return response.code();
+                }
+              }));
+    }
+
+    for (Future<Integer> response : responses) {
+      Assertions.assertEquals(200, response.get());
+    }
+
+    executor.shutdown();
+    Assertions.assertEquals(1, okHttpClient.connectionPool().connectionCount());
+  }
+}